@@ -0,0 +1,107 @@
+package org.learning.interview.generalJavaQuestions.ImmutableClass;
+
+import org.learning.interview.generalJavaQuestions.ImmutableClass.classes.CreateImmutableClassInJava;
+import org.learning.interview.generalJavaQuestions.ImmutableClass.classes.ImmutableReference;
+import org.learning.interview.generalJavaQuestions.ImmutableClass.classes.ReferenceObject;
+import org.learning.interview.generalJavaQuestions.ImmutableClass.classes.StructuralSharingImmutableClass;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Defensive copies (CreateImmutableClassInJava) against structural sharing (StructuralSharingImmutableClass).
+ * Run with -prof gc: gc.alloc.rate.norm shows the bytes every read/update allocates, that's the real difference.
+ * read*   = calling the getters like a read heavy caller would
+ * update* = adding one friend (a new immutable object with one more element)
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class ImmutableClassBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int friends;
+
+    private CreateImmutableClassInJava defensive;
+    private StructuralSharingImmutableClass shared;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> names = new ArrayList<>(friends);
+        for (int i = 0; i < friends; i++) {
+            names.add("friend" + i);
+        }
+        ReferenceObject referenceObject = new ReferenceObject();
+        referenceObject.setRefName("Sid");
+        defensive = new CreateImmutableClassInJava("Siddu", referenceObject, names);
+        shared = new StructuralSharingImmutableClass("Siddu", ImmutableReference.from(referenceObject), names);
+    }
+
+    @Benchmark
+    public void readDefensiveCopy(Blackhole blackhole) {
+        blackhole.consume(defensive.getFriends());
+        blackhole.consume(defensive.getReferenceObject());
+    }
+
+    @Benchmark
+    public void readStructuralSharing(Blackhole blackhole) {
+        blackhole.consume(shared.getFriends());
+        blackhole.consume(shared.getReference());
+    }
+
+    /*the defensive version has no withFriend: copy out, add, copy in again (what a caller has to write)*/
+    @Benchmark
+    public CreateImmutableClassInJava updateDefensiveCopy() {
+        List<String> friendsCopy = defensive.getFriends();
+        friendsCopy.add("Nagaraj");
+        return new CreateImmutableClassInJava(defensive.getName(), defensive.getReferenceObject(), friendsCopy);
+    }
+
+    @Benchmark
+    public StructuralSharingImmutableClass updateStructuralSharing() {
+        return shared.withFriend("Nagaraj");
+    }
+
+    /*iterating the friends after reading them: ArrayList against the persistent vector leaves*/
+    @Benchmark
+    public int iterateDefensiveCopy() {
+        int length = 0;
+        for (String friend : defensive.getFriends()) {
+            length += friend.length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int iterateStructuralSharing() {
+        int length = 0;
+        for (String friend : shared.getFriends()) {
+            length += friend.length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int iterateStructuralSharingForEach() {
+        int[] length = new int[1];
+        shared.getFriends().forEach(friend -> length[0] += friend.length());
+        return length[0];
+    }
+}
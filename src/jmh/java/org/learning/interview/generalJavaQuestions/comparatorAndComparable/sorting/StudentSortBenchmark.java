@@ -0,0 +1,114 @@
+package org.learning.interview.generalJavaQuestions.comparatorAndComparable.sorting;
+
+import org.learning.interview.generalJavaQuestions.comparatorAndComparable.utils.Student;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Comparator based sorting of Students (as in ComparatorExample) against IntKeySort and KeyedSorter.
+ * Ages are 18..60 so "age then name" has long runs of equal ages which is where the second key matters.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class StudentSortBenchmark {
+
+    private static final Comparator<Student> AGE_THEN_NAME = Comparator.comparingInt(Student::age).thenComparing(Student::name);
+    private static final KeyedSorter<Student> KEYED_AGE_THEN_NAME = KeyedSorter.comparingInt(Student::age).thenComparing(Student::name);
+
+    @Param({"1000", "1000000", "10000000"})
+    public int size;
+
+    private List<Student> students;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Student> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            char[] name = new char[random.nextInt(3, 9)];
+            for (int j = 0; j < name.length; j++) {
+                name[j] = (char) random.nextInt('a', 'z' + 1);
+            }
+            list.add(Student.builder().id(i).name(new String(name)).age(random.nextInt(18, 61)).build());
+        }
+        students = List.copyOf(list);
+    }
+
+    /*single int key*/
+    @Benchmark
+    public List<Student> byAgeComparator() {
+        return students.stream().sorted(Comparator.comparingInt(Student::age)).toList();
+    }
+
+    @Benchmark
+    public List<Student> byAgeIntKeySort() {
+        return IntKeySort.sortByIntKey(students, Student::age);
+    }
+
+    @Benchmark
+    public List<Student> byAgeIntKeySortParallel() {
+        return IntKeySort.parallelSortByIntKey(students, Student::age);
+    }
+
+    @Benchmark
+    public List<Student> byIdDescendingComparator() {
+        return students.stream().sorted(Comparator.comparingInt(Student::id).reversed()).toList();
+    }
+
+    @Benchmark
+    public List<Student> byIdDescendingIntKeySort() {
+        return IntKeySort.sortByIntKeyDescending(students, Student::id);
+    }
+
+    /*age then name*/
+    @Benchmark
+    public List<Student> byAgeThenNameThenComparing() {
+        return students.stream().sorted(AGE_THEN_NAME).toList();
+    }
+
+    @Benchmark
+    public List<Student> byAgeThenNameThenComparingParallel() {
+        return students.parallelStream().sorted(AGE_THEN_NAME).toList();
+    }
+
+    @Benchmark
+    public List<Student> byAgeThenNameKeyedSorter() {
+        return KEYED_AGE_THEN_NAME.sort(students);
+    }
+
+    @Benchmark
+    public List<Student> byAgeThenNameKeyedSorterParallel() {
+        return KEYED_AGE_THEN_NAME.parallelSort(students);
+    }
+
+    /*name only: the object key path (merge sort over the extracted names)*/
+    @Benchmark
+    public List<Student> byNameComparing() {
+        return students.stream().sorted(Comparator.comparing(Student::name)).toList();
+    }
+
+    @Benchmark
+    public List<Student> byNameKeyedSorter() {
+        return KeyedSorter.comparing(Student::name).sort(students);
+    }
+}
@@ -0,0 +1,165 @@
+package org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.dispatch;
+
+import org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.dispatch.DispatchShapes.Plugin;
+import org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.dispatch.DispatchShapes.PluginFunction;
+import org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.dispatch.DispatchShapes.PluginInterface;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * A hot plugin loop: a chain of CHAIN plugins applied to each of SIZE values, the chain built from types distinct
+ * implementation classes (1 = monomorphic, 2 = bimorphic, 8 = megamorphic call site).
+ * One op is SIZE * CHAIN calls, so ns/op / 8192 is the cost of one call.
+ *
+ * HotSpot inlines a call site that saw 1 type (one type check), or 2 types (two checks); with 3+ types it falls back
+ * to a vtable/itable call that can't be inlined, so the callee's body stays opaque to the loop.
+ * Every benchmark method is its own call site and every types value runs in its own fork, so the profiles don't mix.
+ *
+ * Per element: interfaceCall (invokeinterface), abstractClassCall (invokevirtual), defaultMethodCall (default method
+ * calling apply), superDefaultCall (override calling PluginInterface.super.combined), lambdaCall (@FunctionalInterface),
+ * sealedSwitch (type switch over the sealed class, no virtual call).
+ * Per array (the recommended pattern): bulkOverridden (every class has its own applyAll loop), bulkDefault (one
+ * applyAll loop in the interface shared by all classes).
+ *
+ * Inlining/deopt diagnostics: DispatchDiagnostics runs one of these with -XX:+PrintInlining/-XX:+PrintCompilation.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class DispatchCostBenchmark {
+
+    static final int SIZE = 1024;
+    static final int CHAIN = DispatchShapes.IMPLEMENTATIONS;
+
+    @Param({"1", "2", "8"})
+    public int types;
+
+    private int[] values;
+    private int[] buffer;
+    private Plugin[] plugins;
+    private PluginInterface[] interfaces;
+    private PluginFunction[] functions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        values = new SplittableRandom(42).ints(SIZE, 0, 1 << 20).toArray();
+        buffer = new int[SIZE];
+        plugins = DispatchShapes.plugins(types, CHAIN);
+        interfaces = plugins.clone();
+        functions = DispatchShapes.functions(types, CHAIN);
+    }
+
+    @Benchmark
+    public int interfaceCall() {
+        int sum = 0;
+        for (int value : values) {
+            for (PluginInterface plugin : interfaces) {
+                value = plugin.apply(value);
+            }
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int abstractClassCall() {
+        int sum = 0;
+        for (int value : values) {
+            for (Plugin plugin : plugins) {
+                value = plugin.abstractMethod(value);
+            }
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int defaultMethodCall() {
+        int sum = 0;
+        for (int value : values) {
+            for (PluginInterface plugin : interfaces) {
+                value = plugin.defaultMethod(value);
+            }
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int superDefaultCall() {
+        int sum = 0;
+        for (int value : values) {
+            for (PluginInterface plugin : interfaces) {
+                value = plugin.combined(value);
+            }
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int lambdaCall() {
+        int sum = 0;
+        for (int value : values) {
+            for (PluginFunction function : functions) {
+                value = function.apply(value);
+            }
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int sealedSwitch() {
+        int sum = 0;
+        for (int value : values) {
+            for (Plugin plugin : plugins) {
+                value = DispatchShapes.switchApply(plugin, value);
+            }
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int bulkOverridden() {
+        System.arraycopy(values, 0, buffer, 0, SIZE);
+        for (PluginInterface plugin : interfaces) {
+            plugin.applyAll(buffer);
+        }
+        return sum(buffer);
+    }
+
+    @Benchmark
+    public int bulkDefault() {
+        System.arraycopy(values, 0, buffer, 0, SIZE);
+        for (PluginInterface plugin : interfaces) {
+            plugin.applyAllDefault(buffer);
+        }
+        return sum(buffer);
+    }
+
+    private static int sum(int[] values) {
+        int sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,32 @@
+package org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.dispatch;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+ * Runs DispatchCostBenchmark methods with the JIT's inlining and compilation log printed by the forked jvm,
+ * to see why a number is what it is. Look for the benchmark's call site in the output:
+ * - "inline (hot)"                            the call was inlined (1 or 2 receiver types)
+ * - "virtual call" / "no static binding"     megamorphic, a real vtable/itable call
+ * - "made not entrant"                        a compiled method was thrown away (deoptimized), eg: a third type showed up
+ *   after the call site was compiled for two
+ * usage: java -cp target/benchmarks.jar org.learning...dispatch.DispatchDiagnostics [method regex] [types...]
+ * eg: ... DispatchDiagnostics interfaceCall 2 8
+ * */
+public class DispatchDiagnostics {
+    public static void main(String[] args) throws RunnerException {
+        String method = args.length > 0 ? args[0] : "interfaceCall";
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.include(DispatchCostBenchmark.class.getName() + "." + method + "$")
+                .jvmArgsAppend("-XX:+UnlockDiagnosticVMOptions", "-XX:+PrintCompilation", "-XX:+PrintInlining")
+                .warmupIterations(1)
+                .measurementIterations(1);
+        if (args.length > 1) {
+            String[] types = new String[args.length - 1];
+            System.arraycopy(args, 1, types, 0, types.length);
+            builder.param("types", types);
+        }
+        new Runner(builder.build()).run();
+    }
+}
@@ -0,0 +1,263 @@
+package org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.dispatch;
+
+/*
+ * The dispatch shapes of the interfaces/abstractClass/functionalInterface examples, without the println
+ * (printing would be all the benchmark measures):
+ * - PluginInterface/PluginInterface2 are InterfaceTest/InterfaceTest2: an abstract method, a default method calling it
+ *   and the same default method in both, so every implementation overrides it with PluginInterface.super.combined
+ *   like MultiPleInheritanceViaInterface
+ * - Plugin is AbstractClass1: an abstract method called with invokevirtual instead of invokeinterface
+ *   (same body as apply). It is sealed so the eight implementations can also be dispatched with a switch over the type
+ * - PluginFunction is a @FunctionalInterface, every lambda is its own (hidden) class
+ * - applyAll/applyAllDefault are the bulk version: one virtual call per array instead of per element
+ *
+ * The eight implementations P0..P7 do different one instruction operations so they can't be merged by the JIT.
+ * */
+final class DispatchShapes {
+
+    static final int IMPLEMENTATIONS = 8;
+
+    private DispatchShapes() {
+    }
+
+    interface PluginInterface {
+        int apply(int value);
+
+        /*calls apply from one shared call site, whatever the implementation*/
+        default int defaultMethod(int value) {
+            return apply(value) + 1;
+        }
+
+        default int combined(int value) {
+            return apply(value) - 1;
+        }
+
+        /*bulk loop written once in the interface: its apply call site sees every implementation*/
+        default void applyAllDefault(int[] values) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = apply(values[i]);
+            }
+        }
+
+        /*bulk loop every implementation writes itself: its apply call site sees one type*/
+        void applyAll(int[] values);
+    }
+
+    interface PluginInterface2 {
+        default int combined(int value) {
+            return value;
+        }
+    }
+
+    @FunctionalInterface
+    interface PluginFunction {
+        int apply(int value);
+    }
+
+    abstract static sealed class Plugin implements PluginInterface, PluginInterface2
+            permits P0, P1, P2, P3, P4, P5, P6, P7 {
+
+        abstract int abstractMethod(int value);
+
+        @Override
+        public int combined(int value) {
+            return PluginInterface.super.combined(value);
+        }
+    }
+
+    static final class P0 extends Plugin {
+        @Override
+        public int apply(int value) {
+            return value + 1;
+        }
+
+        @Override
+        int abstractMethod(int value) {
+            return value + 1;
+        }
+
+        @Override
+        public void applyAll(int[] values) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = values[i] + 1;
+            }
+        }
+    }
+
+    static final class P1 extends Plugin {
+        @Override
+        public int apply(int value) {
+            return value ^ 0x55;
+        }
+
+        @Override
+        int abstractMethod(int value) {
+            return value ^ 0x55;
+        }
+
+        @Override
+        public void applyAll(int[] values) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = values[i] ^ 0x55;
+            }
+        }
+    }
+
+    static final class P2 extends Plugin {
+        @Override
+        public int apply(int value) {
+            return value * 3;
+        }
+
+        @Override
+        int abstractMethod(int value) {
+            return value * 3;
+        }
+
+        @Override
+        public void applyAll(int[] values) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = values[i] * 3;
+            }
+        }
+    }
+
+    static final class P3 extends Plugin {
+        @Override
+        public int apply(int value) {
+            return value - 7;
+        }
+
+        @Override
+        int abstractMethod(int value) {
+            return value - 7;
+        }
+
+        @Override
+        public void applyAll(int[] values) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = values[i] - 7;
+            }
+        }
+    }
+
+    static final class P4 extends Plugin {
+        @Override
+        public int apply(int value) {
+            return value >>> 1;
+        }
+
+        @Override
+        int abstractMethod(int value) {
+            return value >>> 1;
+        }
+
+        @Override
+        public void applyAll(int[] values) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = values[i] >>> 1;
+            }
+        }
+    }
+
+    static final class P5 extends Plugin {
+        @Override
+        public int apply(int value) {
+            return value | 8;
+        }
+
+        @Override
+        int abstractMethod(int value) {
+            return value | 8;
+        }
+
+        @Override
+        public void applyAll(int[] values) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = values[i] | 8;
+            }
+        }
+    }
+
+    static final class P6 extends Plugin {
+        @Override
+        public int apply(int value) {
+            return value << 1;
+        }
+
+        @Override
+        int abstractMethod(int value) {
+            return value << 1;
+        }
+
+        @Override
+        public void applyAll(int[] values) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = values[i] << 1;
+            }
+        }
+    }
+
+    static final class P7 extends Plugin {
+        @Override
+        public int apply(int value) {
+            return value & 0xFFFF;
+        }
+
+        @Override
+        int abstractMethod(int value) {
+            return value & 0xFFFF;
+        }
+
+        @Override
+        public void applyAll(int[] values) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = values[i] & 0xFFFF;
+            }
+        }
+    }
+
+    /*count plugins cycling through the first types implementations*/
+    static Plugin[] plugins(int types, int count) {
+        Plugin[] plugins = new Plugin[count];
+        for (int i = 0; i < count; i++) {
+            plugins[i] = switch (i % types) {
+                case 0 -> new P0();
+                case 1 -> new P1();
+                case 2 -> new P2();
+                case 3 -> new P3();
+                case 4 -> new P4();
+                case 5 -> new P5();
+                case 6 -> new P6();
+                default -> new P7();
+            };
+        }
+        return plugins;
+    }
+
+    /*the same operations as lambdas, one class per distinct lambda*/
+    static PluginFunction[] functions(int types, int count) {
+        PluginFunction[] all = {
+                value -> value + 1, value -> value ^ 0x55, value -> value * 3, value -> value - 7,
+                value -> value >>> 1, value -> value | 8, value -> value << 1, value -> value & 0xFFFF};
+        PluginFunction[] functions = new PluginFunction[count];
+        for (int i = 0; i < count; i++) {
+            functions[i] = all[i % types];
+        }
+        return functions;
+    }
+
+    /*closed set dispatch: a type switch over the sealed class instead of a virtual call*/
+    static int switchApply(Plugin plugin, int value) {
+        return switch (plugin) {
+            case P0 p -> value + 1;
+            case P1 p -> value ^ 0x55;
+            case P2 p -> value * 3;
+            case P3 p -> value - 7;
+            case P4 p -> value >>> 1;
+            case P5 p -> value | 8;
+            case P6 p -> value << 1;
+            case P7 p -> value & 0xFFFF;
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.functionalInterface.fused;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/*
+ * filter(even) -> map(square) -> sum over an int[]: boxed Stream vs IntStream vs FusedIntPipeline vs a hand written loop.
+ * pollute=true first runs other filter/map shapes through the same code, like a real program with many pipelines:
+ * the shared stream call sites go megamorphic while every fused pipeline keeps its own loop class.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class FusedPipelineBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean pollute;
+
+    private int[] values;
+    private FusedIntPipeline evenSquares;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        values = new SplittableRandom(42).ints(size, 0, 1000).toArray();
+        evenSquares = FusedIntPipeline.builder().filter(num -> num % 2 == 0).map(num -> num * num).compile();
+        if (pollute) {
+            int[] sample = Arrays.copyOf(values, Math.min(size, 1000));
+            FusedIntPipeline other = FusedIntPipeline.builder().filter(num -> num > 500).map(num -> num + 1).compile();
+            for (int round = 0; round < 20_000; round++) {
+                IntStream.of(sample).filter(num -> num > 500).map(num -> num + 1).sum();
+                IntStream.of(sample).filter(num -> num % 3 == 0).map(num -> num * 7).sum();
+                IntStream.of(sample).filter(num -> (num & 4) != 0).map(num -> num - 3).sum();
+                Arrays.stream(sample).boxed().filter(num -> num > 500).mapToInt(num -> num + 1).sum();
+                Arrays.stream(sample).boxed().filter(num -> num % 3 == 0).mapToInt(num -> num * 7).sum();
+                other.sum(sample);
+            }
+        }
+    }
+
+    @Benchmark
+    public int boxedStream() {
+        return Arrays.stream(values).boxed().filter(num -> num % 2 == 0).mapToInt(num -> num * num).sum();
+    }
+
+    @Benchmark
+    public int intStream() {
+        return IntStream.of(values).filter(num -> num % 2 == 0).map(num -> num * num).sum();
+    }
+
+    @Benchmark
+    public int fused() {
+        return evenSquares.sum(values);
+    }
+
+    @Benchmark
+    public int handWrittenLoop() {
+        int sum = 0;
+        for (int value : values) {
+            if (value % 2 == 0) {
+                sum += value * value;
+            }
+        }
+        return sum;
+    }
+}
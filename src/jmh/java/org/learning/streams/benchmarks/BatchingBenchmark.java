@@ -0,0 +1,121 @@
+package org.learning.streams.benchmarks;
+
+import org.learning.streams.intermediateoperations.Batching;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/*
+ * Per element sink against batched sinks: every value written to a FileChannel one by one (one write call each)
+ * against Batching writing 1024 values per call.
+ * batchedReusedBuffer = forEachBatch (one int[] for all batches), batchedArrays/batchedLists = batch(..) (new batch each time).
+ * The writes go to position 0 of a temp file so the file stays small and only the call cost is measured.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class BatchingBenchmark {
+
+    private static final int BATCH_SIZE = 1024;
+
+    /*per element writes are slow (a system call each), so no 100M size here*/
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private int[] values;
+    private List<Integer> boxed;
+    private Path file;
+    private FileChannel channel;
+    private ByteBuffer one;
+    private ByteBuffer batch;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        values = new SplittableRandom(42).ints(size, 0, StreamBenchmarkData.KEY_RANGE).toArray();
+        boxed = Arrays.stream(values).boxed().toList();
+        file = Files.createTempFile("batching-benchmark", ".bin");
+        channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        one = ByteBuffer.allocateDirect(Integer.BYTES);
+        batch = ByteBuffer.allocateDirect(Integer.BYTES * BATCH_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void perElementWrite() {
+        IntStream.of(values).forEach(this::writeOne);
+    }
+
+    @Benchmark
+    public void batchedReusedBuffer() {
+        Batching.forEachBatch(IntStream.of(values), BATCH_SIZE, this::writeBatch);
+    }
+
+    @Benchmark
+    public void batchedArrays() {
+        Batching.batch(IntStream.of(values), BATCH_SIZE).forEach(array -> writeBatch(array, array.length));
+    }
+
+    @Benchmark
+    public void batchedLists() {
+        Batching.batch(boxed.stream(), BATCH_SIZE).forEach(this::writeList);
+    }
+
+    private void writeOne(int value) {
+        one.clear().putInt(value).flip();
+        write(one);
+    }
+
+    private void writeBatch(int[] buffer, int length) {
+        batch.clear();
+        batch.asIntBuffer().put(buffer, 0, length);
+        batch.limit(length * Integer.BYTES);
+        write(batch);
+    }
+
+    private void writeList(List<Integer> list) {
+        batch.clear();
+        for (int value : list) {
+            batch.putInt(value);
+        }
+        write(batch.flip());
+    }
+
+    private void write(ByteBuffer buffer) {
+        try {
+            channel.write(buffer, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.learning.streams.benchmarks;
+
+import org.learning.streams.collectors.ConcurrentGroupingCollectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/*
+ * groupingBy(counting()) vs groupingByConcurrent(counting()) vs ConcurrentGroupingCollectors.counting on a parallel
+ * stream of size random keys out of keys distinct ones, run in a ForkJoinPool of threads workers.
+ * keys=16: few hot keys (contention on the same counters), keys=size/10: high cardinality (groupingBy's map merging).
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class ConcurrentGroupingBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"16", "100000"})
+    public int keys;
+
+    @Param({"1", "2", "4", "8", "16", "32", "64"})
+    public int threads;
+
+    private List<Integer> values;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        values = new SplittableRandom(42).ints(size, 0, keys).boxed().toList();
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Map<Integer, Long> groupingBy() throws ExecutionException, InterruptedException {
+        return pool.submit(() -> values.parallelStream()
+                .collect(Collectors.groupingBy(x -> x, Collectors.counting()))).get();
+    }
+
+    @Benchmark
+    public Map<Integer, Long> groupingByConcurrent() throws ExecutionException, InterruptedException {
+        return pool.submit(() -> values.parallelStream()
+                .collect(Collectors.groupingByConcurrent(x -> x, Collectors.counting()))).get();
+    }
+
+    @Benchmark
+    public Map<Integer, Long> concurrentCounting() throws ExecutionException, InterruptedException {
+        return pool.submit(() -> values.parallelStream()
+                .collect(ConcurrentGroupingCollectors.counting(x -> x))).get();
+    }
+
+    @Benchmark
+    public Map<Integer, Long> concurrentCountingPresized() throws ExecutionException, InterruptedException {
+        return pool.submit(() -> values.parallelStream()
+                .collect(ConcurrentGroupingCollectors.counting(x -> x, keys))).get();
+    }
+}
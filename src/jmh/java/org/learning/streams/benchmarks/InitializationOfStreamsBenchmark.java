@@ -0,0 +1,152 @@
+package org.learning.streams.benchmarks;
+
+import org.learning.streams.initialization.IndexedStreams;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/*
+ * Benchmarks for every source shown in InitializationOfStreams.
+ * Each source is drained with a cheap terminal op (sum/count) so the cost measured is the source itself.
+ * */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class InitializationOfStreamsBenchmark {
+
+    private static final long SEED = 42L;
+
+    /*1. via collection*/
+    @Benchmark
+    public long collectionStreamBoxed(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long collectionParallelStreamBoxed(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().mapToLong(Integer::longValue).sum();
+    }
+
+    /*2. from array*/
+    @Benchmark
+    public long arrayStreamPrimitive(StreamBenchmarkData.Ints data) {
+        return Arrays.stream(data.values).asLongStream().sum();
+    }
+
+    @Benchmark
+    public long arrayStreamPrimitiveParallel(StreamBenchmarkData.Ints data) {
+        return Arrays.stream(data.values).parallel().asLongStream().sum();
+    }
+
+    /*5.a generate (Math.random shares one Random so parallel contends on it)*/
+    @Benchmark
+    public double generateRandom(StreamBenchmarkData.Size data) {
+        return Stream.generate(Math::random).limit(data.size).mapToDouble(Double::doubleValue).sum();
+    }
+
+    @Benchmark
+    public double generateRandomParallel(StreamBenchmarkData.Size data) {
+        return Stream.generate(Math::random).parallel().limit(data.size).mapToDouble(Double::doubleValue).sum();
+    }
+
+    @Benchmark
+    public double generateRandomParallelUnordered(StreamBenchmarkData.Size data) {
+        return Stream.generate(Math::random).parallel().unordered().limit(data.size).mapToDouble(Double::doubleValue).sum();
+    }
+
+    /*5.a generate from the index (SIZED, splits evenly, no shared generator)*/
+    @Benchmark
+    public double generateIndexedRandom(StreamBenchmarkData.Size data) {
+        return IndexedStreams.randomDoubles(data.size, SEED).sum();
+    }
+
+    @Benchmark
+    public double generateIndexedRandomParallel(StreamBenchmarkData.Size data) {
+        return IndexedStreams.randomDoubles(data.size, SEED).parallel().sum();
+    }
+
+    @Benchmark
+    public double generateSplittableRandomParallel(StreamBenchmarkData.Size data) {
+        return new SplittableRandom(SEED).doubles(data.size).parallel().sum();
+    }
+
+    @Benchmark
+    public long generateIndexedBoxedParallel(StreamBenchmarkData.Size data) {
+        return IndexedStreams.generate(data.size, i -> (int) i * 2).parallel().mapToLong(Integer::longValue).sum();
+    }
+
+    /*5.b iterate (each element depends on the previous one so it can't be split)*/
+    @Benchmark
+    public long iterateBoxed(StreamBenchmarkData.Size data) {
+        return Stream.iterate(0, x -> x + 2).limit(data.size).mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long iterateBoxedParallel(StreamBenchmarkData.Size data) {
+        return Stream.iterate(0, x -> x + 2).parallel().limit(data.size).mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long iterateArithmetic(StreamBenchmarkData.Size data) {
+        return IndexedStreams.arithmetic(0, 2, data.size).asLongStream().sum();
+    }
+
+    @Benchmark
+    public long iterateArithmeticParallel(StreamBenchmarkData.Size data) {
+        return IndexedStreams.arithmetic(0, 2, data.size).parallel().asLongStream().sum();
+    }
+
+    @Benchmark
+    public long iteratePrimitive(StreamBenchmarkData.Size data) {
+        return IntStream.iterate(0, x -> x + 2).limit(data.size).asLongStream().sum();
+    }
+
+    @Benchmark
+    public long iterateWithPredicate(StreamBenchmarkData.Size data) {
+        int bound = data.size;
+        return Stream.iterate(0, x -> x < bound, x -> x + 1).mapToLong(Integer::longValue).sum();
+    }
+
+    /*6. range and rangeClosed*/
+    @Benchmark
+    public long range(StreamBenchmarkData.Size data) {
+        return IntStream.range(0, data.size).asLongStream().sum();
+    }
+
+    @Benchmark
+    public long rangeParallel(StreamBenchmarkData.Size data) {
+        return IntStream.range(0, data.size).parallel().asLongStream().sum();
+    }
+
+    @Benchmark
+    public long rangeBoxed(StreamBenchmarkData.Size data) {
+        return IntStream.range(0, data.size).boxed().mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long rangeClosed(StreamBenchmarkData.Size data) {
+        return IntStream.rangeClosed(1, data.size).asLongStream().sum();
+    }
+
+    /*7. builder (no SIZED information, everything is buffered first)*/
+    @Benchmark
+    public long builder(StreamBenchmarkData.Ints data) {
+        Stream.Builder<Integer> builder = Stream.builder();
+        for (Integer value : data.boxed) {
+            builder.add(value);
+        }
+        return builder.build().mapToLong(Integer::longValue).sum();
+    }
+}
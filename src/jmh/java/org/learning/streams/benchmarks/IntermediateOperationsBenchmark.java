@@ -0,0 +1,352 @@
+package org.learning.streams.benchmarks;
+
+import org.learning.interview.generalJavaQuestions.comparatorAndComparable.sorting.IntKeySort;
+import org.learning.streams.collectors.TopKCollectors;
+import org.learning.streams.intermediateoperations.Flattening;
+import org.learning.streams.intermediateoperations.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/*
+ * Benchmarks for every operation shown in IntermediateOperations.
+ * Naming: <operation><Boxed|Primitive>[Parallel][Unordered] so the jmh table groups the variants together.
+ * */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class IntermediateOperationsBenchmark {
+
+    /*1. filter*/
+    @Benchmark
+    public long filterPrimitive(StreamBenchmarkData.Ints data) {
+        return IntStream.of(data.values).filter(num -> num % 2 == 0).count();
+    }
+
+    @Benchmark
+    public long filterPrimitiveParallel(StreamBenchmarkData.Ints data) {
+        return IntStream.of(data.values).parallel().filter(num -> num % 2 == 0).count();
+    }
+
+    @Benchmark
+    public long filterBoxed(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().filter(num -> num % 2 == 0).count();
+    }
+
+    @Benchmark
+    public long filterBoxedParallel(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().filter(num -> num % 2 == 0).count();
+    }
+
+    /*2. map and mapToObj*/
+    @Benchmark
+    public long mapPrimitive(StreamBenchmarkData.Ints data) {
+        return IntStream.of(data.values).map(num -> num * num).asLongStream().sum();
+    }
+
+    @Benchmark
+    public long mapPrimitiveParallel(StreamBenchmarkData.Ints data) {
+        return IntStream.of(data.values).parallel().map(num -> num * num).asLongStream().sum();
+    }
+
+    @Benchmark
+    public long mapBoxed(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().map(num -> num * num).mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long mapBoxedParallel(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().map(num -> num * num).mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public void mapToObj(StreamBenchmarkData.Ints data, Blackhole blackhole) {
+        IntStream.of(data.values).mapToObj(String::valueOf).forEach(blackhole::consume);
+    }
+
+    /*3. flatMap*/
+    @Benchmark
+    public long flatMap(StreamBenchmarkData.Nested data) {
+        return data.lists.stream().flatMap(Collection::stream).mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long flatMapParallel(StreamBenchmarkData.Nested data) {
+        return data.lists.parallelStream().flatMap(Collection::stream).mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long flatMapToInt(StreamBenchmarkData.Nested data) {
+        return data.lists.stream().flatMapToInt(list -> list.stream().mapToInt(Integer::intValue)).asLongStream().sum();
+    }
+
+    /*Flattening keeps the size and splits inside the 2 big inner lists, flatMap only splits the outer list*/
+    @Benchmark
+    public long flattenParallel(StreamBenchmarkData.Nested data) {
+        return Flattening.flatten(data.lists).parallel().mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public Object[] flatMapToArrayParallel(StreamBenchmarkData.Nested data) {
+        return data.lists.parallelStream().flatMap(Collection::stream).toArray();
+    }
+
+    @Benchmark
+    public Object[] flattenToArrayParallel(StreamBenchmarkData.Nested data) {
+        return Flattening.flatten(data.lists).parallel().toArray();
+    }
+
+    /*4. distinct*/
+    @Benchmark
+    public long distinctPrimitive(StreamBenchmarkData.Ints data) {
+        return IntStream.of(data.values).distinct().count();
+    }
+
+    @Benchmark
+    public long distinctPrimitiveParallel(StreamBenchmarkData.Ints data) {
+        return IntStream.of(data.values).parallel().distinct().count();
+    }
+
+    @Benchmark
+    public long distinctPrimitiveParallelUnordered(StreamBenchmarkData.Ints data) {
+        return IntStream.of(data.values).parallel().unordered().distinct().count();
+    }
+
+    @Benchmark
+    public long distinctBoxed(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().distinct().count();
+    }
+
+    @Benchmark
+    public long distinctBoxedParallel(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().distinct().count();
+    }
+
+    @Benchmark
+    public long distinctBoxedParallelUnordered(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().unordered().distinct().count();
+    }
+
+    /*5. sorted (toArray keeps the sort from being skipped by count())*/
+    @Benchmark
+    public int[] sortedPrimitive(StreamBenchmarkData.Ints data) {
+        return IntStream.of(data.values).sorted().toArray();
+    }
+
+    @Benchmark
+    public int[] sortedPrimitiveParallel(StreamBenchmarkData.Ints data) {
+        return IntStream.of(data.values).parallel().sorted().toArray();
+    }
+
+    @Benchmark
+    public Object[] sortedBoxed(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().sorted().toArray();
+    }
+
+    @Benchmark
+    public Object[] sortedBoxedReverseOrder(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().sorted(Comparator.reverseOrder()).toArray();
+    }
+
+    @Benchmark
+    public Object[] sortedBoxedParallel(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().sorted().toArray();
+    }
+
+    @Benchmark
+    public List<User> sortedUsersById(StreamBenchmarkData.Users data) {
+        return data.users.stream().sorted(Comparator.comparingInt(User::id)).toList();
+    }
+
+    @Benchmark
+    public List<User> sortedUsersByIdReversed(StreamBenchmarkData.Users data) {
+        return data.users.stream().sorted(Comparator.comparingInt(User::id).reversed()).toList();
+    }
+
+    @Benchmark
+    public List<User> sortedUsersByIdParallel(StreamBenchmarkData.Users data) {
+        return data.users.parallelStream().sorted(Comparator.comparingInt(User::id)).toList();
+    }
+
+    @Benchmark
+    public List<User> sortedUsersByIdRadix(StreamBenchmarkData.Users data) {
+        return IntKeySort.sortByIntKey(data.users, User::id);
+    }
+
+    @Benchmark
+    public List<User> sortedUsersByIdRadixParallel(StreamBenchmarkData.Users data) {
+        return IntKeySort.parallelSortByIntKey(data.users, User::id);
+    }
+
+    /*5 + 6. sorted then limit (the whole input is sorted to keep a few elements)*/
+    @Benchmark
+    public List<User> sortedLimitUsers(StreamBenchmarkData.Users data) {
+        return data.users.stream().sorted(Comparator.comparingInt(User::id)).limit(10).toList();
+    }
+
+    @Benchmark
+    public List<User> topKUsers(StreamBenchmarkData.Users data) {
+        return data.users.stream().collect(TopKCollectors.bottomK(10, Comparator.comparingInt(User::id)));
+    }
+
+    @Benchmark
+    public List<User> topKUsersByIntKey(StreamBenchmarkData.Users data) {
+        return data.users.stream().collect(TopKCollectors.bottomKByInt(10, User::id));
+    }
+
+    @Benchmark
+    public List<User> topKUsersByIntKeyParallel(StreamBenchmarkData.Users data) {
+        return data.users.parallelStream().collect(TopKCollectors.bottomKByInt(10, User::id));
+    }
+
+    @Benchmark
+    public int[] sortedLimitPrimitive(StreamBenchmarkData.Ints data) {
+        return IntStream.of(data.values).sorted().limit(10).toArray();
+    }
+
+    @Benchmark
+    public int[] topKPrimitive(StreamBenchmarkData.Ints data) {
+        return TopKCollectors.bottomK(IntStream.of(data.values), 10);
+    }
+
+    @Benchmark
+    public int[] topKPrimitiveParallel(StreamBenchmarkData.Ints data) {
+        return TopKCollectors.bottomK(IntStream.of(data.values).parallel(), 10);
+    }
+
+    /*6. limit*/
+    @Benchmark
+    public long limitBoxed(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().limit(data.size / 2).mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long limitBoxedParallel(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().limit(data.size / 2).mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long limitBoxedParallelUnordered(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().unordered().limit(data.size / 2).mapToLong(Integer::longValue).sum();
+    }
+
+    /*7. skip*/
+    @Benchmark
+    public long skipBoxed(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().skip(data.size / 2).mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long skipBoxedParallel(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().skip(data.size / 2).mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long skipBoxedParallelUnordered(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().unordered().skip(data.size / 2).mapToLong(Integer::longValue).sum();
+    }
+
+    /*8. peek (cost of an extra no-op stage)*/
+    @Benchmark
+    public long peek(StreamBenchmarkData.Ints data, Blackhole blackhole) {
+        return data.boxed.stream().filter(num -> num % 2 == 0).peek(blackhole::consume).count();
+    }
+
+    /*9. mapToInt vs staying boxed for the sum*/
+    @Benchmark
+    public long mapToIntSum(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().mapToInt(num -> num * 10).asLongStream().sum();
+    }
+
+    @Benchmark
+    public long mapToIntSumParallel(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().mapToInt(num -> num * 10).asLongStream().sum();
+    }
+
+    @Benchmark
+    public long boxedReduceSum(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().map(num -> (long) num * 10).reduce(0L, Long::sum);
+    }
+
+    @Benchmark
+    public long boxedReduceSumParallel(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().map(num -> (long) num * 10).reduce(0L, Long::sum);
+    }
+
+    @Benchmark
+    public double mapToDoubleSum(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().mapToDouble(num -> num * 10).sum();
+    }
+
+    /*10. boxed*/
+    @Benchmark
+    public long boxed(StreamBenchmarkData.Ints data) {
+        return IntStream.of(data.values).boxed().mapToLong(Integer::longValue).sum();
+    }
+
+    /*11. takeWhile vs filter (every value passes so both traverse everything)*/
+    @Benchmark
+    public long takeWhile(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().takeWhile(num -> num < StreamBenchmarkData.KEY_RANGE).count();
+    }
+
+    @Benchmark
+    public long takeWhileParallel(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().takeWhile(num -> num < StreamBenchmarkData.KEY_RANGE).count();
+    }
+
+    @Benchmark
+    public long takeWhileParallelUnordered(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().unordered().takeWhile(num -> num < StreamBenchmarkData.KEY_RANGE).count();
+    }
+
+    @Benchmark
+    public long filterSamePredicate(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().filter(num -> num < StreamBenchmarkData.KEY_RANGE).count();
+    }
+
+    /*12. dropWhile*/
+    @Benchmark
+    public long dropWhile(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().dropWhile(num -> num < StreamBenchmarkData.KEY_RANGE / 2).count();
+    }
+
+    @Benchmark
+    public long dropWhileParallel(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().dropWhile(num -> num < StreamBenchmarkData.KEY_RANGE / 2).count();
+    }
+
+    /*13 + 14. unordered, parallel and sequential toggling*/
+    @Benchmark
+    public void forEachParallelUnordered(StreamBenchmarkData.Ints data, Blackhole blackhole) {
+        data.boxed.stream().unordered().parallel().forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public List<Integer> parallelThenSequential(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().parallel().map(x -> x + 1).sequential().map(x -> x * 10).toList();
+    }
+
+    @Benchmark
+    public List<Integer> sequentialOnly(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().map(x -> x + 1).map(x -> x * 10).toList();
+    }
+
+    @Benchmark
+    public List<Integer> parallelOnly(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().map(x -> x + 1).map(x -> x * 10).toList();
+    }
+}
@@ -0,0 +1,115 @@
+package org.learning.streams.benchmarks;
+
+import org.learning.streams.initialization.MappedFileStreams;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/*
+ * Files.lines against MappedFileStreams.lines (sum of the line lengths) and DataInputStream against
+ * MappedFileStreams.longs (sum of the values), sequential and parallel, on a temp file of size lines/longs.
+ * The file is in the page cache after the first iteration, so this measures the copying/decoding/splitting, not the disk.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class MappedFileBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    private Path textFile;
+    private Path binaryFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        textFile = Files.createTempFile("mapped-file-benchmark", ".txt");
+        try (Stream<String> lines = IntStream.range(0, size).mapToObj(i -> "line " + i + " of the benchmark file")) {
+            Files.writeString(textFile, lines.collect(Collectors.joining("\n", "", "\n")));
+        }
+        binaryFile = Files.createTempFile("mapped-file-benchmark", ".bin");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(binaryFile)))) {
+            for (int i = 0; i < size; i++) {
+                out.writeLong(i);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(textFile);
+        Files.deleteIfExists(binaryFile);
+    }
+
+    @Benchmark
+    public long filesLines() throws IOException {
+        try (Stream<String> lines = Files.lines(textFile)) {
+            return lines.mapToLong(String::length).sum();
+        }
+    }
+
+    @Benchmark
+    public long filesLinesParallel() throws IOException {
+        try (Stream<String> lines = Files.lines(textFile)) {
+            return lines.parallel().mapToLong(String::length).sum();
+        }
+    }
+
+    @Benchmark
+    public long mappedLines() {
+        return MappedFileStreams.lines(textFile).mapToLong(String::length).sum();
+    }
+
+    @Benchmark
+    public long mappedLinesParallel() {
+        return MappedFileStreams.lines(textFile).parallel().mapToLong(String::length).sum();
+    }
+
+    @Benchmark
+    public long dataInputStreamLongs() throws IOException {
+        long sum = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(binaryFile)))) {
+            while (true) {
+                sum += in.readLong();
+            }
+        } catch (EOFException end) {
+            return sum;
+        }
+    }
+
+    @Benchmark
+    public long mappedLongs() {
+        return MappedFileStreams.longs(binaryFile).sum();
+    }
+
+    @Benchmark
+    public long mappedLongsParallel() {
+        return MappedFileStreams.longs(binaryFile).parallel().sum();
+    }
+}
@@ -0,0 +1,85 @@
+package org.learning.streams.benchmarks;
+
+import org.learning.streams.terminaloperations.AsyncOutputSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/*
+ * forEach(System.out::println) against forEach(AsyncOutputSink), both writing to a temp file instead of the console.
+ * The PrintStream is created with autoflush like System.out, so println does what it does on stdout:
+ * take the stream's lock and write (flush) every line.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class OutputSinkBenchmark {
+
+    /*println is one write per element, no 100M size here*/
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private List<Integer> values;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        values = IntStream.range(0, size).boxed().toList();
+        file = Files.createTempFile("output-sink-benchmark", ".txt");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void printlnSequential() throws IOException {
+        try (PrintStream out = new PrintStream(new FileOutputStream(file.toFile()), true)) {
+            values.stream().forEach(out::println);
+        }
+    }
+
+    @Benchmark
+    public void printlnParallel() throws IOException {
+        try (PrintStream out = new PrintStream(new FileOutputStream(file.toFile()), true)) {
+            values.parallelStream().forEach(out::println);
+        }
+    }
+
+    @Benchmark
+    public void asyncSinkSequential() {
+        try (AsyncOutputSink<Integer> out = AsyncOutputSink.<Integer>builder().toFile(file).build()) {
+            values.stream().forEach(out);
+        }
+    }
+
+    @Benchmark
+    public void asyncSinkParallel() {
+        try (AsyncOutputSink<Integer> out = AsyncOutputSink.<Integer>builder().toFile(file).build()) {
+            values.parallelStream().forEach(out);
+        }
+    }
+}
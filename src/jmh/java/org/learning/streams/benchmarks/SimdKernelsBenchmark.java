@@ -0,0 +1,182 @@
+package org.learning.streams.benchmarks;
+
+import org.learning.streams.simd.LaneOperator;
+import org.learning.streams.simd.LanePredicate;
+import org.learning.streams.simd.SimdKernels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.IntSummaryStatistics;
+import java.util.LongSummaryStatistics;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/*
+ * IntStream/LongStream/DoubleStream against SimdKernels for the filter/map/sum/min/max/summaryStatistics examples.
+ * Every kernel is measured twice:
+ * <operation>Vector runs in a fork started with --add-modules jdk.incubator.vector (Vector API kernels),
+ * <operation>Scalar runs in a plain fork so SimdKernels falls back to the scalar loops.
+ * */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class SimdKernelsBenchmark {
+
+    private static final String VECTOR_MODULE = "--add-modules=jdk.incubator.vector";
+
+    /*filter(num -> num % 2 == 0)*/
+    @Benchmark
+    public int[] filterEvenStream(StreamBenchmarkData.PrimitiveArrays data) {
+        return IntStream.of(data.ints).filter(num -> num % 2 == 0).toArray();
+    }
+
+    @Benchmark
+    public int[] filterEvenScalar(StreamBenchmarkData.PrimitiveArrays data) {
+        return SimdKernels.filter(data.ints, LanePredicate.even());
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xmx8g", VECTOR_MODULE})
+    public int[] filterEvenVector(StreamBenchmarkData.PrimitiveArrays data) {
+        return SimdKernels.filter(data.ints, LanePredicate.even());
+    }
+
+    @Benchmark
+    public double[] filterDoublesStream(StreamBenchmarkData.PrimitiveArrays data) {
+        return DoubleStream.of(data.doubles).filter(num -> num > 5_000).toArray();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xmx8g", VECTOR_MODULE})
+    public double[] filterDoublesVector(StreamBenchmarkData.PrimitiveArrays data) {
+        return SimdKernels.filter(data.doubles, LanePredicate.greaterThan(5_000.0));
+    }
+
+    /*map(num -> num * num) and mapToInt(num -> num * 10)*/
+    @Benchmark
+    public int[] mapSquareStream(StreamBenchmarkData.PrimitiveArrays data) {
+        return IntStream.of(data.ints).map(num -> num * num).toArray();
+    }
+
+    @Benchmark
+    public int[] mapSquareScalar(StreamBenchmarkData.PrimitiveArrays data) {
+        return SimdKernels.map(data.ints, LaneOperator.square());
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xmx8g", VECTOR_MODULE})
+    public int[] mapSquareVector(StreamBenchmarkData.PrimitiveArrays data) {
+        return SimdKernels.map(data.ints, LaneOperator.square());
+    }
+
+    @Benchmark
+    public long[] mapTimesTenStream(StreamBenchmarkData.PrimitiveArrays data) {
+        return LongStream.of(data.longs).map(num -> num * 10).toArray();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xmx8g", VECTOR_MODULE})
+    public long[] mapTimesTenVector(StreamBenchmarkData.PrimitiveArrays data) {
+        return SimdKernels.map(data.longs, LaneOperator.multiply(10));
+    }
+
+    /*sum()*/
+    @Benchmark
+    public int sumStream(StreamBenchmarkData.PrimitiveArrays data) {
+        return IntStream.of(data.ints).sum();
+    }
+
+    @Benchmark
+    public int sumScalar(StreamBenchmarkData.PrimitiveArrays data) {
+        return SimdKernels.sum(data.ints);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xmx8g", VECTOR_MODULE})
+    public int sumVector(StreamBenchmarkData.PrimitiveArrays data) {
+        return SimdKernels.sum(data.ints);
+    }
+
+    @Benchmark
+    public double sumDoublesStream(StreamBenchmarkData.PrimitiveArrays data) {
+        return DoubleStream.of(data.doubles).sum();
+    }
+
+    @Benchmark
+    public double sumDoublesScalar(StreamBenchmarkData.PrimitiveArrays data) {
+        return SimdKernels.sum(data.doubles);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xmx8g", VECTOR_MODULE})
+    public double sumDoublesVector(StreamBenchmarkData.PrimitiveArrays data) {
+        return SimdKernels.sum(data.doubles);
+    }
+
+    /*min() and max()*/
+    @Benchmark
+    public OptionalInt maxStream(StreamBenchmarkData.PrimitiveArrays data) {
+        return IntStream.of(data.ints).max();
+    }
+
+    @Benchmark
+    public OptionalInt maxScalar(StreamBenchmarkData.PrimitiveArrays data) {
+        return SimdKernels.max(data.ints);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xmx8g", VECTOR_MODULE})
+    public OptionalInt maxVector(StreamBenchmarkData.PrimitiveArrays data) {
+        return SimdKernels.max(data.ints);
+    }
+
+    /*summaryStatistics()*/
+    @Benchmark
+    public IntSummaryStatistics summaryStatisticsStream(StreamBenchmarkData.PrimitiveArrays data) {
+        return IntStream.of(data.ints).summaryStatistics();
+    }
+
+    @Benchmark
+    public IntSummaryStatistics summaryStatisticsScalar(StreamBenchmarkData.PrimitiveArrays data) {
+        return SimdKernels.summaryStatistics(data.ints);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xmx8g", VECTOR_MODULE})
+    public IntSummaryStatistics summaryStatisticsVector(StreamBenchmarkData.PrimitiveArrays data) {
+        return SimdKernels.summaryStatistics(data.ints);
+    }
+
+    @Benchmark
+    public LongSummaryStatistics summaryStatisticsLongsStream(StreamBenchmarkData.PrimitiveArrays data) {
+        return LongStream.of(data.longs).summaryStatistics();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xmx8g", VECTOR_MODULE})
+    public LongSummaryStatistics summaryStatisticsLongsVector(StreamBenchmarkData.PrimitiveArrays data) {
+        return SimdKernels.summaryStatistics(data.longs);
+    }
+
+    @Benchmark
+    public DoubleSummaryStatistics summaryStatisticsDoublesStream(StreamBenchmarkData.PrimitiveArrays data) {
+        return DoubleStream.of(data.doubles).summaryStatistics();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xmx8g", VECTOR_MODULE})
+    public DoubleSummaryStatistics summaryStatisticsDoublesVector(StreamBenchmarkData.PrimitiveArrays data) {
+        return SimdKernels.summaryStatistics(data.doubles);
+    }
+}
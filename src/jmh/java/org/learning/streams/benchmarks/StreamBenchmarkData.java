@@ -0,0 +1,155 @@
+package org.learning.streams.benchmarks;
+
+import org.learning.streams.intermediateoperations.User;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/*
+ * Shared input data for the stream benchmarks.
+ * Sizes: 1K fits in cache, 1M fits in L3 for the primitive version, 100M always goes to main memory.
+ * Each state is only created when a benchmark asks for it so 100M runs don't pay for data they never touch.
+ * */
+public class StreamBenchmarkData {
+
+    /*values are drawn from a fixed seed in [0, KEY_RANGE) so groupingBy/distinct have a bounded key set*/
+    public static final int KEY_RANGE = 10_000;
+    private static final long SEED = 42L;
+
+    private StreamBenchmarkData() {
+    }
+
+    /*for sources that generate their own elements (generate, iterate, range)*/
+    @State(Scope.Benchmark)
+    public static class Size {
+        @Param({"1000", "1000000", "100000000"})
+        public int size;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Ints {
+        @Param({"1000", "1000000", "100000000"})
+        public int size;
+
+        public int[] values;
+        public List<Integer> boxed;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            values = new SplittableRandom(SEED).ints(size, 0, KEY_RANGE).toArray();
+            boxed = Arrays.stream(values).boxed().toList();
+        }
+    }
+
+    /*same values as Ints as long[]/double[] for the primitive array kernels*/
+    @State(Scope.Benchmark)
+    public static class PrimitiveArrays {
+        @Param({"1000", "1000000", "100000000"})
+        public int size;
+
+        public int[] ints;
+        public long[] longs;
+        public double[] doubles;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            ints = new SplittableRandom(SEED).ints(size, 0, KEY_RANGE).toArray();
+            longs = Arrays.stream(ints).asLongStream().toArray();
+            doubles = Arrays.stream(ints).asDoubleStream().toArray();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Users {
+        @Param({"1000", "1000000", "100000000"})
+        public int size;
+
+        public List<User> users;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            String[] names = {"Sid", "Mohan", "Ram", "Raj", "Viju"};
+            SplittableRandom random = new SplittableRandom(SEED);
+            List<User> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(new User(random.nextInt(), names[i % names.length]));
+            }
+            users = List.copyOf(list);
+        }
+    }
+
+    /*
+     * word lists for the UdemyStreamsExample questions.
+     * 100M strings don't fit next to their split copies in an 8g heap so words stop at 10M
+     * */
+    @State(Scope.Benchmark)
+    public static class Words {
+        @Param({"1000", "1000000", "10000000"})
+        public int size;
+
+        public List<String> words;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            words = randomWords(size);
+        }
+    }
+
+    /*the reduce concat and the nested pairing are O(n^2) so they are measured on small inputs only*/
+    @State(Scope.Benchmark)
+    public static class QuadraticWords {
+        @Param({"1000", "10000"})
+        public int size;
+
+        public List<String> words;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            words = randomWords(size);
+        }
+    }
+
+    /*upper case words of length 3 to 8 like the "KLM", "AMDB" demo input*/
+    public static List<String> randomWords(int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<String> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            char[] chars = new char[random.nextInt(3, 9)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = (char) random.nextInt('A', 'Z' + 1);
+            }
+            list.add(new String(chars));
+        }
+        return List.copyOf(list);
+    }
+
+    /*the flatMap demo shape: a few outer lists each holding a big inner list*/
+    @State(Scope.Benchmark)
+    public static class Nested {
+        @Param({"1000", "1000000", "100000000"})
+        public int size;
+
+        @Param({"2"})
+        public int outer;
+
+        public List<List<Integer>> lists;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            SplittableRandom random = new SplittableRandom(SEED);
+            List<List<Integer>> list = new ArrayList<>(outer);
+            int perList = size / outer;
+            for (int i = 0; i < outer; i++) {
+                list.add(random.ints(perList, 0, KEY_RANGE).boxed().toList());
+            }
+            lists = List.copyOf(list);
+        }
+    }
+}
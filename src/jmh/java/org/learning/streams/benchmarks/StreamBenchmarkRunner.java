@@ -0,0 +1,28 @@
+package org.learning.streams.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+ * Runs the stream benchmarks with the GC profiler attached so every result has the
+ * allocation rate (gc.alloc.rate.norm = bytes per operation) next to the throughput.
+ * usage: java -cp target/benchmarks.jar org.learning.streams.benchmarks.StreamBenchmarkRunner [regex] [size...]
+ * eg: ... StreamBenchmarkRunner TerminalOperations 1000 1000000
+ * */
+public class StreamBenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : StreamBenchmarkRunner.class.getPackageName();
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.include(include).addProfiler(GCProfiler.class);
+        if (args.length > 1) {
+            String[] sizes = new String[args.length - 1];
+            System.arraycopy(args, 1, sizes, 0, sizes.length);
+            builder.param("size", sizes);
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
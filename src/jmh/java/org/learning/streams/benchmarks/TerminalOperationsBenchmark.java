@@ -0,0 +1,267 @@
+package org.learning.streams.benchmarks;
+
+import org.learning.streams.collectors.CountingCollectors;
+import org.learning.streams.collectors.IntLongMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/*
+ * Benchmarks for every operation shown in TerminalOperations.
+ * The match/find predicates look for a value that doesn't exist so the short circuit never fires
+ * and the numbers show the full traversal cost (worst case).
+ * */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class TerminalOperationsBenchmark {
+
+    private static final int MISSING = -1;
+
+    /*1. forEach and forEachOrdered*/
+    @Benchmark
+    public void forEach(StreamBenchmarkData.Ints data, Blackhole blackhole) {
+        data.boxed.stream().forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void forEachParallel(StreamBenchmarkData.Ints data, Blackhole blackhole) {
+        data.boxed.parallelStream().forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void forEachOrderedParallel(StreamBenchmarkData.Ints data, Blackhole blackhole) {
+        data.boxed.parallelStream().forEachOrdered(blackhole::consume);
+    }
+
+    /*2. toArray*/
+    @Benchmark
+    public int[] toArrayPrimitive(StreamBenchmarkData.Ints data) {
+        return IntStream.of(data.values).map(num -> num + 1).toArray();
+    }
+
+    @Benchmark
+    public int[] toArrayPrimitiveParallel(StreamBenchmarkData.Ints data) {
+        return IntStream.of(data.values).parallel().map(num -> num + 1).toArray();
+    }
+
+    @Benchmark
+    public Integer[] toArrayBoxed(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().map(num -> num + 1).toArray(Integer[]::new);
+    }
+
+    @Benchmark
+    public Integer[] toArrayBoxedParallel(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().map(num -> num + 1).toArray(Integer[]::new);
+    }
+
+    /*3. reduce boxed vs primitive sum*/
+    @Benchmark
+    public Optional<Integer> reduceBoxed(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().reduce((x, y) -> x + y);
+    }
+
+    @Benchmark
+    public Optional<Integer> reduceBoxedParallel(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().reduce((x, y) -> x + y);
+    }
+
+    @Benchmark
+    public Integer reduceBoxedWithIdentity(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().reduce(0, (x, y) -> x + y);
+    }
+
+    @Benchmark
+    public int sumMapToInt(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().mapToInt(num -> num).sum();
+    }
+
+    @Benchmark
+    public int sumMapToIntParallel(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().mapToInt(num -> num).sum();
+    }
+
+    @Benchmark
+    public int sumPrimitive(StreamBenchmarkData.Ints data) {
+        return IntStream.of(data.values).sum();
+    }
+
+    @Benchmark
+    public int sumPrimitiveParallel(StreamBenchmarkData.Ints data) {
+        return IntStream.of(data.values).parallel().sum();
+    }
+
+    /*4. collect*/
+    @Benchmark
+    public List<Integer> collectToList(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().map(x -> x * 2).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Integer> collectToListParallel(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().map(x -> x * 2).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Map<Integer, Long> groupingByCounting(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().collect(Collectors.groupingBy(x -> x, Collectors.counting()));
+    }
+
+    @Benchmark
+    public Map<Integer, Long> groupingByCountingParallel(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().collect(Collectors.groupingBy(x -> x, Collectors.counting()));
+    }
+
+    @Benchmark
+    public Map<Integer, Long> groupingByConcurrentCountingParallel(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().collect(Collectors.groupingByConcurrent(Function.identity(), Collectors.counting()));
+    }
+
+    @Benchmark
+    public IntLongMap countingIntLongMap(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().collect(CountingCollectors.countingInts());
+    }
+
+    @Benchmark
+    public IntLongMap countingIntLongMapParallel(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().collect(CountingCollectors.countingInts());
+    }
+
+    @Benchmark
+    public IntLongMap countingIntLongMapPrimitive(StreamBenchmarkData.Ints data) {
+        return CountingCollectors.counting(IntStream.of(data.values));
+    }
+
+    @Benchmark
+    public IntLongMap countingIntLongMapPrimitiveParallel(StreamBenchmarkData.Ints data) {
+        return CountingCollectors.counting(IntStream.of(data.values).parallel());
+    }
+
+    /*5. matching*/
+    @Benchmark
+    public boolean anyMatchBoxed(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().anyMatch(x -> x == MISSING);
+    }
+
+    @Benchmark
+    public boolean anyMatchBoxedParallel(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().anyMatch(x -> x == MISSING);
+    }
+
+    @Benchmark
+    public boolean anyMatchPrimitive(StreamBenchmarkData.Ints data) {
+        return IntStream.of(data.values).anyMatch(x -> x == MISSING);
+    }
+
+    @Benchmark
+    public boolean anyMatchPrimitiveParallel(StreamBenchmarkData.Ints data) {
+        return IntStream.of(data.values).parallel().anyMatch(x -> x == MISSING);
+    }
+
+    @Benchmark
+    public boolean allMatchBoxed(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().allMatch(x -> x != MISSING);
+    }
+
+    @Benchmark
+    public boolean noneMatchBoxed(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().noneMatch(x -> x == MISSING);
+    }
+
+    /*6. finding elements after a filter that (almost) never passes*/
+    @Benchmark
+    public Optional<Integer> findFirstParallel(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().filter(x -> x == StreamBenchmarkData.KEY_RANGE - 1).findFirst();
+    }
+
+    @Benchmark
+    public Optional<Integer> findAnyParallel(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().filter(x -> x == StreamBenchmarkData.KEY_RANGE - 1).findAny();
+    }
+
+    @Benchmark
+    public Optional<Integer> findFirst(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().filter(x -> x == StreamBenchmarkData.KEY_RANGE - 1).findFirst();
+    }
+
+    /*7. count (SIZED sources answer without traversal since java 9)*/
+    @Benchmark
+    public long countSized(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().count();
+    }
+
+    @Benchmark
+    public long countAfterFilter(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().filter(x -> x != MISSING).count();
+    }
+
+    /*8. min and max*/
+    @Benchmark
+    public Optional<Integer> minBoxed(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().min(Integer::compareTo);
+    }
+
+    @Benchmark
+    public Optional<Integer> maxBoxedParallel(StreamBenchmarkData.Ints data) {
+        return data.boxed.parallelStream().max(Integer::compareTo);
+    }
+
+    @Benchmark
+    public OptionalInt minPrimitive(StreamBenchmarkData.Ints data) {
+        return IntStream.of(data.values).min();
+    }
+
+    @Benchmark
+    public OptionalInt maxPrimitiveParallel(StreamBenchmarkData.Ints data) {
+        return IntStream.of(data.values).parallel().max();
+    }
+
+    /*9. toArray object vs typed*/
+    @Benchmark
+    public Object[] toObjectArray(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().toArray();
+    }
+
+    @Benchmark
+    public Integer[] toTypedArray(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().toArray(Integer[]::new);
+    }
+
+    /*10. summaryStatistics*/
+    @Benchmark
+    public IntSummaryStatistics summaryStatisticsMapToInt(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().mapToInt(num -> num).summaryStatistics();
+    }
+
+    @Benchmark
+    public IntSummaryStatistics summaryStatisticsPrimitive(StreamBenchmarkData.Ints data) {
+        return IntStream.of(data.values).summaryStatistics();
+    }
+
+    @Benchmark
+    public IntSummaryStatistics summaryStatisticsPrimitiveParallel(StreamBenchmarkData.Ints data) {
+        return IntStream.of(data.values).parallel().summaryStatistics();
+    }
+
+    @Benchmark
+    public IntSummaryStatistics summarizingIntCollector(StreamBenchmarkData.Ints data) {
+        return data.boxed.stream().collect(Collectors.summarizingInt(num -> num));
+    }
+}
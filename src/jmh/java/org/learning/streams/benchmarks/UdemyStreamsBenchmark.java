@@ -0,0 +1,134 @@
+package org.learning.streams.benchmarks;
+
+import org.learning.streams.collectors.CodePointSet;
+import org.learning.streams.collectors.TextCollectors;
+import org.learning.streams.questions.SameLengthPairs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/*
+ * Benchmarks for the UdemyStreamsExample questions as they are written in the example
+ * next to the TextCollectors alternatives.
+ * */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class UdemyStreamsBenchmark {
+
+    /*1. concat each word with comma*/
+    @Benchmark
+    public String joinViaReduce(StreamBenchmarkData.QuadraticWords data) {
+        return data.words.stream().reduce("", (a, b) -> a + b + ",");
+    }
+
+    @Benchmark
+    public String joinViaCollectJoining(StreamBenchmarkData.Words data) {
+        return data.words.stream().collect(Collectors.joining(","));
+    }
+
+    @Benchmark
+    public String joinViaCollectJoiningParallel(StreamBenchmarkData.Words data) {
+        return data.words.parallelStream().collect(Collectors.joining(","));
+    }
+
+    @Benchmark
+    public String joinViaTextCollectors(StreamBenchmarkData.Words data) {
+        return data.words.stream().collect(TextCollectors.joining(","));
+    }
+
+    @Benchmark
+    public String joinViaTextCollectorsParallel(StreamBenchmarkData.Words data) {
+        return data.words.parallelStream().collect(TextCollectors.joining(","));
+    }
+
+    @Benchmark
+    public String joinViaTextCollectorsSized(StreamBenchmarkData.Words data) {
+        return TextCollectors.join(data.words.stream(), ",");
+    }
+
+    @Benchmark
+    public String joinViaTextCollectorsCollection(StreamBenchmarkData.Words data) {
+        return TextCollectors.join(data.words, ",");
+    }
+
+    /*the reduce version on the same small input so the quadratic gap is visible in one table*/
+    @Benchmark
+    public String joinViaTextCollectorsQuadraticInput(StreamBenchmarkData.QuadraticWords data) {
+        return data.words.stream().collect(TextCollectors.joining(","));
+    }
+
+    /*2. distinct letters of all the words*/
+    @Benchmark
+    public List<String> distinctLettersViaSplit(StreamBenchmarkData.Words data) {
+        return data.words.stream().map(word -> word.split("")).flatMap(Arrays::stream).distinct().collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<String> distinctLettersViaSplitParallel(StreamBenchmarkData.Words data) {
+        return data.words.parallelStream().map(word -> word.split("")).flatMap(Arrays::stream).distinct().collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<String> distinctLettersViaSplitParallelUnordered(StreamBenchmarkData.Words data) {
+        return data.words.parallelStream().unordered().map(word -> word.split("")).flatMap(Arrays::stream).distinct().collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public int[] distinctLettersViaChars(StreamBenchmarkData.Words data) {
+        return data.words.stream().flatMapToInt(String::chars).distinct().toArray();
+    }
+
+    @Benchmark
+    public CodePointSet distinctLettersViaCodePointSet(StreamBenchmarkData.Words data) {
+        return data.words.stream().collect(TextCollectors.distinctCodePoints());
+    }
+
+    @Benchmark
+    public CodePointSet distinctLettersViaCodePointSetParallel(StreamBenchmarkData.Words data) {
+        return data.words.parallelStream().collect(TextCollectors.distinctCodePoints());
+    }
+
+    @Benchmark
+    public List<String> distinctLettersViaCodePointSetAsStrings(StreamBenchmarkData.Words data) {
+        return data.words.stream().collect(TextCollectors.distinctCodePoints()).toStringList();
+    }
+
+    /*3. pairs of words with the same length (nested loop over all words)*/
+    @Benchmark
+    public List<List<String>> sameLengthPairsNested(StreamBenchmarkData.QuadraticWords data) {
+        List<String> words = data.words;
+        List<List<String>> combinedWords = new ArrayList<>();
+        words.stream().forEach(word -> words.stream().filter(incomingWord -> incomingWord.length() == word.length()).filter(incomingWord -> !incomingWord.equals(word)).forEach(newWord -> combinedWords.add(List.of(newWord, word))));
+        return combinedWords;
+    }
+
+    @Benchmark
+    public List<List<String>> sameLengthPairsBucketed(StreamBenchmarkData.QuadraticWords data) {
+        return SameLengthPairs.pairs(data.words).toList();
+    }
+
+    @Benchmark
+    public List<List<String>> sameLengthPairsBucketedParallel(StreamBenchmarkData.QuadraticWords data) {
+        return SameLengthPairs.pairs(data.words).parallel().toList();
+    }
+
+    /*consuming lazily shows the cost without keeping every pair in memory*/
+    @Benchmark
+    public void sameLengthPairsBucketedStreaming(StreamBenchmarkData.QuadraticWords data, Blackhole blackhole) {
+        SameLengthPairs.pairs(data.words).forEach(blackhole::consume);
+    }
+}
@@ -0,0 +1,17 @@
+package org.learning.interview.generalJavaQuestions.ImmutableClass.classes;
+
+/*
+ * Immutable replacement for ReferenceObject: a record has only final fields and no setters,
+ * so it can be handed out as is and getters don't need to clone it on every call.
+ * */
+public record ImmutableReference(String refName) {
+
+    /*takes a snapshot of the mutable version, later setRefName calls on it don't affect the copy*/
+    public static ImmutableReference from(ReferenceObject referenceObject) {
+        return new ImmutableReference(referenceObject.getRefName());
+    }
+
+    public ImmutableReference withRefName(String refName) {
+        return new ImmutableReference(refName);
+    }
+}
@@ -0,0 +1,91 @@
+package org.learning.interview.generalJavaQuestions.ImmutableClass.classes;
+
+import org.learning.interview.generalJavaQuestions.ImmutableClass.collections.PersistentList;
+import org.learning.interview.generalJavaQuestions.ImmutableClass.collections.PersistentMap;
+
+import java.util.Collection;
+import java.util.Map;
+
+/*
+ * Same rules as CreateImmutableClassInJava (final class, private final fields, no setters) but without defensive copies.
+ * CreateImmutableClassInJava copies the friends list in the constructor and in every getFriends() call and clones the
+ * ReferenceObject in every getReferenceObject() call, so reading it allocates all the time.
+ * Here every field is immutable itself (String, record, persistent collections):
+ * - getters return the field as is, there is nothing a caller could change
+ * - the constructor only copies when it gets a mutable collection, a PersistentList/PersistentMap is taken as is
+ * - withFriend/withAttribute return a new object that shares almost all the memory with this one
+ * */
+public final class StructuralSharingImmutableClass {
+
+    private final String name;
+    private final ImmutableReference reference;
+    private final PersistentList<String> friends;
+    private final PersistentMap<String, String> attributes;
+
+    public StructuralSharingImmutableClass(String name, ImmutableReference reference, Collection<String> friends, Map<String, String> attributes) {
+        this.name = name;
+        this.reference = reference;
+        this.friends = PersistentList.copyOf(friends);
+        this.attributes = PersistentMap.copyOf(attributes);
+    }
+
+    public StructuralSharingImmutableClass(String name, ImmutableReference reference, Collection<String> friends) {
+        this(name, reference, friends, PersistentMap.empty());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /*same instance on every call, a record can't be modified*/
+    public ImmutableReference getReference() {
+        return reference;
+    }
+
+    /*same instance on every call, add/remove on it throw UnsupportedOperationException*/
+    public PersistentList<String> getFriends() {
+        return friends;
+    }
+
+    public PersistentMap<String, String> getAttributes() {
+        return attributes;
+    }
+
+    public StructuralSharingImmutableClass withName(String name) {
+        return new StructuralSharingImmutableClass(name, reference, friends, attributes);
+    }
+
+    public StructuralSharingImmutableClass withReference(ImmutableReference reference) {
+        return new StructuralSharingImmutableClass(name, reference, friends, attributes);
+    }
+
+    /*O(log32 n): only the tail of the friends list (and sometimes one tree path) is copied*/
+    public StructuralSharingImmutableClass withFriend(String friend) {
+        return new StructuralSharingImmutableClass(name, reference, friends.plus(friend), attributes);
+    }
+
+    public StructuralSharingImmutableClass withoutFriend(String friend) {
+        PersistentList<String> newFriends = friends.minus(friend);
+        return newFriends == friends ? this : new StructuralSharingImmutableClass(name, reference, newFriends, attributes);
+    }
+
+    public StructuralSharingImmutableClass withAttribute(String key, String value) {
+        PersistentMap<String, String> newAttributes = attributes.plus(key, value);
+        return newAttributes == attributes ? this : new StructuralSharingImmutableClass(name, reference, friends, newAttributes);
+    }
+
+    public StructuralSharingImmutableClass withoutAttribute(String key) {
+        PersistentMap<String, String> newAttributes = attributes.minus(key);
+        return newAttributes == attributes ? this : new StructuralSharingImmutableClass(name, reference, friends, newAttributes);
+    }
+
+    @Override
+    public String toString() {
+        return "StructuralSharingImmutableClass{" +
+                "name='" + name + '\'' +
+                ", reference=" + reference +
+                ", friends=" + friends +
+                ", attributes=" + attributes +
+                '}';
+    }
+}
@@ -0,0 +1,247 @@
+package org.learning.interview.generalJavaQuestions.ImmutableClass.collections;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/*
+ * Immutable list that never needs a defensive copy.
+ * "Changing" it (plus, with, minus) returns a new list and leaves the old one untouched, the two lists share
+ * almost all their memory, so an update costs O(log32 n) instead of copying all n elements like new ArrayList<>(list).
+ *
+ * Layout (persistent vector trie, same idea as Clojure/Scala vectors):
+ * - elements live in leaf arrays of 32, the leaves hang off a tree of 32-way nodes
+ * - the last (up to) 32 elements are kept in a separate tail array so appends usually only copy the tail
+ * - an update copies only the nodes on the path from the root to the changed leaf, every other node is shared
+ *
+ * The java.util.List mutators (add, set, remove...) throw UnsupportedOperationException like List.of.
+ *
+ * usage:
+ * PersistentList<String> friends = PersistentList.of("Raj", "Viju");
+ * PersistentList<String> more = friends.plus("Nagaraj");   // friends is still [Raj, Viju]
+ * */
+public final class PersistentList<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final Object[] EMPTY_NODE = new Object[WIDTH];
+    private static final PersistentList<?> EMPTY = new PersistentList<>(0, BITS, EMPTY_NODE, new Object[0]);
+
+    private final int size;
+    /*bits to shift the index by at the root level, grows by BITS every time the tree gets one level deeper*/
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    private PersistentList(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentList<E> empty() {
+        return (PersistentList<E>) EMPTY;
+    }
+
+    /*Arrays.asList only reads the array, like List.of(E...) it can't pollute the heap (lint: varargs)*/
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <E> PersistentList<E> of(E... elements) {
+        return PersistentList.<E>empty().plusAll(Arrays.asList(elements));
+    }
+
+    /*no copy at all when the collection already is a PersistentList, it can't change underneath us*/
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentList<E> copyOf(Collection<? extends E> elements) {
+        if (elements instanceof PersistentList<?> list) {
+            return (PersistentList<E>) list;
+        }
+        return PersistentList.<E>empty().plusAll(elements);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Objects.checkIndex(index, size);
+        return (E) leafFor(index)[index & MASK];
+    }
+
+    /*new list with the element appended, shares everything but the tail (and one tree path every 32 appends)*/
+    public PersistentList<E> plus(E element) {
+        if (size - tailOffset() < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = element;
+            return new PersistentList<>(size + 1, shift, root, newTail);
+        }
+        return withFullTailPushed(new Object[]{element});
+    }
+
+    /*
+     * appends in blocks of 32: the current tail is topped up first, then every full block becomes a leaf directly
+     * so building a list of n elements copies each element once instead of copying the tail on every single append
+     * */
+    public PersistentList<E> plusAll(Collection<? extends E> elements) {
+        Iterator<? extends E> iterator = elements.iterator();
+        PersistentList<E> result = this;
+        while (iterator.hasNext() && result.size - result.tailOffset() < WIDTH) {
+            result = result.plus(iterator.next());
+        }
+        while (iterator.hasNext()) {
+            Object[] block = new Object[WIDTH];
+            int length = 0;
+            while (length < WIDTH && iterator.hasNext()) {
+                block[length++] = iterator.next();
+            }
+            result = result.withFullTailPushed(length == WIDTH ? block : Arrays.copyOf(block, length));
+        }
+        return result;
+    }
+
+    /*new list with the element at index replaced, copies the path to that leaf only*/
+    public PersistentList<E> with(int index, E element) {
+        Objects.checkIndex(index, size);
+        if (index >= tailOffset()) {
+            Object[] newTail = tail.clone();
+            newTail[index & MASK] = element;
+            return new PersistentList<>(size, shift, root, newTail);
+        }
+        return new PersistentList<>(size, shift, assoc(shift, root, index, element), tail);
+    }
+
+    /*
+     * new list without the first occurrence of the element (same list when it isn't there).
+     * Removing from the middle shifts every later element so this rebuilds the part after the removed one (O(n)),
+     * the elements before it are re-appended from the shared leaves without touching the old list.
+     * */
+    public PersistentList<E> minus(Object element) {
+        int index = indexOf(element);
+        if (index < 0) {
+            return this;
+        }
+        return PersistentList.<E>empty().plusAll(subList(0, index)).plusAll(subList(index + 1, size));
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new LeafIterator();
+    }
+
+    /*
+     * plain loops over each leaf array, the JIT treats them like an ArrayList loop.
+     * The iterator (for-each statement) has to check for the next leaf on every element and is about 2x slower per element
+     * */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        for (int leafStart = 0; leafStart < size; leafStart += WIDTH) {
+            for (Object element : leafFor(leafStart)) {
+                action.accept((E) element);
+            }
+        }
+    }
+
+    private int tailOffset() {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] leafFor(int index) {
+        if (index >= tailOffset()) {
+            return tail;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    /*the current (full) tail moves into the tree and newTail becomes the tail*/
+    private PersistentList<E> withFullTailPushed(Object[] newTail) {
+        int pushedSize = tailOffset() + tail.length;
+        Object[] newRoot;
+        int newShift = shift;
+        if ((pushedSize >>> BITS) > (1 << shift)) {
+            // the tree is full at this depth, the old root becomes the first child of a new root
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(pushedSize, shift, root, tail);
+        }
+        return new PersistentList<>(pushedSize + newTail.length, newShift, newRoot, newTail);
+    }
+
+    private static Object[] pushTail(int pushedSize, int level, Object[] parent, Object[] tailNode) {
+        int childIndex = ((pushedSize - 1) >>> level) & MASK;
+        Object[] copy = parent.clone();
+        if (level == BITS) {
+            copy[childIndex] = tailNode;
+        } else {
+            Object[] child = (Object[]) parent[childIndex];
+            copy[childIndex] = child != null
+                    ? pushTail(pushedSize, level - BITS, child, tailNode)
+                    : newPath(level - BITS, tailNode);
+        }
+        return copy;
+    }
+
+    private static Object[] newPath(int level, Object[] node) {
+        if (level == 0) {
+            return node;
+        }
+        Object[] path = new Object[WIDTH];
+        path[0] = newPath(level - BITS, node);
+        return path;
+    }
+
+    private static Object[] assoc(int level, Object[] node, int index, Object element) {
+        Object[] copy = node.clone();
+        if (level == 0) {
+            copy[index & MASK] = element;
+        } else {
+            int childIndex = (index >>> level) & MASK;
+            copy[childIndex] = assoc(level - BITS, (Object[]) node[childIndex], index, element);
+        }
+        return copy;
+    }
+
+    /*walks leaf by leaf so each element costs an array read instead of a root to leaf lookup*/
+    private final class LeafIterator implements Iterator<E> {
+        private int index;
+        private int leafEnd;
+        private Object[] leaf;
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (index >= leafEnd) {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                leaf = leafFor(index);
+                leafEnd = index + leaf.length;
+            }
+            return (E) leaf[index++ & MASK];
+        }
+    }
+}
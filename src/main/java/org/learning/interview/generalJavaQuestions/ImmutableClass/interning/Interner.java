@@ -0,0 +1,355 @@
+package org.learning.interview.generalJavaQuestions.ImmutableClass.interning;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/*
+ * Hash-consing factory for immutable values: intern(value) returns one shared canonical instance for all equal values,
+ * so a million equal Students/Users/ImmutableReferences cost one object instead of a million.
+ * Only works for immutable values (records, ImmutableReference, String...): a canonical instance that changes
+ * would change for everybody holding it.
+ *
+ * - the canonical instances are held through weak (or soft) references, once nobody else uses a value the GC
+ *   can collect it and the entry is dropped, so the interner never keeps values alive on its own (no leak)
+ * - the table is split into stripes (segments), a lookup never locks and an insert only locks its own stripe
+ * - deduplicate(getter, rebuild) also interns a String field (eg: name) before a new value becomes canonical,
+ *   so different Students with the same name end up sharing one name String
+ * - stats() reports lookups, hit rate and an estimate of the bytes saved (when a size estimator is given)
+ *
+ * usage:
+ * Interner<Student> students = Interner.<Student>builder()
+ *         .deduplicate(Student::name, (student, name) -> new Student(student.id(), name, student.age()))
+ *         .sizeEstimator(student -> 32 + Interner.estimatedStringSize(student.name()))
+ *         .build();
+ * Student canonical = students.intern(student);
+ * InternerStats stats = students.stats();
+ * */
+public final class Interner<T> {
+
+    /*new String of n Latin-1 chars: 24 B String header + 16 B byte[] header + n bytes, rounded to 8*/
+    private static final int STRING_OVERHEAD = 40;
+
+    private final Segment<T>[] segments;
+    private final int segmentShift;
+    private final boolean soft;
+    private final List<Deduplication<T>> deduplications;
+    private final Interner<String> strings;
+    private final ToLongFunction<? super T> sizeEstimator;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+    private final LongAdder deduplicatedStrings = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    private Interner(Builder<T> builder) {
+        int stripes = builder.stripes == 1 ? 1 : Integer.highestOneBit(builder.stripes - 1) << 1;
+        this.segments = (Segment<T>[]) new Segment<?>[stripes];
+        for (int i = 0; i < stripes; i++) {
+            segments[i] = new Segment<>();
+        }
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(stripes);
+        this.soft = builder.soft;
+        this.deduplications = List.copyOf(builder.deduplications);
+        this.strings = deduplications.isEmpty() ? null
+                : builder.strings != null ? builder.strings
+                : Interner.<String>builder().stripes(stripes).sizeEstimator(Interner::estimatedStringSize).build();
+        this.sizeEstimator = builder.sizeEstimator;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /*weakly held interner with default settings*/
+    public static <T> Interner<T> newWeakInterner() {
+        return Interner.<T>builder().build();
+    }
+
+    /*rough retained size of a String (compact Latin-1 layout), for size estimators*/
+    public static long estimatedStringSize(String value) {
+        return value == null ? 0 : (STRING_OVERHEAD + value.length() + 7) & ~7L;
+    }
+
+    /*returns the canonical instance equal to value, value itself becomes canonical when there is none yet*/
+    public T intern(T value) {
+        Objects.requireNonNull(value, "value");
+        lookups.increment();
+        int hash = spread(value.hashCode());
+        Segment<T> segment = segments[segmentShift == 32 ? 0 : hash >>> segmentShift];
+        T existing = segment.find(value, hash);
+        if (existing == null) {
+            T candidate = deduplicate(value);
+            existing = segment.findOrInsert(candidate, hash, soft);
+            if (existing == candidate) {
+                return candidate;
+            }
+        }
+        // a duplicate: the caller's copy can be dropped, the canonical one is shared
+        hits.increment();
+        if (sizeEstimator != null && existing != value) {
+            bytesSaved.add(sizeEstimator.applyAsLong(value));
+        }
+        return existing;
+    }
+
+    /*number of canonical entries, entries whose value was just collected may still be counted until the next insert*/
+    public long size() {
+        long size = 0;
+        for (Segment<T> segment : segments) {
+            size += segment.count;
+        }
+        return size;
+    }
+
+    public InternerStats stats() {
+        return new InternerStats(lookups.sum(), hits.sum(), size(), bytesSaved.sum(), deduplicatedStrings.sum());
+    }
+
+    /*the interner used for the deduplicated String fields, null when there are none*/
+    public Interner<String> strings() {
+        return strings;
+    }
+
+    private T deduplicate(T value) {
+        T result = value;
+        for (Deduplication<T> deduplication : deduplications) {
+            String field = deduplication.getter.apply(result);
+            if (field == null) {
+                continue;
+            }
+            String canonical = strings.intern(field);
+            if (canonical != field) {
+                result = deduplication.rebuild.apply(result, canonical);
+                deduplicatedStrings.increment();
+            }
+        }
+        return result;
+    }
+
+    private static int spread(int hash) {
+        // Murmur3 fmix32 so the stripe (high bits) and the bucket (low bits) both get well mixed bits
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        return hash ^ (hash >>> 16);
+    }
+
+    private record Deduplication<T>(Function<? super T, String> getter, BiFunction<? super T, String, ? extends T> rebuild) {
+    }
+
+    /*the reference knows its hash so a cleared entry can be found (and removed) without its value*/
+    private interface HashedReference {
+        int hash();
+    }
+
+    private static final class WeakEntry<T> extends WeakReference<T> implements HashedReference {
+        private final int hash;
+
+        WeakEntry(T value, ReferenceQueue<? super T> queue, int hash) {
+            super(value, queue);
+            this.hash = hash;
+        }
+
+        @Override
+        public int hash() {
+            return hash;
+        }
+    }
+
+    private static final class SoftEntry<T> extends SoftReference<T> implements HashedReference {
+        private final int hash;
+
+        SoftEntry(T value, ReferenceQueue<? super T> queue, int hash) {
+            super(value, queue);
+            this.hash = hash;
+        }
+
+        @Override
+        public int hash() {
+            return hash;
+        }
+    }
+
+    /*chains are immutable (final next) so readers can walk them without a lock while a writer builds new ones*/
+    private record Node<T>(Reference<T> reference, int hash, Node<T> next) {
+    }
+
+    /*
+     * One stripe: a chained hash table like the segments of the old ConcurrentHashMap.
+     * Readers take a volatile snapshot of the table and read the bucket heads with acquire semantics, writers hold the
+     * lock and publish new heads with release semantics, so a reader sees either the old or the new chain, both valid.
+     * */
+    @SuppressWarnings("serial")
+    private static final class Segment<T> extends ReentrantLock {
+        private static final VarHandle BUCKETS = MethodHandles.arrayElementVarHandle(Node[].class);
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final ReferenceQueue<T> queue = new ReferenceQueue<>();
+        private volatile Node<T>[] table = newTable(INITIAL_CAPACITY);
+        private volatile int count;
+
+        @SuppressWarnings("unchecked")
+        private static <T> Node<T>[] newTable(int capacity) {
+            return (Node<T>[]) new Node<?>[capacity];
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Node<T> head(Node<T>[] table, int index) {
+            return (Node<T>) BUCKETS.getAcquire(table, index);
+        }
+
+        private static <T> void setHead(Node<T>[] table, int index, Node<T> node) {
+            BUCKETS.setRelease(table, index, node);
+        }
+
+        T find(T value, int hash) {
+            Node<T>[] snapshot = table;
+            for (Node<T> node = head(snapshot, hash & (snapshot.length - 1)); node != null; node = node.next()) {
+                if (node.hash() == hash) {
+                    T candidate = node.reference().get();
+                    if (candidate != null && candidate.equals(value)) {
+                        return candidate;
+                    }
+                }
+            }
+            return null;
+        }
+
+        /*returns the existing canonical value or inserts value and returns it*/
+        T findOrInsert(T value, int hash, boolean soft) {
+            lock();
+            try {
+                expungeClearedEntries();
+                T existing = find(value, hash);
+                if (existing != null) {
+                    return existing;
+                }
+                if (count + 1 > table.length * 3 / 4) {
+                    resize();
+                }
+                Node<T>[] current = table;
+                int index = hash & (current.length - 1);
+                Reference<T> reference = soft ? new SoftEntry<>(value, queue, hash) : new WeakEntry<>(value, queue, hash);
+                setHead(current, index, new Node<>(reference, hash, head(current, index)));
+                count++;
+                return value;
+            } finally {
+                unlock();
+            }
+        }
+
+        /*the GC enqueues references whose value was collected, their nodes are unlinked here (under the lock)*/
+        private void expungeClearedEntries() {
+            Reference<? extends T> cleared;
+            while ((cleared = queue.poll()) != null) {
+                int hash = ((HashedReference) cleared).hash();
+                Node<T>[] current = table;
+                int index = hash & (current.length - 1);
+                Node<T> head = head(current, index);
+                Node<T> newHead = removeFrom(head, cleared);
+                if (newHead != head) {
+                    setHead(current, index, newHead);
+                    count--;
+                }
+            }
+        }
+
+        /*the chain without the node holding reference: the nodes before it are copied, the ones after it are shared*/
+        private static <T> Node<T> removeFrom(Node<T> node, Reference<?> reference) {
+            if (node == null) {
+                return null;
+            }
+            if (node.reference() == reference) {
+                return node.next();
+            }
+            Node<T> rest = removeFrom(node.next(), reference);
+            return rest == node.next() ? node : new Node<>(node.reference(), node.hash(), rest);
+        }
+
+        /*doubles the table, readers keep using the old table (still complete) until they read the new one*/
+        private void resize() {
+            Node<T>[] old = table;
+            Node<T>[] resized = newTable(old.length * 2);
+            int live = 0;
+            for (int i = 0; i < old.length; i++) {
+                for (Node<T> node = head(old, i); node != null; node = node.next()) {
+                    if (node.reference().refersTo(null)) {
+                        continue; // collected already, its queued reference will find nothing to remove
+                    }
+                    int index = node.hash() & (resized.length - 1);
+                    resized[index] = new Node<>(node.reference(), node.hash(), resized[index]);
+                    live++;
+                }
+            }
+            count = live;
+            table = resized;
+        }
+    }
+
+    public static final class Builder<T> {
+        private int stripes = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
+        private boolean soft;
+        private final List<Deduplication<T>> deduplications = new ArrayList<>();
+        private Interner<String> strings;
+        private ToLongFunction<? super T> sizeEstimator;
+
+        private Builder() {
+        }
+
+        /*number of independently locked stripes, rounded up to a power of two*/
+        public Builder<T> stripes(int stripes) {
+            if (stripes < 1) {
+                throw new IllegalArgumentException("stripes must be positive: " + stripes);
+            }
+            this.stripes = stripes;
+            return this;
+        }
+
+        /*canonical values go away as soon as nobody else references them (default)*/
+        public Builder<T> weak() {
+            this.soft = false;
+            return this;
+        }
+
+        /*canonical values stay until the heap runs low, better hit rate for values that come and go*/
+        public Builder<T> soft() {
+            this.soft = true;
+            return this;
+        }
+
+        /*interns the String returned by getter and rebuilds the value with the canonical String when it differs*/
+        public Builder<T> deduplicate(Function<? super T, String> getter, BiFunction<? super T, String, ? extends T> rebuild) {
+            deduplications.add(new Deduplication<>(Objects.requireNonNull(getter), Objects.requireNonNull(rebuild)));
+            return this;
+        }
+
+        /*share one String interner between several interners (eg: Student and User names)*/
+        public Builder<T> stringInterner(Interner<String> strings) {
+            this.strings = strings;
+            return this;
+        }
+
+        /*bytes a duplicate would have retained, used for InternerStats.bytesSaved()*/
+        public Builder<T> sizeEstimator(ToLongFunction<? super T> sizeEstimator) {
+            this.sizeEstimator = sizeEstimator;
+            return this;
+        }
+
+        public Interner<T> build() {
+            return new Interner<>(this);
+        }
+    }
+}
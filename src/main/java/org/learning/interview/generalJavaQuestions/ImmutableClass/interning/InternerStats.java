@@ -0,0 +1,22 @@
+package org.learning.interview.generalJavaQuestions.ImmutableClass.interning;
+
+/*
+ * Snapshot of an Interner's counters.
+ * lookups             = intern calls
+ * hits                = intern calls that returned an already canonical instance (the argument was a duplicate)
+ * size                = canonical instances currently held
+ * bytesSaved          = sum of the size estimator over the duplicates, 0 when no estimator was configured
+ * deduplicatedStrings = String fields replaced by their canonical instance before a value became canonical
+ * */
+public record InternerStats(long lookups, long hits, long size, long bytesSaved, long deduplicatedStrings) {
+
+    public double hitRate() {
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("InternerStats{lookups=%d, hits=%d, hitRate=%.2f%%, size=%d, bytesSaved=%d, deduplicatedStrings=%d}",
+                lookups, hits, hitRate() * 100, size, bytesSaved, deduplicatedStrings);
+    }
+}
@@ -0,0 +1,48 @@
+package org.learning.interview.generalJavaQuestions.ImmutableClass.testClasses;
+
+import org.learning.interview.generalJavaQuestions.ImmutableClass.classes.ImmutableReference;
+import org.learning.interview.generalJavaQuestions.ImmutableClass.interning.Interner;
+import org.learning.interview.generalJavaQuestions.comparatorAndComparable.utils.Student;
+import org.learning.streams.intermediateoperations.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestInterner {
+    public static void main(String[] args) {
+        /*Student and User names go through one shared String interner*/
+        Interner<String> names = Interner.<String>builder().sizeEstimator(Interner::estimatedStringSize).build();
+        Interner<Student> students = Interner.<Student>builder()
+                .stringInterner(names)
+                .deduplicate(Student::name, (student, name) -> new Student(student.id(), name, student.age()))
+                .sizeEstimator(student -> 32 + Interner.estimatedStringSize(student.name()))
+                .build();
+        Interner<User> users = Interner.<User>builder()
+                .stringInterner(names)
+                .deduplicate(User::name, (user, name) -> new User(user.id(), name))
+                .sizeEstimator(user -> 24 + Interner.estimatedStringSize(user.name()))
+                .build();
+
+        /*new String(...) simulates values read from a file/db: equal content, different instances*/
+        Student first = students.intern(new Student(1, new String("Raj"), 22));
+        Student second = students.intern(new Student(1, new String("Raj"), 22));
+        System.out.println(first == second); // true, the second one is a duplicate and the first instance is returned
+
+        User user = users.intern(new User(23, new String("Raj")));
+        System.out.println(user.name() == first.name()); // true, User and Student share the same "Raj" String
+
+        /*a lot of duplicates: only the distinct values stay on the heap*/
+        List<Student> loaded = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            loaded.add(students.intern(new Student(i % 100, new String("student" + i % 100), 18 + i % 100 % 40)));
+        }
+        System.out.println(loaded.size() + " students, " + students.size() + " distinct instances");
+        System.out.println("students " + students.stats());
+        System.out.println("users " + users.stats()); // deduplicatedStrings=1, the "Raj" of the User was replaced
+        System.out.println("names " + names.stats());
+
+        /*works for any immutable value, eg: the ImmutableReference of StructuralSharingImmutableClass*/
+        Interner<ImmutableReference> references = Interner.<ImmutableReference>builder().soft().build();
+        System.out.println(references.intern(new ImmutableReference("Sid")) == references.intern(new ImmutableReference("Sid"))); // true
+    }
+}
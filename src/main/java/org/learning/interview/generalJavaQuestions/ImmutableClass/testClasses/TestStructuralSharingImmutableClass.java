@@ -0,0 +1,41 @@
+package org.learning.interview.generalJavaQuestions.ImmutableClass.testClasses;
+
+import org.learning.interview.generalJavaQuestions.ImmutableClass.classes.ImmutableReference;
+import org.learning.interview.generalJavaQuestions.ImmutableClass.classes.ReferenceObject;
+import org.learning.interview.generalJavaQuestions.ImmutableClass.classes.StructuralSharingImmutableClass;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestStructuralSharingImmutableClass {
+    public static void main(String[] args) {
+        ReferenceObject referenceObject = new ReferenceObject();
+        referenceObject.setRefName("Sid");
+        ArrayList<String> friends = new ArrayList<>();
+        friends.add("Raj");
+        friends.add("Viju");
+        StructuralSharingImmutableClass immutable = new StructuralSharingImmutableClass("Siddu", ImmutableReference.from(referenceObject), friends);
+        System.out.println(immutable);
+
+        /*constructor test: the mutable inputs are copied once so changing them later doesn't leak in*/
+        referenceObject.setRefName("Manjunath");
+        friends.add("Nagaraj");
+        System.out.println(immutable);
+
+        /*getter test: no copies, the same instances come back every time and they can't be modified*/
+        List<String> friends1 = immutable.getFriends();
+        System.out.println(friends1 == immutable.getFriends()); // true
+        System.out.println(immutable.getReference() == immutable.getReference()); // true
+        try {
+            friends1.add("Dyamanna");
+        } catch (UnsupportedOperationException e) {
+            System.out.println("friends can't be modified through the getter");
+        }
+
+        /*updates return a new object and share the unchanged parts with the old one*/
+        StructuralSharingImmutableClass withFriend = immutable.withFriend("Dyamanna").withAttribute("city", "Pune");
+        System.out.println(immutable); // still [Raj, Viju] and no attributes
+        System.out.println(withFriend); // [Raj, Viju, Dyamanna] {city=Pune}
+        System.out.println(withFriend.getReference() == immutable.getReference()); // true, shared not copied
+    }
+}
@@ -1,6 +1,8 @@
 package org.learning.interview.generalJavaQuestions.comparatorAndComparable.comparator;
 
 import lombok.extern.slf4j.Slf4j;
+import org.learning.interview.generalJavaQuestions.comparatorAndComparable.sorting.IntKeySort;
+import org.learning.interview.generalJavaQuestions.comparatorAndComparable.sorting.KeyedSorter;
 import org.learning.interview.generalJavaQuestions.comparatorAndComparable.utils.Student;
 
 import java.util.ArrayList;
@@ -35,6 +37,17 @@ public class ComparatorExample {
         List<Student> sortedStudentsNamesAsc = students.stream().sorted((s1,s2)-> s1.name().compareTo(s2.name())).toList();
         List<Student> sortedStudentsNamesAsc2 = students.stream().sorted(Comparator.comparing(Student::name)).toList();
         log.info("Sorted students based  on there name ASC{} or {}", sortedStudentsNamesAsc, sortedStudentsNamesAsc2);
+
+        log.info("for int keys like age we don't need a comparator at all, the keys are extracted once and radix/counting sorted (stable)");
+        List<Student> sortedStudentsByAgeKey = IntKeySort.sortByIntKey(students, Student::age);
+        List<Student> sortedStudentsByAgeKeyDsc = IntKeySort.sortByIntKeyDescending(students, Student::age);
+        log.info("Sorted students based on age key ASC{} and DSC{}", sortedStudentsByAgeKey, sortedStudentsByAgeKeyDsc);
+
+        log.info("comparing(..).thenComparing(..) calls the key extractors again on every comparison");
+        log.info("KeyedSorter extracts all the keys once into arrays and sorts on those (Schwartzian transform)");
+        List<Student> sortedStudentsByAgeThenName = students.stream().sorted(Comparator.comparingInt(Student::age).thenComparing(Student::name)).toList();
+        KeyedSorter<Student> byAgeThenName = KeyedSorter.comparingInt(Student::age).thenComparing(Student::name);
+        log.info("Sorted students based on age then name {} or {}", sortedStudentsByAgeThenName, byAgeThenName.sort(students));
     }
 }
 
@@ -42,8 +55,8 @@ class AgeComparator implements Comparator<Student>{
 
     @Override
     public int compare(Student o1, Student o2) {
-        return o1.age() - o2.age(); //ASC order sort or u can use the
-//        return Integer.compare(o1.age(), o2.age());
+        return Integer.compare(o1.age(), o2.age()); //ASC order sort
+        //don't use o1.age() - o2.age() it overflows for big values (eg: Integer.MIN_VALUE - 1 is positive) and gives the wrong order
     }
-    //and it provides the reversed method to reverse it or u can use the o2.age() - o1.age(); that also works fine
+    //and it provides the reversed method to reverse it or u can use the Integer.compare(o2.age(), o1.age())
 }
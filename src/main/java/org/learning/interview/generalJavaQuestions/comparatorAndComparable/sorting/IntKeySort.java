@@ -0,0 +1,187 @@
+package org.learning.interview.generalJavaQuestions.comparatorAndComparable.sorting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+/*
+ * Stable sort of records on an int key eg: sortByIntKey(students, Student::age) or sortByIntKey(users, User::id).
+ * The key is extracted once per element into an int[] and then sorted without a Comparator:
+ * - small key range (ages, marks...): counting sort, one pass over the keys
+ * - any other int keys: LSD radix sort, 8 bits per pass, passes where every key has the same byte are skipped
+ * Both carry the element index with the key so equal keys keep their original order (stable like List.sort).
+ * Tiny inputs fall back to the normal comparison sort because the extra arrays cost more than they save.
+ * */
+public final class IntKeySort {
+
+    /*below this a comparison sort is cheaper than allocating the key/index arrays*/
+    private static final int COMPARISON_SORT_THRESHOLD = 64;
+    /*below this the parallel variant just sorts sequentially*/
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int RADIX_MASK = RADIX - 1;
+
+    private IntKeySort() {
+    }
+
+    /*ascending and stable, returns a new unmodifiable list and leaves the input untouched*/
+    public static <T> List<T> sortByIntKey(List<? extends T> list, ToIntFunction<? super T> key) {
+        return sort(list, key, false, false);
+    }
+
+    /*descending and still stable (equal keys keep the input order, unlike reversing an ascending sort)*/
+    public static <T> List<T> sortByIntKeyDescending(List<? extends T> list, ToIntFunction<? super T> key) {
+        return sort(list, key, true, false);
+    }
+
+    /*same result as sortByIntKey, the key extraction and the radix passes are split across the common pool*/
+    public static <T> List<T> parallelSortByIntKey(List<? extends T> list, ToIntFunction<? super T> key) {
+        return sort(list, key, false, true);
+    }
+
+    public static <T> List<T> parallelSortByIntKeyDescending(List<? extends T> list, ToIntFunction<? super T> key) {
+        return sort(list, key, true, true);
+    }
+
+    private static <T> List<T> sort(List<? extends T> list, ToIntFunction<? super T> key, boolean descending, boolean parallel) {
+        int size = list.size();
+        if (size < COMPARISON_SORT_THRESHOLD) {
+            List<T> copy = new ArrayList<>(list);
+            Comparator<T> comparator = (a, b) -> Integer.compare(key.applyAsInt(a), key.applyAsInt(b));
+            copy.sort(descending ? comparator.reversed() : comparator);
+            return Collections.unmodifiableList(copy);
+        }
+        parallel = parallel && size >= PARALLEL_THRESHOLD;
+
+        Object[] elements = list.toArray();
+        int[] keys = new int[size];
+        /*flipping the sign bit makes signed ints sort correctly as unsigned, ~ flips the order for descending*/
+        int flip = descending ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+        IntStream indexes = IntStream.range(0, size);
+        (parallel ? indexes.parallel() : indexes).forEach(i -> {
+            @SuppressWarnings("unchecked")
+            T element = (T) elements[i];
+            keys[i] = key.applyAsInt(element) ^ flip;
+        });
+
+        int[] order = sortedIndexes(keys, parallel);
+        Object[] sorted = new Object[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = elements[order[i]];
+        }
+        @SuppressWarnings("unchecked")
+        List<T> result = (List<T>) Collections.unmodifiableList(Arrays.asList(sorted));
+        return result;
+    }
+
+    /*returns the element indexes in sorted key order, keys are already mapped to unsigned order*/
+    private static int[] sortedIndexes(int[] keys, boolean parallel) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int key : keys) {
+            int unsigned = key ^ Integer.MIN_VALUE; /*back to signed so min/max compare correctly*/
+            min = Math.min(min, unsigned);
+            max = Math.max(max, unsigned);
+        }
+        long range = (long) max - min + 1;
+        if (range <= Math.max(keys.length, RADIX)) {
+            return countingSort(keys, min, (int) range);
+        }
+        return radixSort(keys, parallel);
+    }
+
+    private static int[] countingSort(int[] keys, int min, int range) {
+        int[] counts = new int[range + 1];
+        for (int key : keys) {
+            counts[(key ^ Integer.MIN_VALUE) - min + 1]++;
+        }
+        for (int i = 1; i <= range; i++) {
+            counts[i] += counts[i - 1];
+        }
+        int[] order = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            order[counts[(keys[i] ^ Integer.MIN_VALUE) - min]++] = i;
+        }
+        return order;
+    }
+
+    private static int[] radixSort(int[] keys, boolean parallel) {
+        int size = keys.length;
+        int chunks = parallel ? Math.min(Runtime.getRuntime().availableProcessors() * 4, size / RADIX) : 1;
+        chunks = Math.max(chunks, 1);
+        int[] sourceKeys = keys.clone();
+        int[] sourceIndexes = new int[size];
+        Arrays.setAll(sourceIndexes, i -> i);
+        int[] targetKeys = new int[size];
+        int[] targetIndexes = new int[size];
+
+        for (int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+            if (radixPass(sourceKeys, sourceIndexes, targetKeys, targetIndexes, shift, chunks)) {
+                int[] swap = sourceKeys;
+                sourceKeys = targetKeys;
+                targetKeys = swap;
+                swap = sourceIndexes;
+                sourceIndexes = targetIndexes;
+                targetIndexes = swap;
+            }
+        }
+        return sourceIndexes;
+    }
+
+    /*
+     * one stable counting pass on the byte at shift. Each chunk counts its own histogram, chunk c of
+     * digit d writes after every earlier chunk of digit d so the order inside a digit is kept.
+     * returns false (and writes nothing) when all keys share the same byte
+     * */
+    private static boolean radixPass(int[] sourceKeys, int[] sourceIndexes, int[] targetKeys, int[] targetIndexes, int shift, int chunks) {
+        int size = sourceKeys.length;
+        int chunkSize = (size + chunks - 1) / chunks;
+        int[][] counts = new int[chunks][RADIX];
+        forEachChunk(chunks, chunk -> {
+            int[] count = counts[chunk];
+            int end = Math.min(size, (chunk + 1) * chunkSize);
+            for (int i = chunk * chunkSize; i < end; i++) {
+                count[(sourceKeys[i] >>> shift) & RADIX_MASK]++;
+            }
+        });
+
+        int offset = 0;
+        for (int digit = 0; digit < RADIX; digit++) {
+            int digitTotal = 0;
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int count = counts[chunk][digit];
+                counts[chunk][digit] = offset + digitTotal;
+                digitTotal += count;
+            }
+            if (digitTotal == size) {
+                return false;
+            }
+            offset += digitTotal;
+        }
+
+        forEachChunk(chunks, chunk -> {
+            int[] position = counts[chunk];
+            int end = Math.min(size, (chunk + 1) * chunkSize);
+            for (int i = chunk * chunkSize; i < end; i++) {
+                int target = position[(sourceKeys[i] >>> shift) & RADIX_MASK]++;
+                targetKeys[target] = sourceKeys[i];
+                targetIndexes[target] = sourceIndexes[i];
+            }
+        });
+        return true;
+    }
+
+    private static void forEachChunk(int chunks, IntConsumer action) {
+        if (chunks == 1) {
+            action.accept(0);
+        } else {
+            IntStream.range(0, chunks).parallel().forEach(action);
+        }
+    }
+}
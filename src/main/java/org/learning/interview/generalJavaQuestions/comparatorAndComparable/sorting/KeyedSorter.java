@@ -0,0 +1,333 @@
+package org.learning.interview.generalJavaQuestions.comparatorAndComparable.sorting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+
+/*
+ * Multi key sort which extracts every sort key once per element (Schwartzian transform) instead of
+ * calling the key extractors on every comparison like Comparator.comparing(..).thenComparing(..) does.
+ *
+ * The keys are stored column wise (int[] / long[] / Comparable[]) and one compare routine walks the
+ * columns with a switch on the column type, so primitive keys are compared without any virtual call.
+ * String keys also get their first chars packed into a long so most comparisons never reach String.compareTo.
+ * When the first key is an int the whole sort is a primitive Arrays.sort on (key, index) packed
+ * into a long, and only the runs of equal first keys are merge sorted on the remaining keys.
+ * The sort is stable like List.sort.
+ *
+ * usage:
+ * KeyedSorter<Student> byAgeThenName = KeyedSorter.comparingInt(Student::age).thenComparing(Student::name);
+ * List<Student> sorted = byAgeThenName.sort(students);
+ * */
+public final class KeyedSorter<T> {
+
+    private static final int INT = 0;
+    private static final int LONG = 1;
+    private static final int OBJECT = 2;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private final List<Key<T>> keys;
+
+    private KeyedSorter(List<Key<T>> keys) {
+        this.keys = keys;
+    }
+
+    public static <T> KeyedSorter<T> comparingInt(ToIntFunction<? super T> key) {
+        return new KeyedSorter<T>(List.of()).thenComparingInt(key);
+    }
+
+    public static <T> KeyedSorter<T> comparingIntDescending(ToIntFunction<? super T> key) {
+        return new KeyedSorter<T>(List.of()).thenComparingIntDescending(key);
+    }
+
+    public static <T> KeyedSorter<T> comparingLong(ToLongFunction<? super T> key) {
+        return new KeyedSorter<T>(List.of()).thenComparingLong(key);
+    }
+
+    public static <T, U extends Comparable<? super U>> KeyedSorter<T> comparing(Function<? super T, ? extends U> key) {
+        return new KeyedSorter<T>(List.of()).thenComparing(key);
+    }
+
+    public KeyedSorter<T> thenComparingInt(ToIntFunction<? super T> key) {
+        return with(new Key<>(INT, false, key, null, null));
+    }
+
+    public KeyedSorter<T> thenComparingIntDescending(ToIntFunction<? super T> key) {
+        return with(new Key<>(INT, true, key, null, null));
+    }
+
+    public KeyedSorter<T> thenComparingLong(ToLongFunction<? super T> key) {
+        return with(new Key<>(LONG, false, null, key, null));
+    }
+
+    public KeyedSorter<T> thenComparingLongDescending(ToLongFunction<? super T> key) {
+        return with(new Key<>(LONG, true, null, key, null));
+    }
+
+    public <U extends Comparable<? super U>> KeyedSorter<T> thenComparing(Function<? super T, ? extends U> key) {
+        return with(new Key<>(OBJECT, false, null, null, key));
+    }
+
+    public <U extends Comparable<? super U>> KeyedSorter<T> thenComparingDescending(Function<? super T, ? extends U> key) {
+        return with(new Key<>(OBJECT, true, null, null, key));
+    }
+
+    /*stable sort into a new unmodifiable list, the input is not touched*/
+    public List<T> sort(List<? extends T> list) {
+        return sort(list, false);
+    }
+
+    /*same result, key extraction and the primitive first key sort use the common ForkJoinPool for big lists*/
+    public List<T> parallelSort(List<? extends T> list) {
+        return sort(list, list.size() >= PARALLEL_THRESHOLD);
+    }
+
+    private KeyedSorter<T> with(Key<T> key) {
+        List<Key<T>> newKeys = new ArrayList<>(keys);
+        newKeys.add(key);
+        return new KeyedSorter<>(List.copyOf(newKeys));
+    }
+
+    private List<T> sort(List<? extends T> list, boolean parallel) {
+        Object[] elements = list.toArray();
+        Columns columns = extract(elements, parallel);
+        int[] order = columns.kinds[0] == INT
+                ? columns.sortOnIntFirstKey(parallel)
+                : columns.mergeSortAll();
+        Object[] sorted = new Object[elements.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = elements[order[i]];
+        }
+        @SuppressWarnings("unchecked")
+        List<T> result = (List<T>) Collections.unmodifiableList(Arrays.asList(sorted));
+        return result;
+    }
+
+    /*the transform: every key of every element is read exactly once here*/
+    @SuppressWarnings("unchecked")
+    private Columns extract(Object[] elements, boolean parallel) {
+        int size = elements.length;
+        Columns columns = new Columns(keys.size(), size);
+        for (int k = 0; k < keys.size(); k++) {
+            Key<T> key = keys.get(k);
+            columns.kinds[k] = key.kind;
+            columns.descending[k] = key.descending;
+            IntStream indexes = parallel ? IntStream.range(0, size).parallel() : IntStream.range(0, size);
+            switch (key.kind) {
+                case INT -> {
+                    int[] column = new int[size];
+                    /*~ reverses the order of signed ints so descending needs no extra branch while comparing*/
+                    int flip = key.descending ? -1 : 0;
+                    indexes.forEach(i -> column[i] = key.intKey.applyAsInt((T) elements[i]) ^ flip);
+                    columns.ints[k] = column;
+                }
+                case LONG -> {
+                    long[] column = new long[size];
+                    long flip = key.descending ? -1L : 0L;
+                    indexes.forEach(i -> column[i] = key.longKey.applyAsLong((T) elements[i]) ^ flip);
+                    columns.longs[k] = column;
+                }
+                default -> {
+                    Comparable<Object>[] column = (Comparable<Object>[]) new Comparable<?>[size];
+                    indexes.forEach(i -> column[i] = (Comparable<Object>) key.objectKey.apply((T) elements[i]));
+                    columns.objects[k] = column;
+                    columns.prefixes[k] = StringPrefix.of(column, key.descending, parallel);
+                }
+            }
+        }
+        return columns;
+    }
+
+    /*
+     * order preserving prefix of String keys: the first 8 chars (4 when a char doesn't fit in a byte)
+     * packed into a long, shorter strings padded with 0. Different prefixes give the same order as
+     * String.compareTo, equal prefixes still need the full compareTo.
+     * */
+    private static final class StringPrefix {
+
+        private StringPrefix() {
+        }
+
+        private static long[] of(Object[] column, boolean descending, boolean parallel) {
+            for (Object value : column) {
+                if (!(value instanceof String)) {
+                    return null;
+                }
+            }
+            long flip = descending ? -1L : 0L;
+            long[] prefix = new long[column.length];
+            boolean latin1 = indexes(column.length, parallel).allMatch(i -> isLatin1Prefix((String) column[i]));
+            indexes(column.length, parallel).forEach(i -> {
+                String value = (String) column[i];
+                prefix[i] = (latin1 ? latin1Prefix(value) : utf16Prefix(value)) ^ flip;
+            });
+            return prefix;
+        }
+
+        private static IntStream indexes(int size, boolean parallel) {
+            return parallel ? IntStream.range(0, size).parallel() : IntStream.range(0, size);
+        }
+
+        private static boolean isLatin1Prefix(String value) {
+            int length = Math.min(value.length(), Long.BYTES);
+            for (int i = 0; i < length; i++) {
+                if (value.charAt(i) > 0xFF) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long latin1Prefix(String value) {
+            long packed = 0;
+            int length = Math.min(value.length(), Long.BYTES);
+            for (int i = 0; i < length; i++) {
+                packed |= (long) value.charAt(i) << (56 - 8 * i);
+            }
+            return packed;
+        }
+
+        private static long utf16Prefix(String value) {
+            long packed = 0;
+            int length = Math.min(value.length(), Long.BYTES / Character.BYTES);
+            for (int i = 0; i < length; i++) {
+                packed |= (long) value.charAt(i) << (48 - 16 * i);
+            }
+            return packed;
+        }
+    }
+
+    private record Key<T>(int kind, boolean descending, ToIntFunction<? super T> intKey,
+                          ToLongFunction<? super T> longKey, Function<? super T, ? extends Comparable<?>> objectKey) {
+    }
+
+    /*extracted keys column by column plus the single compare routine over them*/
+    private static final class Columns {
+        private final int[] kinds;
+        private final boolean[] descending;
+        private final int[][] ints;
+        private final long[][] longs;
+        private final Comparable<Object>[][] objects;
+        private final long[][] prefixes; /*only for String columns, see StringPrefix*/
+        private final int size;
+
+        @SuppressWarnings("unchecked")
+        private Columns(int keyCount, int size) {
+            this.kinds = new int[keyCount];
+            this.descending = new boolean[keyCount];
+            this.ints = new int[keyCount][];
+            this.longs = new long[keyCount][];
+            this.objects = (Comparable<Object>[][]) new Comparable<?>[keyCount][];
+            this.prefixes = new long[keyCount][];
+            this.size = size;
+        }
+
+        /*compares element a and b on the keys starting at firstKey*/
+        private int compare(int a, int b, int firstKey) {
+            for (int k = firstKey; k < kinds.length; k++) {
+                int result = switch (kinds[k]) {
+                    case INT -> Integer.compare(ints[k][a], ints[k][b]);
+                    case LONG -> Long.compare(longs[k][a], longs[k][b]);
+                    default -> {
+                        long[] prefix = prefixes[k];
+                        if (prefix != null && prefix[a] != prefix[b]) {
+                            yield Long.compareUnsigned(prefix[a], prefix[b]);
+                        }
+                        int compared = objects[k][a].compareTo(objects[k][b]);
+                        yield descending[k] ? Integer.compare(0, compared) : compared;
+                    }
+                };
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        }
+
+        private int[] mergeSortAll() {
+            int[] order = new int[size];
+            Arrays.setAll(order, i -> i);
+            mergeSort(order, new int[size], 0, size, 0);
+            return order;
+        }
+
+        /*
+         * (first int key, index) packed in one long: a primitive sort orders by key and keeps the input order
+         * on ties, then only the runs of equal first keys are sorted on the remaining keys
+         * */
+        private int[] sortOnIntFirstKey(boolean parallel) {
+            int[] firstKey = ints[0];
+            long[] packed = new long[size];
+            for (int i = 0; i < size; i++) {
+                packed[i] = ((long) firstKey[i] << 32) | i;
+            }
+            if (parallel) {
+                Arrays.parallelSort(packed);
+            } else {
+                Arrays.sort(packed);
+            }
+            int[] order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = (int) packed[i];
+            }
+            if (kinds.length > 1) {
+                sortTies(order, parallel);
+            }
+            return order;
+        }
+
+        /*sorts every run of equal first keys on the remaining keys, runs are independent so they can go parallel*/
+        private void sortTies(int[] order, boolean parallel) {
+            List<int[]> runs = new ArrayList<>();
+            int start = 0;
+            for (int i = 1; i <= size; i++) {
+                if (i == size || ints[0][order[start]] != ints[0][order[i]]) {
+                    if (i - start > 1) {
+                        runs.add(new int[]{start, i});
+                    }
+                    start = i;
+                }
+            }
+            (parallel ? runs.parallelStream() : runs.stream()).forEach(run ->
+                    mergeSort(order, new int[run[1] - run[0]], run[0], run[1], 1));
+        }
+
+
+        /*stable top down merge sort of order[from, to) using buffer (indexed from 0) as scratch*/
+        private void mergeSort(int[] order, int[] buffer, int from, int to, int firstKey) {
+            if (to - from <= INSERTION_SORT_THRESHOLD) {
+                for (int i = from + 1; i < to; i++) {
+                    int current = order[i];
+                    int j = i - 1;
+                    while (j >= from && compare(order[j], current, firstKey) > 0) {
+                        order[j + 1] = order[j];
+                        j--;
+                    }
+                    order[j + 1] = current;
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            mergeSort(order, buffer, from, middle, firstKey);
+            mergeSort(order, buffer, middle, to, firstKey);
+            if (compare(order[middle - 1], order[middle], firstKey) <= 0) {
+                return; /*already in order*/
+            }
+            int length = middle - from;
+            System.arraycopy(order, from, buffer, 0, length);
+            int left = 0;
+            int right = middle;
+            int target = from;
+            while (left < length && right < to) {
+                order[target++] = compare(order[right], buffer[left], firstKey) < 0 ? order[right++] : buffer[left++];
+            }
+            System.arraycopy(buffer, left, order, target, length - left);
+        }
+    }
+}
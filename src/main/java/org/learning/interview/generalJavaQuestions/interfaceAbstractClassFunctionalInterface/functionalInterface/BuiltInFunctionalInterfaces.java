@@ -1,5 +1,13 @@
 package org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.functionalInterface;
 
+import org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.functionalInterface.fused.FusedIntPipeline;
+import org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.functionalInterface.memoization.MemoizedBiFunction;
+import org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.functionalInterface.memoization.MemoizedFunction;
+import org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.functionalInterface.memoization.MemoizedSupplier;
+import org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.functionalInterface.memoization.Memoizers;
+
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.function.*;
 
 public class BuiltInFunctionalInterfaces {
@@ -32,5 +40,30 @@ public class BuiltInFunctionalInterfaces {
           BinaryOperator<Integer> binaryOperator = (a, b) -> a * b;
           System.out.println("BinaryOperator apply for 4 and 5: " + binaryOperator.apply(4, 5));
 
+          /*8. Primitive specializations: same idea without boxing every int into an Integer */
+          IntPredicate isEven = (num) -> num % 2 == 0;
+          IntUnaryOperator square = (num) -> num * num;
+          IntBinaryOperator multiply = (a, b) -> a * b;
+          DoubleSupplier random = Math::random;
+          System.out.println("IntPredicate isEven.negate() for 7: " + isEven.negate().test(7));
+          System.out.println("IntUnaryOperator square.andThen(n -> n + 1) for 7: " + square.andThen((num) -> num + 1).applyAsInt(7));
+          System.out.println("IntBinaryOperator apply for 4 and 5: " + multiply.applyAsInt(4, 5));
+          System.out.println("DoubleSupplier provided value: " + random.getAsDouble());
+
+          /*9. Fused pipeline: the filter/map chain compiled into one loop over the int[] */
+          int[] numbers = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+          FusedIntPipeline evenSquares = FusedIntPipeline.builder().filter(isEven).map(square).compile();
+          System.out.println("Sum of even squares: " + evenSquares.sum(numbers));
+          System.out.println("Even squares: " + Arrays.toString(evenSquares.toArray(numbers)));
+
+          /*10. Memoized: the same shapes wrapped around an expensive call, computed once per argument */
+          MemoizedFunction<String, String> memoizedFunction = Memoizers.memoize(function);
+          memoizedFunction.apply("Hello");
+          System.out.println("Memoized Function apply for 'Hello' again: " + memoizedFunction.apply("Hello") + " " + memoizedFunction.stats());
+          MemoizedBiFunction<Integer, Integer, Integer> memoizedBiFunction = Memoizers.memoize(biFunction, 100);
+          System.out.println("Memoized BiFunction apply for 5 and 10: " + memoizedBiFunction.apply(5, 10));
+          MemoizedSupplier<Double> memoizedSupplier = Memoizers.memoizeWithExpiry(supplier, Duration.ofSeconds(1));
+          System.out.println("Memoized Supplier gives the same value until it expires: " + memoizedSupplier.get().equals(memoizedSupplier.get()));
+
     }
 }
\ No newline at end of file
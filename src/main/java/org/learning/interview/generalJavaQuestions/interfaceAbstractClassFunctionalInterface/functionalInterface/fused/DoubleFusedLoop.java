@@ -0,0 +1,65 @@
+package org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.functionalInterface.fused;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+
+/*
+ * Template for the double pipelines, never used directly: FusedLoops.newLoop defines a hidden copy of this class per pipeline.
+ * The 8 stage slots are written out by hand (no inner loop over a stage array) so each slot is its own call site,
+ * slots a pipeline doesn't use are never taken and the JIT drops them from the compiled loop.
+ * */
+final class DoubleFusedLoop implements FusedLoops.DoubleRunner {
+
+    private final int k0, k1, k2, k3, k4, k5, k6, k7;
+    private final DoublePredicate p0, p1, p2, p3, p4, p5, p6, p7;
+    private final DoubleUnaryOperator m0, m1, m2, m3, m4, m5, m6, m7;
+
+    DoubleFusedLoop(int[] kinds, Object[] functions) {
+        k0 = kinds[0]; k1 = kinds[1]; k2 = kinds[2]; k3 = kinds[3];
+        k4 = kinds[4]; k5 = kinds[5]; k6 = kinds[6]; k7 = kinds[7];
+        p0 = predicate(kinds, functions, 0); p1 = predicate(kinds, functions, 1);
+        p2 = predicate(kinds, functions, 2); p3 = predicate(kinds, functions, 3);
+        p4 = predicate(kinds, functions, 4); p5 = predicate(kinds, functions, 5);
+        p6 = predicate(kinds, functions, 6); p7 = predicate(kinds, functions, 7);
+        m0 = operator(kinds, functions, 0); m1 = operator(kinds, functions, 1);
+        m2 = operator(kinds, functions, 2); m3 = operator(kinds, functions, 3);
+        m4 = operator(kinds, functions, 4); m5 = operator(kinds, functions, 5);
+        m6 = operator(kinds, functions, 6); m7 = operator(kinds, functions, 7);
+    }
+
+    private static DoublePredicate predicate(int[] kinds, Object[] functions, int slot) {
+        return kinds[slot] == FusedLoops.FILTER ? (DoublePredicate) functions[slot] : null;
+    }
+
+    private static DoubleUnaryOperator operator(int[] kinds, Object[] functions, int slot) {
+        return kinds[slot] == FusedLoops.MAP ? (DoubleUnaryOperator) functions[slot] : null;
+    }
+
+    @Override
+    public void run(double[] values, int mode, DoubleBinaryOperator reducer, double identity, boolean hasIdentity, double[] out, long[] result) {
+        long count = 0;
+        double accumulator = identity;
+        boolean seen = hasIdentity;
+        for (double value : values) {
+            double v = value;
+            if (k0 != FusedLoops.NONE) { if (k0 == FusedLoops.FILTER) { if (!p0.test(v)) continue; } else { v = m0.applyAsDouble(v); } }
+            if (k1 != FusedLoops.NONE) { if (k1 == FusedLoops.FILTER) { if (!p1.test(v)) continue; } else { v = m1.applyAsDouble(v); } }
+            if (k2 != FusedLoops.NONE) { if (k2 == FusedLoops.FILTER) { if (!p2.test(v)) continue; } else { v = m2.applyAsDouble(v); } }
+            if (k3 != FusedLoops.NONE) { if (k3 == FusedLoops.FILTER) { if (!p3.test(v)) continue; } else { v = m3.applyAsDouble(v); } }
+            if (k4 != FusedLoops.NONE) { if (k4 == FusedLoops.FILTER) { if (!p4.test(v)) continue; } else { v = m4.applyAsDouble(v); } }
+            if (k5 != FusedLoops.NONE) { if (k5 == FusedLoops.FILTER) { if (!p5.test(v)) continue; } else { v = m5.applyAsDouble(v); } }
+            if (k6 != FusedLoops.NONE) { if (k6 == FusedLoops.FILTER) { if (!p6.test(v)) continue; } else { v = m6.applyAsDouble(v); } }
+            if (k7 != FusedLoops.NONE) { if (k7 == FusedLoops.FILTER) { if (!p7.test(v)) continue; } else { v = m7.applyAsDouble(v); } }
+            if (mode == FusedLoops.TO_ARRAY) {
+                out[(int) count] = v;
+            } else if (mode == FusedLoops.REDUCE) {
+                accumulator = seen ? reducer.applyAsDouble(accumulator, v) : v;
+                seen = true;
+            }
+            count++;
+        }
+        result[0] = count;
+        result[1] = Double.doubleToRawLongBits(accumulator);
+    }
+}
@@ -0,0 +1,103 @@
+package org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.functionalInterface.fused;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+
+/*
+ * A chain of filter/map stages over double[] compiled ("fused") into a single loop, the primitive replacement for
+ * DoubleStream.of(values).filter(..).map(..).sum() without the stream pipeline objects and without boxing.
+ * compile() gives the pipeline its own copy of the loop class (see FusedLoops) so the lambdas get inlined into the loop
+ * even when the program runs many different pipelines.
+ *
+ * usage:
+ * FusedDoublePipeline pipeline = FusedDoublePipeline.builder().filter(num -> num > 0.5).map(num -> num * 10).compile();
+ * double sum = pipeline.sum(values);       // DoubleStream.of(values).filter(num -> num > 0.5).map(num -> num * 10).sum()
+ * double[] result = pipeline.toArray(values);
+ *
+ * Compile once and reuse it: compiling defines a class and the JIT only optimizes it after it ran for a while.
+ * A compiled pipeline is immutable and can be used from many threads. At most 8 filter/map stages.
+ * */
+public final class FusedDoublePipeline {
+
+    private final FusedLoops.DoubleRunner loop;
+
+    private FusedDoublePipeline(FusedLoops.DoubleRunner loop) {
+        this.loop = loop;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public double[] toArray(double[] values) {
+        double[] out = new double[values.length];
+        long[] result = new long[2];
+        loop.run(values, FusedLoops.TO_ARRAY, null, 0, true, out, result);
+        return result[0] == out.length ? out : Arrays.copyOf(out, (int) result[0]);
+    }
+
+    public long count(double[] values) {
+        long[] result = new long[2];
+        loop.run(values, FusedLoops.COUNT, null, 0, true, null, result);
+        return result[0];
+    }
+
+    /*plain left to right sum, DoubleStream.sum() adds a compensation term so the last bits can differ*/
+    public double sum(double[] values) {
+        return reduce(values, 0, Double::sum);
+    }
+
+    public OptionalDouble min(double[] values) {
+        return reduce(values, Math::min);
+    }
+
+    public OptionalDouble max(double[] values) {
+        return reduce(values, Math::max);
+    }
+
+    public double reduce(double[] values, double identity, DoubleBinaryOperator reducer) {
+        long[] result = new long[2];
+        loop.run(values, FusedLoops.REDUCE, reducer, identity, true, null, result);
+        return Double.longBitsToDouble(result[1]);
+    }
+
+    /*empty when no element passes the filters*/
+    public OptionalDouble reduce(double[] values, DoubleBinaryOperator reducer) {
+        long[] result = new long[2];
+        loop.run(values, FusedLoops.REDUCE, reducer, 0, false, null, result);
+        return result[0] == 0 ? OptionalDouble.empty() : OptionalDouble.of(Double.longBitsToDouble(result[1]));
+    }
+
+    public static final class Builder {
+        private final int[] kinds = new int[FusedLoops.MAX_STAGES];
+        private final Object[] functions = new Object[FusedLoops.MAX_STAGES];
+        private int stages;
+
+        private Builder() {
+        }
+
+        public Builder filter(DoublePredicate predicate) {
+            return stage(FusedLoops.FILTER, predicate);
+        }
+
+        public Builder map(DoubleUnaryOperator mapper) {
+            return stage(FusedLoops.MAP, mapper);
+        }
+
+        private Builder stage(int kind, Object function) {
+            FusedLoops.checkStages(stages);
+            kinds[stages] = kind;
+            functions[stages] = Objects.requireNonNull(function);
+            stages++;
+            return this;
+        }
+
+        public FusedDoublePipeline compile() {
+            return new FusedDoublePipeline(FusedLoops.newLoop(DoubleFusedLoop.class, FusedLoops.DoubleRunner.class, kinds.clone(), functions.clone()));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.functionalInterface.fused;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/*
+ * A chain of filter/map stages over int[] compiled ("fused") into a single loop, the primitive replacement for
+ * IntStream.of(values).filter(..).map(..).sum() without the stream pipeline objects and without boxing.
+ * compile() gives the pipeline its own copy of the loop class (see FusedLoops) so the lambdas get inlined into the loop
+ * even when the program runs many different pipelines.
+ *
+ * usage:
+ * FusedIntPipeline pipeline = FusedIntPipeline.builder().filter(num -> num % 2 == 0).map(num -> num * num).compile();
+ * int sum = pipeline.sum(values);       // IntStream.of(values).filter(num -> num % 2 == 0).map(num -> num * num).sum()
+ * int[] result = pipeline.toArray(values);
+ *
+ * Compile once and reuse it: compiling defines a class and the JIT only optimizes it after it ran for a while.
+ * A compiled pipeline is immutable and can be used from many threads. At most 8 filter/map stages.
+ * */
+public final class FusedIntPipeline {
+
+    private final FusedLoops.IntRunner loop;
+
+    private FusedIntPipeline(FusedLoops.IntRunner loop) {
+        this.loop = loop;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int[] toArray(int[] values) {
+        int[] out = new int[values.length];
+        long[] result = new long[2];
+        loop.run(values, FusedLoops.TO_ARRAY, null, 0, true, out, result);
+        return result[0] == out.length ? out : Arrays.copyOf(out, (int) result[0]);
+    }
+
+    public long count(int[] values) {
+        long[] result = new long[2];
+        loop.run(values, FusedLoops.COUNT, null, 0, true, null, result);
+        return result[0];
+    }
+
+    /*wraps on overflow like IntStream.sum()*/
+    public int sum(int[] values) {
+        return reduce(values, 0, Integer::sum);
+    }
+
+    public OptionalInt min(int[] values) {
+        return reduce(values, Math::min);
+    }
+
+    public OptionalInt max(int[] values) {
+        return reduce(values, Math::max);
+    }
+
+    public int reduce(int[] values, int identity, IntBinaryOperator reducer) {
+        long[] result = new long[2];
+        loop.run(values, FusedLoops.REDUCE, reducer, identity, true, null, result);
+        return (int) result[1];
+    }
+
+    /*empty when no element passes the filters*/
+    public OptionalInt reduce(int[] values, IntBinaryOperator reducer) {
+        long[] result = new long[2];
+        loop.run(values, FusedLoops.REDUCE, reducer, 0, false, null, result);
+        return result[0] == 0 ? OptionalInt.empty() : OptionalInt.of((int) result[1]);
+    }
+
+    public static final class Builder {
+        private final int[] kinds = new int[FusedLoops.MAX_STAGES];
+        private final Object[] functions = new Object[FusedLoops.MAX_STAGES];
+        private int stages;
+
+        private Builder() {
+        }
+
+        public Builder filter(IntPredicate predicate) {
+            return stage(FusedLoops.FILTER, predicate);
+        }
+
+        public Builder map(IntUnaryOperator mapper) {
+            return stage(FusedLoops.MAP, mapper);
+        }
+
+        private Builder stage(int kind, Object function) {
+            FusedLoops.checkStages(stages);
+            kinds[stages] = kind;
+            functions[stages] = Objects.requireNonNull(function);
+            stages++;
+            return this;
+        }
+
+        public FusedIntPipeline compile() {
+            return new FusedIntPipeline(FusedLoops.newLoop(IntFusedLoop.class, FusedLoops.IntRunner.class, kinds.clone(), functions.clone()));
+        }
+    }
+}
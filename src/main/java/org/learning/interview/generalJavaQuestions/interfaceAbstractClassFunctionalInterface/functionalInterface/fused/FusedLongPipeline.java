@@ -0,0 +1,103 @@
+package org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.functionalInterface.fused;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+
+/*
+ * A chain of filter/map stages over long[] compiled ("fused") into a single loop, the primitive replacement for
+ * LongStream.of(values).filter(..).map(..).sum() without the stream pipeline objects and without boxing.
+ * compile() gives the pipeline its own copy of the loop class (see FusedLoops) so the lambdas get inlined into the loop
+ * even when the program runs many different pipelines.
+ *
+ * usage:
+ * FusedLongPipeline pipeline = FusedLongPipeline.builder().filter(num -> num % 2 == 0).map(num -> num * num).compile();
+ * long sum = pipeline.sum(values);       // LongStream.of(values).filter(num -> num % 2 == 0).map(num -> num * num).sum()
+ * long[] result = pipeline.toArray(values);
+ *
+ * Compile once and reuse it: compiling defines a class and the JIT only optimizes it after it ran for a while.
+ * A compiled pipeline is immutable and can be used from many threads. At most 8 filter/map stages.
+ * */
+public final class FusedLongPipeline {
+
+    private final FusedLoops.LongRunner loop;
+
+    private FusedLongPipeline(FusedLoops.LongRunner loop) {
+        this.loop = loop;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public long[] toArray(long[] values) {
+        long[] out = new long[values.length];
+        long[] result = new long[2];
+        loop.run(values, FusedLoops.TO_ARRAY, null, 0, true, out, result);
+        return result[0] == out.length ? out : Arrays.copyOf(out, (int) result[0]);
+    }
+
+    public long count(long[] values) {
+        long[] result = new long[2];
+        loop.run(values, FusedLoops.COUNT, null, 0, true, null, result);
+        return result[0];
+    }
+
+    /*wraps on overflow like LongStream.sum()*/
+    public long sum(long[] values) {
+        return reduce(values, 0, Long::sum);
+    }
+
+    public OptionalLong min(long[] values) {
+        return reduce(values, Math::min);
+    }
+
+    public OptionalLong max(long[] values) {
+        return reduce(values, Math::max);
+    }
+
+    public long reduce(long[] values, long identity, LongBinaryOperator reducer) {
+        long[] result = new long[2];
+        loop.run(values, FusedLoops.REDUCE, reducer, identity, true, null, result);
+        return result[1];
+    }
+
+    /*empty when no element passes the filters*/
+    public OptionalLong reduce(long[] values, LongBinaryOperator reducer) {
+        long[] result = new long[2];
+        loop.run(values, FusedLoops.REDUCE, reducer, 0, false, null, result);
+        return result[0] == 0 ? OptionalLong.empty() : OptionalLong.of(result[1]);
+    }
+
+    public static final class Builder {
+        private final int[] kinds = new int[FusedLoops.MAX_STAGES];
+        private final Object[] functions = new Object[FusedLoops.MAX_STAGES];
+        private int stages;
+
+        private Builder() {
+        }
+
+        public Builder filter(LongPredicate predicate) {
+            return stage(FusedLoops.FILTER, predicate);
+        }
+
+        public Builder map(LongUnaryOperator mapper) {
+            return stage(FusedLoops.MAP, mapper);
+        }
+
+        private Builder stage(int kind, Object function) {
+            FusedLoops.checkStages(stages);
+            kinds[stages] = kind;
+            functions[stages] = Objects.requireNonNull(function);
+            stages++;
+            return this;
+        }
+
+        public FusedLongPipeline compile() {
+            return new FusedLongPipeline(FusedLoops.newLoop(LongFusedLoop.class, FusedLoops.LongRunner.class, kinds.clone(), functions.clone()));
+        }
+    }
+}
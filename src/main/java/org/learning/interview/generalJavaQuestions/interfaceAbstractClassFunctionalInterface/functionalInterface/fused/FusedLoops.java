@@ -0,0 +1,81 @@
+package org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.functionalInterface.fused;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntBinaryOperator;
+import java.util.function.LongBinaryOperator;
+
+/*
+ * Shared pieces of the fused pipelines: stage kinds, terminal modes, the runner interfaces and the class cloning.
+ *
+ * Why cloning: a loop that calls predicate.test(v) has one call site, when the same loop code runs pipelines with
+ * different lambdas the JIT sees many receiver classes there (megamorphic) and can't inline any of them.
+ * Every compiled pipeline gets its own copy of the loop class (a hidden class defined from the template's bytecode),
+ * so every call site in that copy only ever sees the lambdas of one pipeline and the JIT inlines them into one tight loop.
+ * */
+final class FusedLoops {
+
+    static final int MAX_STAGES = 8;
+
+    static final int NONE = 0;
+    static final int FILTER = 1;
+    static final int MAP = 2;
+
+    static final int COUNT = 0;
+    static final int REDUCE = 1;
+    static final int TO_ARRAY = 2;
+
+    private FusedLoops() {
+    }
+
+    /*result[0] = elements that reached the terminal, result[1] = the accumulator (raw bits for double)*/
+    interface IntRunner {
+        void run(int[] values, int mode, IntBinaryOperator reducer, int identity, boolean hasIdentity, int[] out, long[] result);
+    }
+
+    interface LongRunner {
+        void run(long[] values, int mode, LongBinaryOperator reducer, long identity, boolean hasIdentity, long[] out, long[] result);
+    }
+
+    interface DoubleRunner {
+        void run(double[] values, int mode, DoubleBinaryOperator reducer, double identity, boolean hasIdentity, double[] out, long[] result);
+    }
+
+    /*
+     * Defines a fresh hidden class from the template's class file and instantiates it with the stages.
+     * Falls back to the shared template class (same results, just no private profile) if the class file can't be read.
+     * */
+    static <T> T newLoop(Class<? extends T> template, Class<T> runnerType, int[] kinds, Object[] functions) {
+        MethodType constructor = MethodType.methodType(void.class, int[].class, Object[].class);
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            byte[] classFile = readClassFile(template);
+            MethodHandles.Lookup hidden = classFile == null ? lookup : lookup.defineHiddenClass(classFile, true);
+            Class<?> loopClass = classFile == null ? template : hidden.lookupClass();
+            MethodHandle newInstance = hidden.findConstructor(loopClass, constructor);
+            return runnerType.cast(newInstance.invoke(kinds, functions));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("can't create the fused loop for " + template.getSimpleName(), e);
+        }
+    }
+
+    private static byte[] readClassFile(Class<?> template) {
+        try (InputStream in = template.getResourceAsStream(template.getSimpleName() + ".class")) {
+            return in == null ? null : in.readAllBytes();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    static void checkStages(int stages) {
+        if (stages >= MAX_STAGES) {
+            throw new IllegalStateException("a fused pipeline supports at most " + MAX_STAGES + " filter/map stages");
+        }
+    }
+}
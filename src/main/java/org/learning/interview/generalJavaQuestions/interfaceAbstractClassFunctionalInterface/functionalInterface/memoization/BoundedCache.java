@@ -0,0 +1,267 @@
+package org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.functionalInterface.memoization;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/*
+ * Concurrent cache with a maximum size and least recently used (LRU) eviction, the store behind the memoizers.
+ *
+ * - get(key, loader) runs the loader at most once per key at a time (single flight): concurrent misses on the same key
+ *   wait for the first caller's result instead of computing it again. The loader runs outside any lock, so slow loads
+ *   of different keys run in parallel
+ * - a lookup that hits never blocks: the entries live in a ConcurrentHashMap and the hit only moves the entry to the
+ *   front of the LRU list when the list lock is free. Under heavy contention some reorders are skipped (approximate LRU,
+ *   the same trade-off Caffeine makes with its lossy read buffer), inserts and evictions always take the lock
+ * - entries still loading are not in the LRU list, they can't be evicted before their value is there. maximumSize
+ *   bounds the loaded entries, the loads in flight come on top of it
+ * - a loader that throws caches nothing, the exception goes to the caller and to everybody waiting for that key
+ * - null keys and null values are allowed
+ *
+ * usage:
+ * BoundedCache<Integer, Student> students = BoundedCache.<Integer, Student>builder().maximumSize(10_000).build();
+ * Student student = students.get(id, repository::findById);
+ * CacheStats stats = students.stats();
+ * */
+public final class BoundedCache<K, V> {
+
+    private static final Object NULL_KEY = new Object();
+
+    private final int maximumSize;
+    private final ConcurrentHashMap<Object, Node<V>> entries;
+    /*guards the LRU list (head = most recently used, loaded entries only) and size*/
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Node<V> head = new Node<>(null);
+    private int size;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private BoundedCache(Builder<K, V> builder) {
+        this.maximumSize = builder.maximumSize;
+        this.entries = new ConcurrentHashMap<>(Math.min(maximumSize, 1 << 16));
+        head.previous = head;
+        head.next = head;
+    }
+
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    /*the cached value for key, or the loader's value (cached from now on) when there is none*/
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Objects.requireNonNull(loader, "loader");
+        Object mapKey = key == null ? NULL_KEY : key;
+        Node<V> node = entries.get(mapKey);
+        if (node != null) {
+            hits.increment();
+            recordAccess(node);
+            return await(node);
+        }
+        Node<V> loading;
+        lock.lock();
+        try {
+            node = entries.get(mapKey);
+            if (node != null) {
+                hits.increment();
+                moveToFront(node);
+                loading = null;
+            } else {
+                misses.increment();
+                loading = new Node<>(mapKey);
+                entries.put(mapKey, loading);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (loading == null) {
+            return await(node);
+        }
+        return load(loading, key, loader);
+    }
+
+    /*the cached value or null, doesn't wait for a load in progress*/
+    public V getIfPresent(K key) {
+        Node<V> node = entries.get(key == null ? NULL_KEY : key);
+        if (node == null || !node.future.isDone() || node.future.isCompletedExceptionally()) {
+            return null;
+        }
+        hits.increment();
+        recordAccess(node);
+        return node.future.getNow(null);
+    }
+
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            Node<V> node = entries.remove(key == null ? NULL_KEY : key);
+            if (node != null) {
+                unlink(node);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+            while (head.next != head) {
+                unlink(head.next);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long size() {
+        return entries.size();
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size());
+    }
+
+    private V load(Node<V> node, K key, Function<? super K, ? extends V> loader) {
+        node.loadingThread = Thread.currentThread();
+        try {
+            V value = loader.apply(key);
+            node.future.complete(value);
+            admit(node);
+            return value;
+        } catch (Throwable e) {
+            // nothing is cached for a failed load, the next call tries again. Throwable: a sneakily thrown checked
+            // exception would otherwise leave the future incomplete and every later get() of the key waiting forever
+            lock.lock();
+            try {
+                if (entries.remove(node.key, node)) {
+                    unlink(node);
+                }
+            } finally {
+                lock.unlock();
+            }
+            node.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            node.loadingThread = null;
+        }
+    }
+
+    private static <V> V await(Node<V> node) {
+        if (!node.future.isDone() && node.loadingThread == Thread.currentThread()) {
+            // the loader asked for its own key, waiting would wait for ourselves forever
+            throw new IllegalStateException("recursive load of the same key: " + node.key);
+        }
+        try {
+            return node.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void recordAccess(Node<V> node) {
+        if (lock.tryLock()) {
+            try {
+                moveToFront(node);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void moveToFront(Node<V> node) {
+        if (node.linked() && head.next != node) {
+            unlink(node);
+            linkFirst(node);
+        }
+    }
+
+    private void linkFirst(Node<V> node) {
+        node.previous = head;
+        node.next = head.next;
+        head.next.previous = node;
+        head.next = node;
+        size++;
+    }
+
+    private void unlink(Node<V> node) {
+        if (!node.linked()) {
+            return;
+        }
+        node.previous.next = node.next;
+        node.next.previous = node.previous;
+        node.previous = null;
+        node.next = null;
+        size--;
+    }
+
+    /*a node joins the LRU list once its value is there, a loading entry can't be evicted (and loaded a second time)*/
+    private void admit(Node<V> node) {
+        lock.lock();
+        try {
+            if (entries.get(node.key) == node) { // not invalidated while loading
+                linkFirst(node);
+                evictOverflow();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evictOverflow() {
+        while (size > maximumSize) {
+            Node<V> eldest = head.previous;
+            unlink(eldest);
+            entries.remove(eldest.key, eldest);
+            evictions.increment();
+        }
+    }
+
+    /*an entry: the (possibly still loading) value plus its place in the LRU list, the links are guarded by the lock*/
+    private static final class Node<V> {
+        final Object key;
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        volatile Thread loadingThread;
+        Node<V> previous;
+        Node<V> next;
+
+        Node(Object key) {
+            this.key = key;
+        }
+
+        boolean linked() {
+            return previous != null;
+        }
+    }
+
+    public static final class Builder<K, V> {
+        private int maximumSize = 1024;
+
+        private Builder() {
+        }
+
+        /*entries kept before the least recently used ones get evicted*/
+        public Builder<K, V> maximumSize(int maximumSize) {
+            if (maximumSize < 1) {
+                throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        public BoundedCache<K, V> build() {
+            return new BoundedCache<>(this);
+        }
+    }
+}
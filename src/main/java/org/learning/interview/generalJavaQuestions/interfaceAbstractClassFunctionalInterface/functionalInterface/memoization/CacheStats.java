@@ -0,0 +1,25 @@
+package org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.functionalInterface.memoization;
+
+/*
+ * Snapshot of a BoundedCache's (or memoized supplier's) counters.
+ * hits      = calls answered from the cache, including calls that waited for another thread's load of the same key
+ * misses    = calls that ran the function (loads)
+ * evictions = entries dropped to stay within the maximum size (or expired, for a memoized supplier)
+ * size      = entries currently held
+ * */
+public record CacheStats(long hits, long misses, long evictions, long size) {
+
+    public long requests() {
+        return hits + misses;
+    }
+
+    public double hitRate() {
+        return requests() == 0 ? 0 : (double) hits / requests();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheStats{hits=%d, misses=%d, hitRate=%.2f%%, evictions=%d, size=%d}",
+                hits, misses, hitRate() * 100, evictions, size);
+    }
+}
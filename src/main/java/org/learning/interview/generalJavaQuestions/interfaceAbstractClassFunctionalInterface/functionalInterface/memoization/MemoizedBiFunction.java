@@ -0,0 +1,35 @@
+package org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.functionalInterface.memoization;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/*a BiFunction that computes every pair of arguments once (while it stays in the cache), see Memoizers.memoize*/
+public final class MemoizedBiFunction<T, U, R> implements BiFunction<T, U, R> {
+
+    private final BiFunction<? super T, ? super U, ? extends R> function;
+    private final BoundedCache<Arguments<T, U>, R> cache;
+    private final Function<Arguments<T, U>, R> loader;
+
+    MemoizedBiFunction(BiFunction<? super T, ? super U, ? extends R> function, int maximumSize) {
+        this.function = function;
+        this.cache = BoundedCache.<Arguments<T, U>, R>builder().maximumSize(maximumSize).build();
+        this.loader = arguments -> this.function.apply(arguments.first(), arguments.second());
+    }
+
+    @Override
+    public R apply(T first, U second) {
+        return cache.get(new Arguments<>(first, second), loader);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /*the cache key, a record so equals/hashCode cover both arguments (nulls included)*/
+    private record Arguments<T, U>(T first, U second) {
+    }
+}
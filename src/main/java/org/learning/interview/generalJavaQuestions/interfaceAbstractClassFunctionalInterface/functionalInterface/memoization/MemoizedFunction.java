@@ -0,0 +1,29 @@
+package org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.functionalInterface.memoization;
+
+import java.util.function.Function;
+
+/*a Function that computes every argument once (while it stays in the cache), see Memoizers.memoize*/
+public final class MemoizedFunction<T, R> implements Function<T, R> {
+
+    private final Function<? super T, ? extends R> function;
+    private final BoundedCache<T, R> cache;
+
+    MemoizedFunction(Function<? super T, ? extends R> function, int maximumSize) {
+        this.function = function;
+        this.cache = BoundedCache.<T, R>builder().maximumSize(maximumSize).build();
+    }
+
+    @Override
+    public R apply(T argument) {
+        return cache.get(argument, function);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /*forget every result, eg: after the data behind the function changed*/
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
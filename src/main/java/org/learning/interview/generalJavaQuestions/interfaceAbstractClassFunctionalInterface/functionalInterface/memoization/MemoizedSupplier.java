@@ -0,0 +1,70 @@
+package org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.functionalInterface.memoization;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/*
+ * A Supplier that keeps its value for a time to live, see Memoizers.memoizeWithExpiry.
+ * Reading a fresh value is one volatile read. When it expired, one caller recomputes it (holding the lock)
+ * and the callers arriving meanwhile wait for that value instead of calling the supplier too.
+ * */
+public final class MemoizedSupplier<T> implements Supplier<T> {
+
+    private final Supplier<? extends T> supplier;
+    private final long timeToLiveNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Holder<T> holder;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    MemoizedSupplier(Supplier<? extends T> supplier, Duration timeToLive) {
+        this.supplier = supplier;
+        this.timeToLiveNanos = timeToLive.toNanos();
+    }
+
+    @Override
+    public T get() {
+        Holder<T> current = holder;
+        if (current != null && isFresh(current)) {
+            hits.increment();
+            return current.value();
+        }
+        lock.lock();
+        try {
+            current = holder;
+            if (current != null && isFresh(current)) {
+                hits.increment();
+                return current.value();
+            }
+            if (current != null) {
+                expirations.increment();
+            }
+            misses.increment();
+            T value = supplier.get();
+            holder = new Holder<>(value, System.nanoTime() + timeToLiveNanos);
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), expirations.sum(), holder == null ? 0 : 1);
+    }
+
+    /*the next get() calls the supplier again*/
+    public void invalidate() {
+        holder = null;
+    }
+
+    /*nanoTime differences, not comparisons, so this stays correct when nanoTime wraps*/
+    private static boolean isFresh(Holder<?> holder) {
+        return System.nanoTime() - holder.expiresAtNanos() < 0;
+    }
+
+    private record Holder<T>(T value, long expiresAtNanos) {
+    }
+}
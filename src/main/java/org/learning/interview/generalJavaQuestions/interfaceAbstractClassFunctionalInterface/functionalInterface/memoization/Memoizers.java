@@ -0,0 +1,51 @@
+package org.learning.interview.generalJavaQuestions.interfaceAbstractClassFunctionalInterface.functionalInterface.memoization;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/*
+ * Wraps an expensive Function/BiFunction/Supplier so repeated calls return the remembered result instead of
+ * computing it again. The results live in a BoundedCache: at most maximumSize of them, the least recently used go first,
+ * concurrent calls with the same arguments compute once and stats() tells whether the memoization pays off.
+ * Only memoize pure functions, a cached result doesn't see later changes of the data behind it (see invalidateAll).
+ *
+ * usage:
+ * MemoizedFunction<Integer, Student> findStudent = Memoizers.memoize(repository::findById, 10_000);
+ * MemoizedBiFunction<String, Integer, Double> averageMarks = Memoizers.memoize((subject, year) -> expensiveAverage(subject, year));
+ * MemoizedSupplier<List<User>> activeUsers = Memoizers.memoizeWithExpiry(repository::activeUsers, Duration.ofSeconds(30));
+ * */
+public final class Memoizers {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    private Memoizers() {
+    }
+
+    public static <T, R> MemoizedFunction<T, R> memoize(Function<? super T, ? extends R> function) {
+        return memoize(function, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public static <T, R> MemoizedFunction<T, R> memoize(Function<? super T, ? extends R> function, int maximumSize) {
+        return new MemoizedFunction<>(Objects.requireNonNull(function, "function"), maximumSize);
+    }
+
+    public static <T, U, R> MemoizedBiFunction<T, U, R> memoize(BiFunction<? super T, ? super U, ? extends R> function) {
+        return memoize(function, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public static <T, U, R> MemoizedBiFunction<T, U, R> memoize(BiFunction<? super T, ? super U, ? extends R> function, int maximumSize) {
+        return new MemoizedBiFunction<>(Objects.requireNonNull(function, "function"), maximumSize);
+    }
+
+    /*the supplier is called again once the value is older than timeToLive*/
+    public static <T> MemoizedSupplier<T> memoizeWithExpiry(Supplier<? extends T> supplier, Duration timeToLive) {
+        Objects.requireNonNull(supplier, "supplier");
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("timeToLive must be positive: " + timeToLive);
+        }
+        return new MemoizedSupplier<>(supplier, timeToLive);
+    }
+}
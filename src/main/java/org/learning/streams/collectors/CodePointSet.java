@@ -0,0 +1,80 @@
+package org.learning.streams.collectors;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/*
+ * Set of unicode code points which remembers the order they were first added.
+ * Membership is a BitSet (one bit per code point) and the order is a growing int[],
+ * so adding a character never allocates a String like word.split("") + distinct() does.
+ * Not thread safe: parallel streams fill one set per fork and merge them with addAll.
+ * */
+public final class CodePointSet {
+
+    private final BitSet seen = new BitSet(128); /*ascii without growing*/
+    private int[] order = new int[16];
+    private int size;
+
+    public boolean add(int codePoint) {
+        if (seen.get(codePoint)) {
+            return false;
+        }
+        seen.set(codePoint);
+        if (size == order.length) {
+            order = Arrays.copyOf(order, size << 1);
+        }
+        order[size++] = codePoint;
+        return true;
+    }
+
+    /*adds every code point of the text, surrogate pairs are decoded so emojis count as one*/
+    public CodePointSet addAll(CharSequence text) {
+        int length = text.length();
+        for (int i = 0; i < length; ) {
+            int codePoint = Character.codePointAt(text, i);
+            add(codePoint);
+            i += Character.charCount(codePoint);
+        }
+        return this;
+    }
+
+    /*
+     * merges the other set after this one: used as the combiner so the result keeps the
+     * first occurrence order of a sequential run (left fork is always earlier in the stream)
+     * */
+    public CodePointSet addAll(CodePointSet other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.order[i]);
+        }
+        return this;
+    }
+
+    public boolean contains(int codePoint) {
+        return codePoint >= 0 && seen.get(codePoint);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(order, size);
+    }
+
+    /*same shape as the split("") version: one single character String per code point*/
+    public List<String> toStringList() {
+        List<String> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(Character.toString(order[i]));
+        }
+        return list;
+    }
+
+    /*the distinct code points concatenated in first seen order eg: "SiduRajV"*/
+    @Override
+    public String toString() {
+        return new String(order, 0, size);
+    }
+}
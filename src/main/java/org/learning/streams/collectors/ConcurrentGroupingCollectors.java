@@ -0,0 +1,177 @@
+package org.learning.streams.collectors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/*
+ * groupingBy(classifier, counting()/summingLong()/first N) for parallel streams without the merge step.
+ *
+ * groupingBy gives every fork of a parallel stream its own HashMap and merges two maps at every join, so with many
+ * distinct keys most of the time goes into merging maps serially. groupingByConcurrent shares one ConcurrentHashMap
+ * but updates a count with map.merge(key, 1L, Long::sum): a lock on the key's bin and a new Long on every element,
+ * so threads hitting the same (hot) key wait on each other.
+ *
+ * These collectors are CONCURRENT: all threads accumulate into one ConcurrentHashMap of cells.
+ * - a key's cell is created once with computeIfAbsent, after that get() finds it without any lock
+ * - the cell itself is striped: LongAdder/DoubleAdder cells give each contending thread its own counter,
+ *   the first N cell claims a slot with one atomic increment
+ * - nothing is merged, the finisher copies the cells once into a plain HashMap
+ * The table grows by ConcurrentHashMap's cooperative resize, presize it with expectedKeys when the cardinality is known.
+ *
+ * Like groupingByConcurrent the result is unordered (firstN keeps any N of a key's elements, not the first N in
+ * encounter order) and the classifier can't return null. A sequential stream works too but gains nothing.
+ *
+ * usage:
+ * Map<String, Long> hitsPerUrl     = requests.parallelStream().collect(ConcurrentGroupingCollectors.counting(Request::url));
+ * Map<String, Long> bytesPerUrl    = requests.parallelStream().collect(ConcurrentGroupingCollectors.summingLong(Request::url, Request::bytes));
+ * Map<String, List<Request>> some  = requests.parallelStream().collect(ConcurrentGroupingCollectors.firstN(Request::url, 3));
+ * */
+public final class ConcurrentGroupingCollectors {
+
+    private static final int DEFAULT_EXPECTED_KEYS = 16;
+
+    private ConcurrentGroupingCollectors() {
+    }
+
+    public static <T, K> Collector<T, ?, Map<K, Long>> counting(Function<? super T, ? extends K> classifier) {
+        return counting(classifier, DEFAULT_EXPECTED_KEYS);
+    }
+
+    public static <T, K> Collector<T, ?, Map<K, Long>> counting(Function<? super T, ? extends K> classifier, int expectedKeys) {
+        return summingLong(classifier, element -> 1L, expectedKeys);
+    }
+
+    public static <T, K> Collector<T, ?, Map<K, Long>> summingLong(Function<? super T, ? extends K> classifier,
+                                                                   ToLongFunction<? super T> mapper) {
+        return summingLong(classifier, mapper, DEFAULT_EXPECTED_KEYS);
+    }
+
+    public static <T, K> Collector<T, ?, Map<K, Long>> summingLong(Function<? super T, ? extends K> classifier,
+                                                                   ToLongFunction<? super T> mapper, int expectedKeys) {
+        Objects.requireNonNull(mapper, "mapper");
+        return grouping(classifier, expectedKeys, LongAdder::new,
+                (cell, element) -> cell.add(mapper.applyAsLong(element)),
+                ConcurrentGroupingCollectors::addLongs,
+                LongAdder::sum);
+    }
+
+    public static <T, K> Collector<T, ?, Map<K, Double>> summingDouble(Function<? super T, ? extends K> classifier,
+                                                                       ToDoubleFunction<? super T> mapper) {
+        return summingDouble(classifier, mapper, DEFAULT_EXPECTED_KEYS);
+    }
+
+    /*DoubleAdder sums in a thread dependent order, so the last bits can differ from run to run*/
+    public static <T, K> Collector<T, ?, Map<K, Double>> summingDouble(Function<? super T, ? extends K> classifier,
+                                                                       ToDoubleFunction<? super T> mapper, int expectedKeys) {
+        Objects.requireNonNull(mapper, "mapper");
+        return grouping(classifier, expectedKeys, DoubleAdder::new,
+                (cell, element) -> cell.add(mapper.applyAsDouble(element)),
+                ConcurrentGroupingCollectors::addDoubles,
+                DoubleAdder::sum);
+    }
+
+    /*at most limit elements per key, eg: a few examples of every error code without keeping all of them*/
+    public static <T, K> Collector<T, ?, Map<K, List<T>>> firstN(Function<? super T, ? extends K> classifier, int limit) {
+        return firstN(classifier, limit, DEFAULT_EXPECTED_KEYS);
+    }
+
+    public static <T, K> Collector<T, ?, Map<K, List<T>>> firstN(Function<? super T, ? extends K> classifier, int limit,
+                                                                 int expectedKeys) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive: " + limit);
+        }
+        return grouping(classifier, expectedKeys, () -> new BoundedCell<T>(limit), BoundedCell::offer, BoundedCell::addAll, BoundedCell::toList);
+    }
+
+    private static <T, K, C, V> Collector<T, ?, Map<K, V>> grouping(Function<? super T, ? extends K> classifier, int expectedKeys,
+                                                                    Supplier<C> cellFactory, BiConsumer<C, ? super T> accumulator,
+                                                                    BinaryOperator<C> cellCombiner, Function<C, V> finisher) {
+        Objects.requireNonNull(classifier, "classifier");
+        if (expectedKeys < 0) {
+            throw new IllegalArgumentException("expectedKeys can't be negative: " + expectedKeys);
+        }
+        return Collector.<T, ConcurrentHashMap<K, C>, Map<K, V>>of(
+                () -> new ConcurrentHashMap<>(expectedKeys),
+                (table, element) -> {
+                    K key = Objects.requireNonNull(classifier.apply(element), "element cannot be mapped to a null key");
+                    C cell = table.get(key);
+                    if (cell == null) {
+                        cell = table.computeIfAbsent(key, newKey -> cellFactory.get());
+                    }
+                    accumulator.accept(cell, element);
+                },
+                (left, right) -> {
+                    // a parallel stream never calls this (one shared table), only a caller that collects into two
+                    right.forEach((key, cell) -> left.merge(key, cell, cellCombiner));
+                    return left;
+                },
+                table -> {
+                    Map<K, V> result = HashMap.newHashMap(table.size());
+                    table.forEach((key, cell) -> result.put(key, finisher.apply(cell)));
+                    return result;
+                },
+                Collector.Characteristics.CONCURRENT,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    private static LongAdder addLongs(LongAdder cell, LongAdder other) {
+        cell.add(other.sum());
+        return cell;
+    }
+
+    private static DoubleAdder addDoubles(DoubleAdder cell, DoubleAdder other) {
+        cell.add(other.sum());
+        return cell;
+    }
+
+    /*limit slots claimed with getAndIncrement, once they are taken an offer only reads the claimed count*/
+    private static final class BoundedCell<T> {
+        private final AtomicInteger claimed = new AtomicInteger();
+        private final AtomicReferenceArray<T> slots;
+
+        BoundedCell(int limit) {
+            this.slots = new AtomicReferenceArray<>(limit);
+        }
+
+        void offer(T element) {
+            if (claimed.get() >= slots.length()) {
+                return; // full: no write, so a hot key doesn't keep bouncing the counter between cores
+            }
+            int slot = claimed.getAndIncrement();
+            if (slot < slots.length()) {
+                slots.set(slot, element);
+            }
+        }
+
+        BoundedCell<T> addAll(BoundedCell<T> other) {
+            other.toList().forEach(this::offer);
+            return this;
+        }
+
+        /*called by the finisher after all accumulation finished, so every claimed slot is filled*/
+        List<T> toList() {
+            int size = Math.min(claimed.get(), slots.length());
+            List<T> elements = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                elements.add(slots.get(i));
+            }
+            return Collections.unmodifiableList(elements);
+        }
+    }
+}
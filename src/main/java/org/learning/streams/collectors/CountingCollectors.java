@@ -0,0 +1,47 @@
+package org.learning.streams.collectors;
+
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+
+/*
+ * Primitive replacements for Collectors.groupingBy(x -> x, Collectors.counting()).
+ * The result is an IntLongMap so counting allocates nothing per element (only when the table grows).
+ * For parallel streams every fork gets its own map from the supplier and the maps are merged with addAll.
+ *
+ * usage:
+ * IntLongMap counts = CountingCollectors.counting(IntStream.of(1, 2, 2));         // {1=1, 2=2}
+ * IntLongMap counts = integers.stream().collect(CountingCollectors.countingInts());
+ * IntLongMap byAge  = students.stream().collect(CountingCollectors.countingBy(Student::age));
+ * Map<Integer, Long> compatible = counts.toMap();
+ * */
+public final class CountingCollectors {
+
+    private CountingCollectors() {
+    }
+
+    /*IntStream has no Collector support so the three collect functions are passed directly*/
+    public static IntLongMap counting(IntStream stream) {
+        return stream.collect(IntLongMap::new, IntLongMap::increment, IntLongMap::addAll);
+    }
+
+    /*same as above but presizes the table when the number of distinct keys is roughly known*/
+    public static IntLongMap counting(IntStream stream, int expectedDistinctKeys) {
+        return stream.collect(() -> new IntLongMap(expectedDistinctKeys), IntLongMap::increment, IntLongMap::addAll);
+    }
+
+    /*for Stream<Integer>: the element is unboxed but no Integer/Long is created for the count*/
+    public static Collector<Integer, ?, IntLongMap> countingInts() {
+        return countingBy(Integer::intValue);
+    }
+
+    /*counts the elements per int key extracted from each element eg: students per age*/
+    public static <T> Collector<T, ?, IntLongMap> countingBy(ToIntFunction<? super T> keyMapper) {
+        return Collector.of(
+                IntLongMap::new,
+                (map, element) -> map.increment(keyMapper.applyAsInt(element)),
+                IntLongMap::addAll,
+                Collector.Characteristics.UNORDERED,
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+}
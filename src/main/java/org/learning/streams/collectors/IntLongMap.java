@@ -0,0 +1,309 @@
+package org.learning.streams.collectors;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/*
+ * Open addressing (linear probing) hash map from int keys to long values.
+ * Keys and values sit in two parallel primitive arrays so counting never boxes and
+ * only the resize allocates, unlike HashMap<Integer, Long> which allocates a node, an Integer and a Long per key.
+ * Key 0 marks an empty slot so the real key 0 is kept in its own field.
+ * Not thread safe: in parallel streams each thread fills its own map and they are merged with addAll.
+ * */
+public final class IntLongMap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int EMPTY = 0;
+
+    private int[] keys;
+    private long[] values;
+    private int mask;
+    private int shift;
+    private int size;
+    private int resizeAt;
+
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    public IntLongMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntLongMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must be >= 0 but was " + expectedSize);
+        }
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /*adds 1 to the count of the key, the method used by the counting collectors*/
+    public void increment(int key) {
+        addTo(key, 1L);
+    }
+
+    /*adds delta to the value of the key (missing keys start at 0) and returns the new value*/
+    public long addTo(int key, long delta) {
+        if (key == EMPTY) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            return zeroValue += delta;
+        }
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return values[slot] += delta;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size > resizeAt) {
+            resize();
+        }
+        return delta;
+    }
+
+    public void put(int key, long value) {
+        if (key == EMPTY) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            resize();
+        }
+    }
+
+    /*returns the value of the key or 0 when it is not present (the natural default for counts)*/
+    public long get(int key) {
+        return getOrDefault(key, 0L);
+    }
+
+    public long getOrDefault(int key, long defaultValue) {
+        if (key == EMPTY) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return defaultValue;
+    }
+
+    public boolean containsKey(int key) {
+        if (key == EMPTY) {
+            return hasZeroKey;
+        }
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /*adds every value of the other map into this one, used as the combiner for parallel streams*/
+    public IntLongMap addAll(IntLongMap other) {
+        if (other.hasZeroKey) {
+            addTo(EMPTY, other.zeroValue);
+        }
+        int[] otherKeys = other.keys;
+        long[] otherValues = other.values;
+        for (int i = 0; i < otherKeys.length; i++) {
+            if (otherKeys[i] != EMPTY) {
+                addTo(otherKeys[i], otherValues[i]);
+            }
+        }
+        return this;
+    }
+
+    public void forEach(IntLongConsumer action) {
+        if (hasZeroKey) {
+            action.accept(EMPTY, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /*
+     * read only Map view over this map for code that still expects Map<Integer, Long>.
+     * Nothing is copied, but every get/entry boxes so use it at the edges only.
+     * */
+    public Map<Integer, Long> toMap() {
+        return new MapView();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IntLongMap other) || other.size != size) {
+            return false;
+        }
+        if (hasZeroKey && (!other.hasZeroKey || other.zeroValue != zeroValue)) {
+            return false;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY && (!other.containsKey(keys[i]) || other.get(keys[i]) != values[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*same contract as Map.hashCode so it matches toMap().hashCode()*/
+    @Override
+    public int hashCode() {
+        int hash = hasZeroKey ? Long.hashCode(zeroValue) : 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                hash += keys[i] ^ Long.hashCode(values[i]);
+            }
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    private int slot(int key) {
+        /*fibonacci hashing spreads sequential keys over the whole table*/
+        return (key * 0x9E3779B9) >>> shift;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != EMPTY) {
+                int slot = slot(key);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        shift = Integer.SIZE - Integer.numberOfTrailingZeros(capacity);
+        resizeAt = capacity / 2; /*load factor 0.5 keeps the linear probe chains short*/
+    }
+
+    /*smallest power of two which keeps expectedSize under the 0.5 load factor*/
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 1) * 2 - 1) << 1;
+        return Math.max(capacity, DEFAULT_CAPACITY);
+    }
+
+    @FunctionalInterface
+    public interface IntLongConsumer {
+        void accept(int key, long value);
+    }
+
+    private final class MapView extends AbstractMap<Integer, Long> {
+        @Override
+        public Long get(Object key) {
+            return key instanceof Integer intKey && IntLongMap.this.containsKey(intKey) ? IntLongMap.this.get(intKey) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Integer intKey && IntLongMap.this.containsKey(intKey);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Set<Entry<Integer, Long>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Integer, Long>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<Integer, Long>> {
+        /*-1 is the zero key, 0..keys.length-1 are table slots*/
+        private int next = hasZeroKey ? -1 : advance(0);
+
+        @Override
+        public boolean hasNext() {
+            return next < keys.length;
+        }
+
+        @Override
+        public Map.Entry<Integer, Long> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<Integer, Long> entry = next == -1
+                    ? Map.entry(EMPTY, zeroValue)
+                    : Map.entry(keys[next], values[next]);
+            next = advance(next + 1);
+            return entry;
+        }
+
+        private int advance(int from) {
+            int slot = from;
+            while (slot < keys.length && keys[slot] == EMPTY) {
+                slot++;
+            }
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package org.learning.streams.collectors;
+
+/*
+ * Fixed precision quantile sketch (log-linear histogram, the HdrHistogram/DDSketch idea) for p50/p99/p999
+ * without keeping or sorting the values.
+ *
+ * Every value goes into a bucket picked from its IEEE 754 bits: the exponent plus the top 7 mantissa bits.
+ * So every power of two range [2^e, 2^(e+1)) is cut into 128 equal buckets, a bucket is at most 1/128 of its
+ * lower bound wide and quantile(q) returns the middle of the bucket holding the rank.
+ *
+ * Error bound: quantile(q) is within RELATIVE_ERROR (2^-8 = 0.39%) of the exact value sorted[ceil(q * count) - 1]
+ * (nearest rank), for every q and any distribution of normal doubles (|x| >= 2.2e-308), clamped to the exact min/max.
+ * eg: exact p99 = 120 ms -> the sketch says 119.53..120.47 ms
+ * (testClasses/TestStreamingStatistics checks this against a full sort on several distributions, negatives included).
+ *
+ * Memory doesn't depend on the count, only on the range: 128 buckets (8 bytes each) per doubling between the smallest
+ * and the largest magnitude, eg: 1 ns .. 1 hour = 42 doublings = ~5.4K buckets = ~43 KB. Two sketches merge by adding
+ * their bucket counts, so parallel stream forks each fill their own sketch.
+ *
+ * Negative values use their own mirrored buckets, NaN and infinities are rejected.
+ * */
+public final class QuantileSketch {
+
+    public static final int PRECISION_BITS = 7;
+    public static final double RELATIVE_ERROR = 1.0 / (1 << (PRECISION_BITS + 1));
+
+    private static final int MANTISSA_SHIFT = 52 - PRECISION_BITS;
+
+    private final Buckets positive = new Buckets();
+    private final Buckets negative = new Buckets();
+    private long zeros;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public void add(double value) {
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("only finite values can be added: " + value);
+        }
+        if (value > 0) {
+            positive.increment(index(value));
+        } else if (value < 0) {
+            negative.increment(index(-value));
+        } else {
+            zeros++;
+        }
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /*adds the other sketch's counts to this one, the other one is unchanged*/
+    public void merge(QuantileSketch other) {
+        positive.addAll(other.positive);
+        negative.addAll(other.negative);
+        zeros += other.zeros;
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /*q in [0, 1] eg: 0.99 for p99, NaN when nothing was added*/
+    public double quantile(double q) {
+        if (q < 0 || q > 1 || Double.isNaN(q)) {
+            throw new IllegalArgumentException("quantile must be in [0, 1]: " + q);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        double estimate;
+        if (rank <= negative.total) {
+            // most negative first: walk the mirrored buckets from the largest magnitude down
+            estimate = -negative.valueAtRankFromTop(rank);
+        } else if (rank <= negative.total + zeros) {
+            estimate = 0;
+        } else {
+            estimate = positive.valueAtRank(rank - negative.total - zeros);
+        }
+        return Math.min(max, Math.max(min, estimate));
+    }
+
+    /*number of buckets currently allocated, a measure of the memory used*/
+    public int buckets() {
+        return positive.counts.length + negative.counts.length;
+    }
+
+    private static int index(double magnitude) {
+        return (int) (Double.doubleToRawLongBits(magnitude) >>> MANTISSA_SHIFT);
+    }
+
+    /*middle of the bucket: its lower bound plus half its width*/
+    private static double midpoint(int index) {
+        double lower = Double.longBitsToDouble((long) index << MANTISSA_SHIFT);
+        double upper = Double.longBitsToDouble((long) (index + 1) << MANTISSA_SHIFT);
+        return lower + (upper - lower) / 2;
+    }
+
+    /*dense counts for the bucket indexes [offset, offset + counts.length), grown on both ends when needed*/
+    private static final class Buckets {
+        private long[] counts = new long[0];
+        private int offset;
+        private long total;
+
+        void increment(int index) {
+            ensureCovers(index, index);
+            counts[index - offset]++;
+            total++;
+        }
+
+        void addAll(Buckets other) {
+            if (other.total == 0) {
+                return;
+            }
+            ensureCovers(other.offset, other.offset + other.counts.length - 1);
+            for (int i = 0; i < other.counts.length; i++) {
+                counts[other.offset - offset + i] += other.counts[i];
+            }
+            total += other.total;
+        }
+
+        double valueAtRank(long rank) {
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return midpoint(offset + i);
+                }
+            }
+            throw new IllegalStateException("rank " + rank + " is larger than the count " + total);
+        }
+
+        double valueAtRankFromTop(long rank) {
+            long seen = 0;
+            for (int i = counts.length - 1; i >= 0; i--) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return midpoint(offset + i);
+                }
+            }
+            throw new IllegalStateException("rank " + rank + " is larger than the count " + total);
+        }
+
+        private void ensureCovers(int low, int high) {
+            if (counts.length == 0) {
+                counts = new long[Math.max(1 << PRECISION_BITS, high - low + 1)];
+                offset = low;
+                return;
+            }
+            int end = offset + counts.length;
+            if (low >= offset && high < end) {
+                return;
+            }
+            // at least doubles so a slowly widening range doesn't copy on every new bucket, the room goes to the side that grew
+            int newOffset = Math.min(offset, low);
+            int newEnd = Math.max(end, high + 1);
+            int length = Math.max(newEnd - newOffset, counts.length * 2);
+            if (low < offset) {
+                newOffset = Math.max(0, newEnd - length);
+            }
+            long[] grown = new long[length];
+            System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+            counts = grown;
+            offset = newOffset;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return count == 0 ? "QuantileSketch{count=0}"
+                : String.format("QuantileSketch{count=%d, p50=%s, p99=%s, p999=%s, buckets=%d}",
+                count, quantile(0.5), quantile(0.99), quantile(0.999), buckets());
+    }
+}
@@ -0,0 +1,66 @@
+package org.learning.streams.collectors;
+
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/*
+ * StreamingStatistics as collectors, the quantile/stddev versions of summarizingInt/summaryStatistics().
+ * Every fork of a parallel stream fills its own StreamingStatistics and they are merged with combine.
+ *
+ * usage:
+ * StreamingStatistics latency = StatisticsCollectors.summarize(IntStream.of(12, 15, 11, 240));
+ * StreamingStatistics ages    = students.stream().collect(StatisticsCollectors.intStatistics(Student::age));
+ * */
+public final class StatisticsCollectors {
+
+    private StatisticsCollectors() {
+    }
+
+    /*primitive streams have no Collector support so the three collect functions are passed directly*/
+    public static StreamingStatistics summarize(IntStream stream) {
+        return stream.collect(StreamingStatistics::new, StreamingStatistics::acceptInt, StreamingStatistics::combine);
+    }
+
+    public static StreamingStatistics summarize(LongStream stream) {
+        return stream.collect(StreamingStatistics::new, StreamingStatistics::acceptLong, StreamingStatistics::combine);
+    }
+
+    public static StreamingStatistics summarize(DoubleStream stream) {
+        return stream.collect(StreamingStatistics::new, StreamingStatistics::acceptDouble, StreamingStatistics::combine);
+    }
+
+    public static <T> Collector<T, ?, StreamingStatistics> intStatistics(ToIntFunction<? super T> mapper) {
+        return Collector.of(
+                StreamingStatistics::new,
+                (statistics, element) -> statistics.acceptInt(mapper.applyAsInt(element)),
+                (left, right) -> {
+                    left.combine(right);
+                    return left;
+                });
+    }
+
+    public static <T> Collector<T, ?, StreamingStatistics> longStatistics(ToLongFunction<? super T> mapper) {
+        return Collector.of(
+                StreamingStatistics::new,
+                (statistics, element) -> statistics.acceptLong(mapper.applyAsLong(element)),
+                (left, right) -> {
+                    left.combine(right);
+                    return left;
+                });
+    }
+
+    public static <T> Collector<T, ?, StreamingStatistics> doubleStatistics(ToDoubleFunction<? super T> mapper) {
+        return Collector.of(
+                StreamingStatistics::new,
+                (statistics, element) -> statistics.acceptDouble(mapper.applyAsDouble(element)),
+                (left, right) -> {
+                    left.combine(right);
+                    return left;
+                });
+    }
+}
@@ -0,0 +1,196 @@
+package org.learning.streams.collectors;
+
+/*
+ * IntSummaryStatistics plus variance, standard deviation and quantiles (p50/p99/p999) in one pass and fixed memory.
+ *
+ * - count/sum/min/max/average like the JDK summary statistics: int/long values keep an exact long sum, min and max like
+ *   LongSummaryStatistics (getLongSum/getLongMin/getLongMax, right above 2^53 too, eg: epoch nanos), double values a Kahan
+ *   compensated sum like DoubleSummaryStatistics. A mix of both adds the two parts up in getSum()
+ * - variance with Welford's update (no sum of squares, which loses all precision when the values are large and close
+ *   together), two partial results combine with Chan's formula, so parallel forks merge exactly
+ * - quantiles from a QuantileSketch: within QuantileSketch.RELATIVE_ERROR (0.39%) of the exact nearest rank value
+ * - unlike DoubleSummaryStatistics, NaN and infinite values are rejected with IllegalArgumentException (the sketch has
+ *   no bucket for them), so summarize(DoubleStream) throws where summaryStatistics() would return NaN/Infinity
+ *
+ * usage:
+ * StreamingStatistics latency = StatisticsCollectors.summarize(latenciesMillis.parallel());
+ * latency.getQuantile(0.99);  latency.getStandardDeviation();
+ * StreamingStatistics byAge = students.stream().collect(StatisticsCollectors.intStatistics(Student::age));
+ *
+ * The accept methods have a type in their name instead of being accept(int)/accept(long)/accept(double) overloads of
+ * IntConsumer, LongConsumer and DoubleConsumer together: with all three, StreamingStatistics::accept and andThen were
+ * ambiguous for callers. intStream.forEach(statistics::acceptInt) picks the right one.
+ * */
+public final class StreamingStatistics {
+
+    private long count;
+    /*the int/long values, exact*/
+    private long longCount;
+    private long longSum;
+    private long longMin = Long.MAX_VALUE;
+    private long longMax = Long.MIN_VALUE;
+    /*the double values*/
+    private double sum;
+    private double sumCompensation;
+    private double mean;
+    /*sum of squared differences from the mean*/
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private final QuantileSketch sketch = new QuantileSketch();
+
+    public void acceptInt(int value) {
+        acceptLong(value);
+    }
+
+    public void acceptLong(long value) {
+        longCount++;
+        longSum += value;
+        longMin = Math.min(longMin, value);
+        longMax = Math.max(longMax, value);
+        addToMoments(value);
+    }
+
+    /*rejects NaN and infinities before anything is updated, a caught exception leaves the statistics as they were*/
+    public void acceptDouble(double value) {
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("only finite values can be accepted: " + value);
+        }
+        addToSum(value);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        addToMoments(value);
+    }
+
+    /*count, Welford's mean/m2 and the sketch, the only places a long value is rounded to a double*/
+    private void addToMoments(double value) {
+        sketch.add(value);
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    /*merges the other statistics into this one (the combiner for parallel streams)*/
+    public void combine(StreamingStatistics other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            mean = other.mean;
+            m2 = other.m2;
+        } else {
+            long total = count + other.count;
+            double delta = other.mean - mean;
+            m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+            mean += delta * other.count / total;
+        }
+        count += other.count;
+        longCount += other.longCount;
+        longSum += other.longSum;
+        longMin = Math.min(longMin, other.longMin);
+        longMax = Math.max(longMax, other.longMax);
+        addToSum(other.sum);
+        addToSum(-other.sumCompensation);
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sketch.merge(other.sketch);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return longCount == count ? longSum : longSum + (sum - sumCompensation);
+    }
+
+    public double getMin() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        return longCount == 0 ? min : Math.min(min, longMin);
+    }
+
+    public double getMax() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        return longCount == 0 ? max : Math.max(max, longMax);
+    }
+
+    /*exact sum when only int/long values were accepted, wraps on overflow like LongSummaryStatistics*/
+    public long getLongSum() {
+        checkOnlyLongs();
+        return longSum;
+    }
+
+    /*exact minimum of the int/long values, Long.MAX_VALUE when there are none (like LongSummaryStatistics)*/
+    public long getLongMin() {
+        checkOnlyLongs();
+        return longMin;
+    }
+
+    /*exact maximum of the int/long values, Long.MIN_VALUE when there are none*/
+    public long getLongMax() {
+        checkOnlyLongs();
+        return longMax;
+    }
+
+    private void checkOnlyLongs() {
+        if (longCount != count) {
+            throw new IllegalStateException("double values were accepted, use getSum()/getMin()/getMax()");
+        }
+    }
+
+    public double getAverage() {
+        return count == 0 ? 0 : mean;
+    }
+
+    /*population variance (divides by n)*/
+    public double getVariance() {
+        return count == 0 ? 0 : m2 / count;
+    }
+
+    /*sample variance (divides by n - 1)*/
+    public double getSampleVariance() {
+        return count < 2 ? 0 : m2 / (count - 1);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /*q in [0, 1], eg: 0.99 for p99*/
+    public double getQuantile(double q) {
+        return sketch.quantile(q);
+    }
+
+    public double getMedian() {
+        return getQuantile(0.5);
+    }
+
+    public QuantileSketch getSketch() {
+        return sketch;
+    }
+
+    /*Kahan summation, same as DoubleSummaryStatistics*/
+    private void addToSum(double value) {
+        double corrected = value - sumCompensation;
+        double newSum = sum + corrected;
+        sumCompensation = (newSum - sum) - corrected;
+        sum = newSum;
+    }
+
+    @Override
+    public String toString() {
+        if (longCount == count && count > 0) {
+            return String.format("StreamingStatistics{count=%d, sum=%d, min=%d, average=%f, max=%d, stddev=%f, p50=%f, p99=%f, p999=%f}",
+                    count, longSum, longMin, getAverage(), longMax, getStandardDeviation(),
+                    getQuantile(0.5), getQuantile(0.99), getQuantile(0.999));
+        }
+        return String.format("StreamingStatistics{count=%d, sum=%f, min=%f, average=%f, max=%f, stddev=%f, p50=%f, p99=%f, p999=%f}",
+                count, getSum(), getMin(), getAverage(), getMax(), getStandardDeviation(),
+                getQuantile(0.5), getQuantile(0.99), getQuantile(0.999));
+    }
+}
@@ -0,0 +1,144 @@
+package org.learning.streams.collectors;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Spliterator;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/*
+ * Collectors for text which avoid the extra copies of the usual stream examples:
+ * - reduce("", (a, b) -> a + b + ",") copies the whole result on every element (O(n^2) chars)
+ * - split("") + flatMap + distinct() creates one String per character and a HashSet<String>
+ *
+ * usage:
+ * String joined = TextCollectors.join(names, ",");                               // "Siddu,Raju,Viju"
+ * String joined = names.stream().collect(TextCollectors.joining(","));
+ * CodePointSet letters = names.stream().collect(TextCollectors.distinctCodePoints()); // "SiduRajV"
+ * */
+public final class TextCollectors {
+
+    private TextCollectors() {
+    }
+
+    /*
+     * joins with the delimiter: the parts are only referenced while collecting and the final
+     * StringBuilder is created with the exact length so the characters are copied once.
+     * Parallel forks collect their own parts and are concatenated in encounter order.
+     * */
+    public static Collector<CharSequence, ?, String> joining(CharSequence delimiter) {
+        return joining(delimiter, Parts.DEFAULT_CAPACITY);
+    }
+
+    private static Collector<CharSequence, ?, String> joining(CharSequence delimiter, int expectedParts) {
+        String separator = delimiter.toString();
+        return Collector.of(
+                () -> new Parts(expectedParts),
+                Parts::add,
+                Parts::addAll,
+                parts -> parts.join(separator));
+    }
+
+    /*
+     * joins a stream and presizes the parts array when the stream is SIZED (lists, arrays, map on them...)
+     * so the buffer never grows; unsized streams fall back to the growing array.
+     * */
+    public static String join(Stream<? extends CharSequence> stream, CharSequence delimiter) {
+        Spliterator<? extends CharSequence> spliterator = stream.spliterator();
+        long exactSize = spliterator.getExactSizeIfKnown();
+        int expectedParts = exactSize >= 0 && exactSize <= Integer.MAX_VALUE - 8 ? (int) exactSize : Parts.DEFAULT_CAPACITY;
+        /*parallel forks only see a part of the stream so they start small*/
+        if (stream.isParallel()) {
+            expectedParts = Parts.DEFAULT_CAPACITY;
+        }
+        return StreamSupport.stream(spliterator, stream.isParallel())
+                .collect(joining(delimiter, expectedParts));
+    }
+
+    /*collections know their elements so the exact char count is summed first and copied in a single pass*/
+    public static String join(Collection<? extends CharSequence> parts, CharSequence delimiter) {
+        if (parts.isEmpty()) {
+            return "";
+        }
+        long length = (long) delimiter.length() * (parts.size() - 1);
+        for (CharSequence part : parts) {
+            length += part.length();
+        }
+        StringBuilder builder = new StringBuilder(checkedLength(length));
+        boolean first = true;
+        for (CharSequence part : parts) {
+            if (!first) {
+                builder.append(delimiter);
+            }
+            builder.append(part);
+            first = false;
+        }
+        return builder.toString();
+    }
+
+    /*distinct code points of all the texts in first occurrence order, backed by a bit set*/
+    public static Collector<CharSequence, ?, CodePointSet> distinctCodePoints() {
+        return Collector.of(
+                CodePointSet::new,
+                CodePointSet::addAll,
+                CodePointSet::addAll,
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    /*for a stream of code points/chars eg: word.codePoints() or "text".chars()*/
+    public static CodePointSet distinctCodePoints(IntStream codePoints) {
+        return codePoints.collect(CodePointSet::new, CodePointSet::add, CodePointSet::addAll);
+    }
+
+    private static int checkedLength(long length) {
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new OutOfMemoryError("joined text would have " + length + " chars");
+        }
+        return (int) length;
+    }
+
+    /*the elements collected by one fork in encounter order with their total char count*/
+    private static final class Parts {
+        private static final int DEFAULT_CAPACITY = 16;
+
+        private CharSequence[] elements;
+        private int size;
+        private long chars;
+
+        private Parts(int capacity) {
+            elements = new CharSequence[Math.max(capacity, 1)];
+        }
+
+        private void add(CharSequence element) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size << 1);
+            }
+            elements[size++] = element;
+            chars += element.length();
+        }
+
+        private Parts addAll(Parts other) {
+            if (size + other.size > elements.length) {
+                elements = Arrays.copyOf(elements, Math.max(size + other.size, size << 1));
+            }
+            System.arraycopy(other.elements, 0, elements, size, other.size);
+            size += other.size;
+            chars += other.chars;
+            return this;
+        }
+
+        private String join(String delimiter) {
+            if (size == 0) {
+                return "";
+            }
+            StringBuilder builder = new StringBuilder(checkedLength(chars + (long) delimiter.length() * (size - 1)));
+            builder.append(elements[0]);
+            for (int i = 1; i < size; i++) {
+                builder.append(delimiter).append(elements[i]);
+            }
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package org.learning.streams.collectors;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+
+/*
+ * Bounded heap collectors replacing sorted(..).limit(k): only the best k elements seen so far are kept,
+ * so it is O(n log k) time and O(k) memory instead of sorting (and buffering) the whole stream.
+ *
+ * The results are exactly what sorted(..).limit(k) returns, including ties: every element carries its
+ * position in the stream and an earlier element wins a tie. For parallel streams each fork fills its
+ * own heap and the right heap is merged into the left one with its positions shifted after the left ones.
+ *
+ * bottomK(k, c) == sorted(c).limit(k)              eg: youngest 100 students
+ * topK(k, c)    == sorted(c.reversed()).limit(k)   eg: top 10 user ids
+ * */
+public final class TopKCollectors {
+
+    /*heaps start small and grow up to k so a huge k doesn't allocate k slots for every fork*/
+    private static final int INITIAL_CAPACITY = 16;
+
+    private TopKCollectors() {
+    }
+
+    /*the k smallest elements in ascending order*/
+    public static <T> Collector<T, ?, List<T>> bottomK(int k, Comparator<? super T> comparator) {
+        checkK(k);
+        return Collector.of(
+                () -> new ObjectHeap<T>(k, comparator),
+                ObjectHeap::offer,
+                ObjectHeap::merge,
+                ObjectHeap::toSortedList);
+    }
+
+    /*the k largest elements in descending order*/
+    public static <T> Collector<T, ?, List<T>> topK(int k, Comparator<? super T> comparator) {
+        return bottomK(k, comparator.reversed());
+    }
+
+    /*the k elements with the smallest int key, the key is read once per element and compared as an int*/
+    public static <T> Collector<T, ?, List<T>> bottomKByInt(int k, ToIntFunction<? super T> key) {
+        return byInt(k, key, false);
+    }
+
+    public static <T> Collector<T, ?, List<T>> topKByInt(int k, ToIntFunction<? super T> key) {
+        return byInt(k, key, true);
+    }
+
+    /*the k smallest values in ascending order eg: bottomK(IntStream.of(5, 1, 4, 2), 2) -> [1, 2]*/
+    public static int[] bottomK(IntStream stream, int k) {
+        checkK(k);
+        return stream.collect(() -> new IntHeap(k, false), IntHeap::offer, IntHeap::merge).toSortedArray();
+    }
+
+    /*the k largest values in descending order eg: topK(IntStream.of(5, 1, 4, 2), 2) -> [5, 4]*/
+    public static int[] topK(IntStream stream, int k) {
+        checkK(k);
+        return stream.collect(() -> new IntHeap(k, true), IntHeap::offer, IntHeap::merge).toSortedArray();
+    }
+
+    private static <T> Collector<T, ?, List<T>> byInt(int k, ToIntFunction<? super T> key, boolean descending) {
+        checkK(k);
+        return Collector.of(
+                () -> new IntKeyHeap<T>(k, key, descending),
+                IntKeyHeap::offer,
+                IntKeyHeap::merge,
+                IntKeyHeap::toSortedList);
+    }
+
+    private static void checkK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be >= 0 but was " + k);
+        }
+    }
+
+    /*
+     * max heap on (comparator, position): the root is the worst element kept so a new element only
+     * has to beat the root. Positions are counted per heap and shifted when a right fork is merged.
+     * */
+    private static final class ObjectHeap<T> {
+        private final int k;
+        private final Comparator<? super T> comparator;
+        private Object[] items;
+        private long[] positions;
+        private int size;
+        private long seen;
+
+        private ObjectHeap(int k, Comparator<? super T> comparator) {
+            this.k = k;
+            this.comparator = comparator;
+            this.items = new Object[Math.min(k, INITIAL_CAPACITY)];
+            this.positions = new long[items.length];
+        }
+
+        private void offer(T item) {
+            insert(item, seen++);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void insert(T item, long position) {
+            if (size < k) {
+                if (size == items.length) {
+                    items = Arrays.copyOf(items, Math.min(k, size << 1));
+                    positions = Arrays.copyOf(positions, items.length);
+                }
+                items[size] = item;
+                positions[size] = position;
+                siftUp(size++);
+            } else if (k > 0 && compare(item, position, (T) items[0], positions[0]) < 0) {
+                items[0] = item;
+                positions[0] = position;
+                siftDown(0, size);
+            }
+        }
+
+        /*other covers the elements right after this heap's elements in the stream*/
+        @SuppressWarnings("unchecked")
+        private ObjectHeap<T> merge(ObjectHeap<T> other) {
+            long offset = seen;
+            for (int i = 0; i < other.size; i++) {
+                insert((T) other.items[i], other.positions[i] + offset);
+            }
+            seen += other.seen;
+            return this;
+        }
+
+        /*heap sort in place: the worst goes to the end each round so the array ends up best first*/
+        @SuppressWarnings("unchecked")
+        private List<T> toSortedList() {
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+            List<T> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add((T) items[i]);
+            }
+            return Collections.unmodifiableList(list);
+        }
+
+        private int compare(T a, long positionA, T b, long positionB) {
+            int result = comparator.compare(a, b);
+            return result != 0 ? result : Long.compare(positionA, positionB);
+        }
+
+        @SuppressWarnings("unchecked")
+        private int compareSlots(int i, int j) {
+            return compare((T) items[i], positions[i], (T) items[j], positions[j]);
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (compareSlots(index, parent) <= 0) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index, int end) {
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= end) {
+                    return;
+                }
+                if (child + 1 < end && compareSlots(child + 1, child) > 0) {
+                    child++;
+                }
+                if (compareSlots(child, index) <= 0) {
+                    return;
+                }
+                swap(index, child);
+                index = child;
+            }
+        }
+
+        private void swap(int i, int j) {
+            Object item = items[i];
+            items[i] = items[j];
+            items[j] = item;
+            long position = positions[i];
+            positions[i] = positions[j];
+            positions[j] = position;
+        }
+    }
+
+    /*same heap as ObjectHeap but ranked on an extracted int key (~key for descending) so no comparator calls*/
+    private static final class IntKeyHeap<T> {
+        private final int k;
+        private final ToIntFunction<? super T> key;
+        private final int flip;
+        private int[] keys;
+        private Object[] items;
+        private long[] positions;
+        private int size;
+        private long seen;
+
+        private IntKeyHeap(int k, ToIntFunction<? super T> key, boolean descending) {
+            this.k = k;
+            this.key = key;
+            this.flip = descending ? -1 : 0;
+            this.keys = new int[Math.min(k, INITIAL_CAPACITY)];
+            this.items = new Object[keys.length];
+            this.positions = new long[keys.length];
+        }
+
+        private void offer(T item) {
+            insert(key.applyAsInt(item) ^ flip, item, seen++);
+        }
+
+        private void insert(int rank, Object item, long position) {
+            if (size < k) {
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, Math.min(k, size << 1));
+                    items = Arrays.copyOf(items, keys.length);
+                    positions = Arrays.copyOf(positions, keys.length);
+                }
+                keys[size] = rank;
+                items[size] = item;
+                positions[size] = position;
+                siftUp(size++);
+            } else if (k > 0 && (rank < keys[0] || (rank == keys[0] && position < positions[0]))) {
+                keys[0] = rank;
+                items[0] = item;
+                positions[0] = position;
+                siftDown(0, size);
+            }
+        }
+
+        private IntKeyHeap<T> merge(IntKeyHeap<T> other) {
+            long offset = seen;
+            for (int i = 0; i < other.size; i++) {
+                insert(other.keys[i], other.items[i], other.positions[i] + offset);
+            }
+            seen += other.seen;
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<T> toSortedList() {
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+            List<T> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add((T) items[i]);
+            }
+            return Collections.unmodifiableList(list);
+        }
+
+        private int compareSlots(int i, int j) {
+            int result = Integer.compare(keys[i], keys[j]);
+            return result != 0 ? result : Long.compare(positions[i], positions[j]);
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (compareSlots(index, parent) <= 0) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index, int end) {
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= end) {
+                    return;
+                }
+                if (child + 1 < end && compareSlots(child + 1, child) > 0) {
+                    child++;
+                }
+                if (compareSlots(child, index) <= 0) {
+                    return;
+                }
+                swap(index, child);
+                index = child;
+            }
+        }
+
+        private void swap(int i, int j) {
+            int rank = keys[i];
+            keys[i] = keys[j];
+            keys[j] = rank;
+            Object item = items[i];
+            items[i] = items[j];
+            items[j] = item;
+            long position = positions[i];
+            positions[i] = positions[j];
+            positions[j] = position;
+        }
+    }
+
+    /*max heap of plain ints (~value for topK), equal ints are identical so no positions are needed*/
+    private static final class IntHeap {
+        private final int k;
+        private final int flip;
+        private int[] values;
+        private int size;
+
+        private IntHeap(int k, boolean descending) {
+            this.k = k;
+            this.flip = descending ? -1 : 0;
+            this.values = new int[Math.min(k, INITIAL_CAPACITY)];
+        }
+
+        private void offer(int value) {
+            offerRank(value ^ flip);
+        }
+
+        private void offerRank(int rank) {
+            if (size < k) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, Math.min(k, size << 1));
+                }
+                values[size] = rank;
+                int index = size++;
+                while (index > 0) {
+                    int parent = (index - 1) >>> 1;
+                    if (values[index] <= values[parent]) {
+                        return;
+                    }
+                    swap(index, parent);
+                    index = parent;
+                }
+            } else if (k > 0 && rank < values[0]) {
+                values[0] = rank;
+                siftDown(0, size);
+            }
+        }
+
+        private void merge(IntHeap other) {
+            for (int i = 0; i < other.size; i++) {
+                offerRank(other.values[i]);
+            }
+        }
+
+        private int[] toSortedArray() {
+            int[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            for (int i = 0; i < sorted.length; i++) {
+                sorted[i] ^= flip;
+            }
+            return sorted;
+        }
+
+        private void siftDown(int index, int end) {
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= end) {
+                    return;
+                }
+                if (child + 1 < end && values[child + 1] > values[child]) {
+                    child++;
+                }
+                if (values[child] <= values[index]) {
+                    return;
+                }
+                swap(index, child);
+                index = child;
+            }
+        }
+
+        private void swap(int i, int j) {
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+}
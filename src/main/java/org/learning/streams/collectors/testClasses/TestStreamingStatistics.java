@@ -0,0 +1,130 @@
+package org.learning.streams.collectors.testClasses;
+
+import org.learning.streams.collectors.QuantileSketch;
+import org.learning.streams.collectors.StatisticsCollectors;
+import org.learning.streams.collectors.StreamingStatistics;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.DoubleStream;
+import java.util.stream.LongStream;
+
+/*
+ * Checks the documented QuantileSketch error bound against a full sort and that parallel/merged statistics equal the
+ * sequential ones. Fails with an AssertionError on the first violation.
+ * */
+public class TestStreamingStatistics {
+
+    private static final double[] QUANTILES = {0, 0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999, 0.9999, 1};
+
+    public static void main(String[] args) {
+        SplittableRandom random = new SplittableRandom(42);
+        int n = 200_000;
+        Map<String, double[]> distributions = new LinkedHashMap<>();
+        distributions.put("uniform ints", random.ints(n, 0, 1000).asDoubleStream().toArray());
+        distributions.put("long tail latencies", random.ints(n, 0, 100).map(i -> i < 98 ? 5 + i : 200 + i * 10).asDoubleStream().toArray());
+        distributions.put("exponential", DoubleStream.generate(() -> -Math.log(1 - random.nextDouble()) * 50).limit(n).toArray());
+        distributions.put("log uniform 1e-9..1e12", DoubleStream.generate(() -> Math.pow(10, random.nextDouble(-9, 12))).limit(n).toArray());
+        distributions.put("negative", DoubleStream.generate(() -> -random.nextDouble(0.001, 1e6)).limit(n).toArray());
+        distributions.put("mixed sign normal", DoubleStream.generate(() -> gaussian(random) * 1000).limit(n).toArray());
+        distributions.put("mixed sign with zeros", random.ints(n, -50, 51).asDoubleStream().toArray());
+        distributions.put("constant", DoubleStream.generate(() -> 123.456).limit(n).toArray());
+        distributions.put("single value", new double[]{-7.5});
+
+        for (Map.Entry<String, double[]> distribution : distributions.entrySet()) {
+            double[] values = distribution.getValue();
+            StreamingStatistics sequential = StatisticsCollectors.summarize(DoubleStream.of(values));
+            checkQuantiles(distribution.getKey(), values, sequential, random);
+            checkMergedEqualsSequential(distribution.getKey(), values, sequential);
+            System.out.println(distribution.getKey() + ": ok");
+        }
+        checkLongs();
+        checkRejectedValues();
+        System.out.println("all checks passed");
+    }
+
+    /*|sketch - exact| <= RELATIVE_ERROR * |exact| for the nearest rank value, fixed and random q*/
+    private static void checkQuantiles(String name, double[] values, StreamingStatistics statistics, SplittableRandom random) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        double[] randomQuantiles = random.doubles(200).toArray();
+        for (double[] quantiles : new double[][]{QUANTILES, randomQuantiles}) {
+            for (double q : quantiles) {
+                double exact = sorted[(int) Math.max(1, Math.ceil(q * sorted.length)) - 1];
+                double estimate = statistics.getQuantile(q);
+                check(Math.abs(estimate - exact) <= QuantileSketch.RELATIVE_ERROR * Math.abs(exact),
+                        name + " q=" + q + ": sketch " + estimate + " exact " + exact);
+            }
+        }
+        check(statistics.getMin() == sorted[0] && statistics.getMax() == sorted[sorted.length - 1], name + ": min/max");
+    }
+
+    /*a parallel stream and a manual merge of uneven chunks give the same result as one sequential pass*/
+    private static void checkMergedEqualsSequential(String name, double[] values, StreamingStatistics sequential) {
+        StreamingStatistics parallel = StatisticsCollectors.summarize(DoubleStream.of(values).parallel());
+        StreamingStatistics merged = new StreamingStatistics();
+        for (int from = 0, chunk = 1; from < values.length; from += chunk, chunk = chunk * 3 + 1) {
+            StreamingStatistics part = StatisticsCollectors.summarize(
+                    DoubleStream.of(Arrays.copyOfRange(values, from, Math.min(values.length, from + chunk))));
+            merged.combine(part);
+        }
+        for (StreamingStatistics other : new StreamingStatistics[]{parallel, merged}) {
+            check(other.getCount() == sequential.getCount(), name + ": count");
+            check(other.getMin() == sequential.getMin() && other.getMax() == sequential.getMax(), name + ": min/max merged");
+            for (double q : QUANTILES) {
+                check(other.getQuantile(q) == sequential.getQuantile(q), name + ": merged q=" + q);
+            }
+            check(close(other.getSum(), sequential.getSum()), name + ": sum " + other.getSum() + " vs " + sequential.getSum());
+            check(close(other.getAverage(), sequential.getAverage()), name + ": average");
+            check(close(other.getVariance(), sequential.getVariance()), name + ": variance");
+        }
+    }
+
+    /*int/long values keep exact sums, min and max, also above 2^53 and across parallel forks*/
+    private static void checkLongs() {
+        StreamingStatistics pair = StatisticsCollectors.summarize(LongStream.of(9007199254740993L, 1));
+        check(pair.getLongSum() == 9007199254740994L && pair.getLongMax() == 9007199254740993L && pair.getLongMin() == 1,
+                "exact longs above 2^53: " + pair);
+        long[] nanos = new SplittableRandom(7).longs(100_000, 1_700_000_000_000_000_000L, 1_800_000_000_000_000_000L).toArray();
+        StreamingStatistics parallel = StatisticsCollectors.summarize(LongStream.of(nanos).parallel());
+        var exact = LongStream.of(nanos).summaryStatistics();
+        check(parallel.getLongSum() == exact.getSum() && parallel.getLongMin() == exact.getMin()
+                && parallel.getLongMax() == exact.getMax(), "parallel exact longs");
+        System.out.println("exact longs: ok");
+    }
+
+    /*a rejected NaN/infinity throws before any field is touched, the statistics stay as they were*/
+    private static void checkRejectedValues() {
+        for (double rejected : new double[]{Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN}) {
+            StreamingStatistics statistics = new StreamingStatistics();
+            statistics.acceptDouble(1);
+            statistics.acceptDouble(2);
+            try {
+                statistics.acceptDouble(rejected);
+                throw new AssertionError("acceptDouble(" + rejected + ") was not rejected");
+            } catch (IllegalArgumentException expected) {
+                // rejected
+            }
+            check(statistics.getCount() == 2 && statistics.getSum() == 3 && statistics.getMin() == 1
+                    && statistics.getMax() == 2 && statistics.getAverage() == 1.5 && statistics.getQuantile(1) == 2,
+                    "after rejecting " + rejected + ": " + statistics);
+        }
+        System.out.println("rejected values: ok");
+    }
+
+    private static boolean close(double actual, double expected) {
+        return Math.abs(actual - expected) <= 1e-9 * Math.max(1, Math.abs(expected));
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package org.learning.streams.columnar;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/*
+ * Column oriented table for records with int and String fields (Student, User...).
+ * Every int field is its own off-heap IntColumn and every String field is packed UTF-8 in an off-heap arena,
+ * so 100M rows cost no objects on the heap and a scan over "age" only reads the age values.
+ *
+ * Filters and aggregates run on the columns directly and record objects are only created by stream().
+ *
+ * usage:
+ * ColumnarTable<Student> table = ColumnarTable.<Student>builder()
+ *         .intColumn("id", Student::id)
+ *         .stringColumn("name", Student::name)
+ *         .intColumn("age", Student::age)
+ *         .rowFactory(row -> new Student(row.getInt("id"), row.getString("name"), row.getInt("age")))
+ *         .build();
+ * table.addAll(students);
+ * long olderThan20 = table.greaterThan("age", 20).count();
+ * OptionalDouble averageAge = table.all().average("age");
+ * List<Student> raj = table.stringEquals("name", "Raj").stream().toList();
+ * */
+public final class ColumnarTable<T> {
+
+    private final List<String> intNames;
+    private final List<ToIntFunction<? super T>> intGetters;
+    private final List<String> stringNames;
+    private final List<Function<? super T, String>> stringGetters;
+    private final Function<Row, ? extends T> rowFactory;
+    private final IntColumn[] intColumns;
+    private final StringColumn[] stringColumns;
+    private final Map<String, Integer> intIndexes = new HashMap<>();
+    private final Map<String, Integer> stringIndexes = new HashMap<>();
+    private int size;
+
+    private ColumnarTable(Builder<T> builder) {
+        this.intNames = List.copyOf(builder.intNames);
+        this.intGetters = List.copyOf(builder.intGetters);
+        this.stringNames = List.copyOf(builder.stringNames);
+        this.stringGetters = List.copyOf(builder.stringGetters);
+        this.rowFactory = builder.rowFactory;
+        this.intColumns = new IntColumn[intNames.size()];
+        for (int i = 0; i < intColumns.length; i++) {
+            intColumns[i] = new IntColumn();
+            intIndexes.put(intNames.get(i), i);
+        }
+        this.stringColumns = new StringColumn[stringNames.size()];
+        for (int i = 0; i < stringColumns.length; i++) {
+            stringColumns[i] = new StringColumn();
+            stringIndexes.put(stringNames.get(i), i);
+        }
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /*not thread safe: load the table first, then scan/stream it from as many threads as needed*/
+    public void add(T record) {
+        for (int i = 0; i < intColumns.length; i++) {
+            intColumns[i].append(intGetters.get(i).applyAsInt(record));
+        }
+        for (int i = 0; i < stringColumns.length; i++) {
+            stringColumns[i].append(stringGetters.get(i).apply(record));
+        }
+        size++;
+    }
+
+    public void addAll(Collection<? extends T> records) {
+        records.forEach(this::add);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (IntColumn column : intColumns) {
+            bytes += column.offHeapBytes();
+        }
+        for (StringColumn column : stringColumns) {
+            bytes += column.offHeapBytes();
+        }
+        return bytes;
+    }
+
+    /*every row, the starting point for aggregates over the whole table*/
+    public Selection all() {
+        BitSet rows = new BitSet(size);
+        rows.set(0, size);
+        return new Selection(rows, true);
+    }
+
+    /*rows where column > value*/
+    public Selection greaterThan(String column, int value) {
+        return scan(column, (block, length, rows, firstRow) -> {
+            for (int i = 0; i < length; i++) {
+                if (block[i] > value) {
+                    rows.set(firstRow + i);
+                }
+            }
+        });
+    }
+
+    /*rows where column < value*/
+    public Selection lessThan(String column, int value) {
+        return scan(column, (block, length, rows, firstRow) -> {
+            for (int i = 0; i < length; i++) {
+                if (block[i] < value) {
+                    rows.set(firstRow + i);
+                }
+            }
+        });
+    }
+
+    /*rows where from <= column <= to*/
+    public Selection between(String column, int from, int to) {
+        return scan(column, (block, length, rows, firstRow) -> {
+            for (int i = 0; i < length; i++) {
+                if (block[i] >= from && block[i] <= to) {
+                    rows.set(firstRow + i);
+                }
+            }
+        });
+    }
+
+    public Selection equalTo(String column, int value) {
+        return between(column, value, value);
+    }
+
+    /*any other int condition, still no record objects but one predicate call per value*/
+    public Selection filter(String column, IntPredicate predicate) {
+        return scan(column, (block, length, rows, firstRow) -> {
+            for (int i = 0; i < length; i++) {
+                if (predicate.test(block[i])) {
+                    rows.set(firstRow + i);
+                }
+            }
+        });
+    }
+
+    /*compares the stored UTF-8 bytes, the names are never decoded to Strings*/
+    public Selection stringEquals(String column, String value) {
+        return stringScan(column, value, false);
+    }
+
+    public Selection stringStartsWith(String column, String prefix) {
+        return stringScan(column, prefix, true);
+    }
+
+    /*lazily creates a record per row through the row factory, range based so parallel() splits well*/
+    public Stream<T> stream() {
+        return IntStream.range(0, size).mapToObj(this::materialize);
+    }
+
+    private Selection scan(String column, BlockFilter filter) {
+        BitSet rows = new BitSet(size);
+        intColumn(column).forEachBlock((block, length, firstRow) -> filter.accept(block, length, rows, firstRow));
+        return new Selection(rows);
+    }
+
+    private Selection stringScan(String column, String value, boolean prefixOnly) {
+        StringColumn strings = stringColumn(column);
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        BitSet rows = new BitSet(size);
+        for (int row = 0; row < size; row++) {
+            if (strings.matches(row, encoded, prefixOnly)) {
+                rows.set(row);
+            }
+        }
+        return new Selection(rows);
+    }
+
+    private T materialize(int row) {
+        return rowFactory.apply(new RowView(row));
+    }
+
+    private IntColumn intColumn(String name) {
+        Integer index = intIndexes.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("no int column " + name + ", columns are " + intNames);
+        }
+        return intColumns[index];
+    }
+
+    private StringColumn stringColumn(String name) {
+        Integer index = stringIndexes.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("no string column " + name + ", columns are " + stringNames);
+        }
+        return stringColumns[index];
+    }
+
+    @FunctionalInterface
+    private interface BlockFilter {
+        void accept(int[] block, int length, BitSet rows, int firstRow);
+    }
+
+    /*read access to one row for the row factory, values are read from the columns on demand*/
+    public interface Row {
+        int getInt(String column);
+
+        String getString(String column);
+    }
+
+    private final class RowView implements Row {
+        private final int row;
+
+        private RowView(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public int getInt(String column) {
+            return intColumn(column).get(row);
+        }
+
+        @Override
+        public String getString(String column) {
+            return stringColumn(column).get(row);
+        }
+    }
+
+    /*
+     * set of rows produced by a filter. Selections can be combined (and/or) and aggregated
+     * without materializing records, stream() only creates the records of the selected rows.
+     * */
+    public final class Selection {
+        private final BitSet rows;
+        private final boolean allRows; /*aggregates skip the bit lookups*/
+
+        private Selection(BitSet rows) {
+            this(rows, false);
+        }
+
+        private Selection(BitSet rows, boolean allRows) {
+            this.rows = rows;
+            this.allRows = allRows;
+        }
+
+        public long count() {
+            return rows.cardinality();
+        }
+
+        public Selection and(Selection other) {
+            BitSet result = (BitSet) rows.clone();
+            result.and(other.rows);
+            return new Selection(result);
+        }
+
+        public Selection or(Selection other) {
+            BitSet result = (BitSet) rows.clone();
+            result.or(other.rows);
+            return new Selection(result);
+        }
+
+        public long sum(String column) {
+            return statistics(column).getSum();
+        }
+
+        public OptionalDouble average(String column) {
+            IntSummaryStatistics statistics = statistics(column);
+            return statistics.getCount() == 0 ? OptionalDouble.empty() : OptionalDouble.of(statistics.getAverage());
+        }
+
+        public OptionalInt min(String column) {
+            IntSummaryStatistics statistics = statistics(column);
+            return statistics.getCount() == 0 ? OptionalInt.empty() : OptionalInt.of(statistics.getMin());
+        }
+
+        public OptionalInt max(String column) {
+            IntSummaryStatistics statistics = statistics(column);
+            return statistics.getCount() == 0 ? OptionalInt.empty() : OptionalInt.of(statistics.getMax());
+        }
+
+        /*count, sum, min, max and average of the column over the selected rows in one pass*/
+        public IntSummaryStatistics statistics(String column) {
+            IntColumn values = intColumn(column);
+            long[] count = new long[1];
+            long[] sum = new long[1];
+            int[] min = {Integer.MAX_VALUE};
+            int[] max = {Integer.MIN_VALUE};
+            values.forEachBlock((block, length, firstRow) -> {
+                long blockSum = 0;
+                int blockMin = min[0];
+                int blockMax = max[0];
+                int blockCount = 0;
+                if (allRows) {
+                    for (int i = 0; i < length; i++) {
+                        int value = block[i];
+                        blockSum += value;
+                        blockMin = Math.min(blockMin, value);
+                        blockMax = Math.max(blockMax, value);
+                    }
+                    blockCount = length;
+                }
+                for (int row = allRows ? -1 : rows.nextSetBit(firstRow); row >= 0 && row < firstRow + length; row = rows.nextSetBit(row + 1)) {
+                    int value = block[row - firstRow];
+                    blockSum += value;
+                    blockMin = Math.min(blockMin, value);
+                    blockMax = Math.max(blockMax, value);
+                    blockCount++;
+                }
+                count[0] += blockCount;
+                sum[0] += blockSum;
+                min[0] = blockMin;
+                max[0] = blockMax;
+            });
+            return count[0] == 0 ? new IntSummaryStatistics() : new IntSummaryStatistics(count[0], min[0], max[0], sum[0]);
+        }
+
+        public Stream<T> stream() {
+            return rows.stream().mapToObj(ColumnarTable.this::materialize);
+        }
+    }
+
+    public static final class Builder<T> {
+        private final List<String> intNames = new ArrayList<>();
+        private final List<ToIntFunction<? super T>> intGetters = new ArrayList<>();
+        private final List<String> stringNames = new ArrayList<>();
+        private final List<Function<? super T, String>> stringGetters = new ArrayList<>();
+        private Function<Row, ? extends T> rowFactory;
+
+        private Builder() {
+        }
+
+        public Builder<T> intColumn(String name, ToIntFunction<? super T> getter) {
+            intNames.add(name);
+            intGetters.add(getter);
+            return this;
+        }
+
+        public Builder<T> stringColumn(String name, Function<? super T, String> getter) {
+            stringNames.add(name);
+            stringGetters.add(getter);
+            return this;
+        }
+
+        public Builder<T> rowFactory(Function<Row, ? extends T> rowFactory) {
+            this.rowFactory = rowFactory;
+            return this;
+        }
+
+        public ColumnarTable<T> build() {
+            if (rowFactory == null) {
+                throw new IllegalStateException("rowFactory is required to materialize the records");
+            }
+            return new ColumnarTable<>(this);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.learning.streams.columnar;
+
+import lombok.extern.slf4j.Slf4j;
+import org.learning.interview.generalJavaQuestions.comparatorAndComparable.utils.Student;
+import org.learning.streams.intermediateoperations.User;
+
+import java.util.List;
+
+@Slf4j
+public class ColumnarTableExample {
+    public static void main(String[] args) {
+        log.info("a List<Student> is a list of pointers to objects, every scan jumps around the heap and pays an object header per record");
+        log.info("a columnar table keeps each field in its own off-heap column so a filter on age only reads the ages");
+
+        ColumnarTable<Student> students = ColumnarTable.<Student>builder()
+                .intColumn("id", Student::id)
+                .stringColumn("name", Student::name)
+                .intColumn("age", Student::age)
+                .rowFactory(row -> new Student(row.getInt("id"), row.getString("name"), row.getInt("age")))
+                .build();
+        students.add(Student.builder().id(1).name("Sid").age(24).build());
+        students.add(Student.builder().id(2).name("Raj").age(22).build());
+        students.add(Student.builder().id(3).name("Viju").age(25).build());
+        students.add(Student.builder().id(4).name("Ram").age(19).build());
+
+        log.info("filters and aggregates don't create any Student object");
+        log.info("students older than 20: {}", students.greaterThan("age", 20).count()); // 3
+        log.info("average age: {}", students.all().average("age")); // OptionalDouble[22.5]
+        log.info("youngest age: {}", students.all().min("age")); // OptionalInt[19]
+        log.info("age statistics of students older than 20: {}", students.greaterThan("age", 20).statistics("age"));
+        log.info("names starting with R and older than 20: {}",
+                students.stringStartsWith("name", "R").and(students.greaterThan("age", 20)).stream().toList()); // [Student[id=2, name=Raj, age=22]]
+
+        log.info("stream() materializes the records lazily only when they are needed");
+        students.stream().filter(student -> student.age() < 25).forEach(System.out::println);
+
+        ColumnarTable<User> users = ColumnarTable.<User>builder()
+                .intColumn("id", User::id)
+                .stringColumn("name", User::name)
+                .rowFactory(row -> new User(row.getInt("id"), row.getString("name")))
+                .build();
+        users.addAll(List.of(new User(23, "Sid"), new User(38, "Mohan"), new User(12, "Ram")));
+        log.info("users with id between 20 and 40: {}", users.between("id", 20, 40).stream().toList()); // [User[id=23, name=Sid], User[id=38, name=Mohan]]
+        log.info("user Mohan: {}", users.stringEquals("name", "Mohan").stream().findFirst()); // Optional[User[id=38, name=Mohan]]
+        log.info("off-heap bytes reserved by the users table: {}", users.offHeapBytes());
+    }
+}
@@ -0,0 +1,37 @@
+package org.learning.streams.columnar;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Fixed size off-heap (direct) buffers for a column which only grows at the end.
+ * New chunks are added instead of copying into a bigger buffer so appending never moves the data,
+ * and a chunk is far below the 2GB limit of a single ByteBuffer.
+ * The memory is released when the column (and with it the ByteBuffers) is garbage collected.
+ * */
+final class DirectChunks {
+
+    private final int chunkBytes;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+
+    DirectChunks(int chunkBytes) {
+        this.chunkBytes = chunkBytes;
+    }
+
+    ByteBuffer chunk(int index) {
+        while (index >= chunks.size()) {
+            chunks.add(ByteBuffer.allocateDirect(chunkBytes).order(ByteOrder.nativeOrder()));
+        }
+        return chunks.get(index);
+    }
+
+    int chunkBytes() {
+        return chunkBytes;
+    }
+
+    long offHeapBytes() {
+        return (long) chunks.size() * chunkBytes;
+    }
+}
@@ -0,0 +1,58 @@
+package org.learning.streams.columnar;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Off-heap column of ints stored in chunks of 1M values (4MB direct buffers).
+ * Scans copy one block at a time into a small int[] so the hot loops run over a plain array
+ * (which the JIT can unroll/vectorize) instead of calling ByteBuffer.getInt per value.
+ * */
+final class IntColumn {
+
+    static final int BLOCK = 1024;
+    private static final int CHUNK_SHIFT = 20;
+    private static final int CHUNK_VALUES = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_VALUES - 1;
+
+    private final DirectChunks chunks = new DirectChunks(CHUNK_VALUES * Integer.BYTES);
+    private final List<IntBuffer> views = new ArrayList<>();
+    private int size;
+
+    void append(int value) {
+        int chunk = size >>> CHUNK_SHIFT;
+        if (chunk == views.size()) {
+            views.add(chunks.chunk(chunk).asIntBuffer());
+        }
+        views.get(chunk).put(size & CHUNK_MASK, value);
+        size++;
+    }
+
+    int get(int row) {
+        return views.get(row >>> CHUNK_SHIFT).get(row & CHUNK_MASK);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long offHeapBytes() {
+        return chunks.offHeapBytes();
+    }
+
+    /*hands the column to the consumer in blocks of up to BLOCK values, block[0] is row firstRow*/
+    void forEachBlock(BlockConsumer consumer) {
+        int[] block = new int[BLOCK];
+        for (int firstRow = 0; firstRow < size; firstRow += BLOCK) {
+            int length = Math.min(BLOCK, size - firstRow);
+            views.get(firstRow >>> CHUNK_SHIFT).get(firstRow & CHUNK_MASK, block, 0, length);
+            consumer.accept(block, length, firstRow);
+        }
+    }
+
+    @FunctionalInterface
+    interface BlockConsumer {
+        void accept(int[] block, int length, int firstRow);
+    }
+}
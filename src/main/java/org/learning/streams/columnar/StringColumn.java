@@ -0,0 +1,87 @@
+package org.learning.streams.columnar;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/*
+ * Off-heap column of strings packed back to back as UTF-8 in 16MB arena chunks.
+ * Per row only the start offset inside its chunk is kept (an off-heap IntColumn), the end is the start
+ * of the next row or the used bytes of the chunk, and the chunk of a row is found from the first row of each chunk.
+ * A string never spans two chunks: when it doesn't fit the rest of the chunk it starts the next one.
+ * */
+final class StringColumn {
+
+    private static final int CHUNK_BYTES = 1 << 24;
+
+    private final DirectChunks arena = new DirectChunks(CHUNK_BYTES);
+    private final IntColumn starts = new IntColumn();
+    private int[] firstRowOfChunk = new int[4];
+    private int[] usedBytesOfChunk = new int[4];
+    private int chunkCount;
+
+    void append(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > CHUNK_BYTES) {
+            throw new IllegalArgumentException("string of " + bytes.length + " bytes is bigger than an arena chunk");
+        }
+        int row = starts.size();
+        if (chunkCount == 0 || usedBytesOfChunk[chunkCount - 1] + bytes.length > CHUNK_BYTES) {
+            if (chunkCount == firstRowOfChunk.length) {
+                firstRowOfChunk = Arrays.copyOf(firstRowOfChunk, chunkCount << 1);
+                usedBytesOfChunk = Arrays.copyOf(usedBytesOfChunk, chunkCount << 1);
+            }
+            firstRowOfChunk[chunkCount] = row;
+            usedBytesOfChunk[chunkCount] = 0;
+            chunkCount++;
+        }
+        int chunk = chunkCount - 1;
+        int start = usedBytesOfChunk[chunk];
+        arena.chunk(chunk).put(start, bytes);
+        usedBytesOfChunk[chunk] = start + bytes.length;
+        starts.append(start);
+    }
+
+    String get(int row) {
+        int chunk = chunkOf(row);
+        int start = starts.get(row);
+        byte[] bytes = new byte[end(row, chunk) - start];
+        arena.chunk(chunk).get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /*compares the stored UTF-8 bytes with the already encoded value, nothing is decoded*/
+    boolean matches(int row, byte[] value, boolean prefixOnly) {
+        int chunk = chunkOf(row);
+        int start = starts.get(row);
+        int length = end(row, chunk) - start;
+        if (prefixOnly ? length < value.length : length != value.length) {
+            return false;
+        }
+        ByteBuffer buffer = arena.chunk(chunk);
+        for (int i = 0; i < value.length; i++) {
+            if (buffer.get(start + i) != value[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int size() {
+        return starts.size();
+    }
+
+    long offHeapBytes() {
+        return arena.offHeapBytes() + starts.offHeapBytes();
+    }
+
+    private int end(int row, int chunk) {
+        boolean lastOfChunk = row + 1 == starts.size() || (chunk + 1 < chunkCount && firstRowOfChunk[chunk + 1] == row + 1);
+        return lastOfChunk ? usedBytesOfChunk[chunk] : starts.get(row + 1);
+    }
+
+    private int chunkOf(int row) {
+        int index = Arrays.binarySearch(firstRowOfChunk, 0, chunkCount, row);
+        return index >= 0 ? index : -index - 2;
+    }
+}
@@ -0,0 +1,192 @@
+package org.learning.streams.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+/*
+ * A collection of records (Student, User...) that keeps sorted indexes on int fields, so repeated queries like
+ * "students aged 20..25" don't filter or sort the whole list every time.
+ *
+ * students.stream().filter(s -> s.age() >= 20 && s.age() <= 25) looks at all n students on every query and
+ * sorted(comparingInt(Student::age)) is O(n log n) on every query. Here every index is a SortedIndex on a primitive key:
+ * - equalTo/between/withPrefix: binary search for the first match, then read the k matches in key order, O(log n + k)
+ * - add/remove update every index in place: a binary search plus a shift inside one block of at most 512 entries
+ * - index(name, key): one int field, eg: Student::age
+ * - compositeIndex(name, first, second): sorted on first then second (packed into one long key); withPrefix(name, first)
+ *   finds every element with that first key, already sorted by the second one, eg: (age, id) -> students aged 22 by id
+ * Equal keys keep their insertion order. Duplicates are allowed, remove takes out one equal element.
+ * Not thread safe: like a List, guard it when it is changed and read from several threads.
+ *
+ * usage:
+ * IndexedCollection<Student> students = IndexedCollection.<Student>builder()
+ *         .index("age", Student::age)
+ *         .index("id", Student::id)
+ *         .compositeIndex("age,id", Student::age, Student::id)
+ *         .build();
+ * students.addAll(list);
+ * List<Student> twenties = students.between("age", 20, 25);     // sorted by age
+ * List<Student> student7 = students.equalTo("id", 7);
+ * List<Student> aged22   = students.withPrefix("age,id", 22);    // sorted by id
+ * */
+public final class IndexedCollection<T> {
+
+    private final Map<String, Index<T>> indexes;
+    private final Index<T> primary;
+    private int size;
+
+    private IndexedCollection(Builder<T> builder) {
+        this.indexes = new LinkedHashMap<>();
+        builder.indexes.forEach((name, index) -> indexes.put(name, new Index<>(new SortedIndex<>(index.key()), index.composite())));
+        this.primary = indexes.values().iterator().next();
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    public void add(T element) {
+        Objects.requireNonNull(element, "element");
+        for (Index<T> index : indexes.values()) {
+            index.sorted().add(element);
+        }
+        size++;
+    }
+
+    public void addAll(Collection<? extends T> elements) {
+        elements.forEach(this::add);
+    }
+
+    /*removes one element equal to element from every index, false when it isn't in the collection*/
+    public boolean remove(T element) {
+        Objects.requireNonNull(element, "element");
+        if (!primary.sorted().remove(element)) {
+            return false;
+        }
+        for (Index<T> index : indexes.values()) {
+            if (index != primary) {
+                index.sorted().remove(element);
+            }
+        }
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        indexes.values().forEach(index -> index.sorted().clear());
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /*elements with key == value on a single field index*/
+    public List<T> equalTo(String indexName, int value) {
+        return between(indexName, value, value);
+    }
+
+    /*elements with exactly these two keys on a composite index*/
+    public List<T> equalTo(String indexName, int first, int second) {
+        Index<T> index = index(indexName);
+        if (!index.composite()) {
+            throw new IllegalArgumentException(indexName + " is not a composite index");
+        }
+        long key = compositeKey(first, second);
+        return collect(index, key, key);
+    }
+
+    /*from <= key <= to in key order, on a composite index the range is on the first key*/
+    public List<T> between(String indexName, int from, int to) {
+        Index<T> index = index(indexName);
+        return index.composite()
+                ? collect(index, compositeKey(from, Integer.MIN_VALUE), compositeKey(to, Integer.MAX_VALUE))
+                : collect(index, from, to);
+    }
+
+    /*every element whose first key is first, sorted by the second key*/
+    public List<T> withPrefix(String indexName, int first) {
+        Index<T> index = index(indexName);
+        if (!index.composite()) {
+            throw new IllegalArgumentException("prefix lookups need a composite index, " + indexName + " has a single key");
+        }
+        return between(indexName, first, first);
+    }
+
+    /*all elements in the order of the index, no sorting needed*/
+    public List<T> sortedBy(String indexName) {
+        return collect(index(indexName), Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /*all elements in the order of the first index*/
+    public Stream<T> stream() {
+        return collect(primary, Long.MIN_VALUE, Long.MAX_VALUE).stream();
+    }
+
+    private List<T> collect(Index<T> index, long from, long to) {
+        List<T> result = new ArrayList<>();
+        index.sorted().forEachBetween(from, to, result::add);
+        return Collections.unmodifiableList(result);
+    }
+
+    private Index<T> index(String indexName) {
+        Index<T> index = indexes.get(indexName);
+        if (index == null) {
+            throw new IllegalArgumentException("no index named " + indexName + ", the indexes are " + indexes.keySet());
+        }
+        return index;
+    }
+
+    /*first key in the high 32 bits (signed order), second in the low 32 bits with the sign flipped so it sorts signed too*/
+    private static long compositeKey(int first, int second) {
+        return ((long) first << 32) | ((second ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+
+    private record Index<T>(SortedIndex<T> sorted, boolean composite) {
+    }
+
+    private record Definition<T>(ToLongFunction<? super T> key, boolean composite) {
+    }
+
+    public static final class Builder<T> {
+        private final Map<String, Definition<T>> indexes = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        /*sorted index on one int field*/
+        public Builder<T> index(String name, ToIntFunction<? super T> key) {
+            Objects.requireNonNull(key, "key");
+            return add(name, new Definition<>(element -> key.applyAsInt(element), false));
+        }
+
+        /*sorted on first, then on second: supports withPrefix(name, first)*/
+        public Builder<T> compositeIndex(String name, ToIntFunction<? super T> first, ToIntFunction<? super T> second) {
+            Objects.requireNonNull(first, "first");
+            Objects.requireNonNull(second, "second");
+            return add(name, new Definition<>(element -> compositeKey(first.applyAsInt(element), second.applyAsInt(element)), true));
+        }
+
+        private Builder<T> add(String name, Definition<T> definition) {
+            Objects.requireNonNull(name, "name");
+            if (indexes.putIfAbsent(name, definition) != null) {
+                throw new IllegalArgumentException("duplicate index name " + name);
+            }
+            return this;
+        }
+
+        public IndexedCollection<T> build() {
+            if (indexes.isEmpty()) {
+                throw new IllegalStateException("at least one index is needed");
+            }
+            return new IndexedCollection<>(this);
+        }
+    }
+}
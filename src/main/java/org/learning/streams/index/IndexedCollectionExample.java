@@ -0,0 +1,44 @@
+package org.learning.streams.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.learning.interview.generalJavaQuestions.comparatorAndComparable.utils.Student;
+import org.learning.streams.intermediateoperations.User;
+
+import java.util.List;
+
+@Slf4j
+public class IndexedCollectionExample {
+    public static void main(String[] args) {
+        log.info("students.stream().filter(age between 20 and 25) reads every student on every query, sorted() sorts them again every time");
+        log.info("an indexed collection keeps the students sorted by age once, a range query is a binary search plus the matches");
+
+        IndexedCollection<Student> students = IndexedCollection.<Student>builder()
+                .index("age", Student::age)
+                .index("id", Student::id)
+                .compositeIndex("age,id", Student::age, Student::id)
+                .build();
+        students.add(Student.builder().id(1).name("Sid").age(24).build());
+        students.add(Student.builder().id(2).name("Raj").age(22).build());
+        students.add(Student.builder().id(3).name("Viju").age(25).build());
+        students.add(Student.builder().id(4).name("Ram").age(19).build());
+        students.add(Student.builder().id(5).name("Mohan").age(22).build());
+
+        log.info("students aged 20 to 24, already sorted by age: {}", students.between("age", 20, 24)); // [Raj 22, Mohan 22, Sid 24]
+        log.info("student with id 3: {}", students.equalTo("id", 3)); // [Student[id=3, name=Viju, age=25]]
+        log.info("students aged 22 sorted by id: {}", students.withPrefix("age,id", 22)); // [Raj, Mohan]
+        log.info("all students sorted by age without a sort: {}", students.sortedBy("age"));
+
+        log.info("inserts and deletes update every index in place, no rebuild");
+        Student raj = Student.builder().id(2).name("Raj").age(22).build();
+        students.remove(raj);
+        students.add(Student.builder().id(6).name("Anu").age(21).build());
+        log.info("students aged 20 to 24 after the changes: {}", students.between("age", 20, 24)); // [Anu 21, Mohan 22, Sid 24]
+
+        IndexedCollection<User> users = IndexedCollection.<User>builder()
+                .index("id", User::id)
+                .build();
+        users.addAll(List.of(new User(23, "Sid"), new User(38, "Mohan"), new User(12, "Ram")));
+        log.info("users with id between 20 and 40: {}", users.between("id", 20, 40)); // [User[id=23, name=Sid], User[id=38, name=Mohan]]
+        log.info("users sorted by id: {}", users.stream().map(User::name).toList()); // [Ram, Sid, Mohan]
+    }
+}
@@ -0,0 +1,183 @@
+package org.learning.streams.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/*
+ * Elements sorted on a long key, kept as a list of blocks of at most MAX_BLOCK (key, element) pairs.
+ * Each block is two parallel arrays (long[] keys, Object[] values) sorted by key, and the blocks follow each other
+ * in key order, so:
+ * - a lookup is a binary search over the blocks' last keys plus one inside the block: O(log n), then the matches
+ *   are read in order, O(k)
+ * - insert/delete shift at most one block (System.arraycopy of <= 512 entries) instead of the whole index,
+ *   a full block is split in two halves, an empty block is dropped
+ * Equal keys keep their insertion order (a new element goes after the equal keys already there).
+ * */
+final class SortedIndex<T> {
+
+    static final int MAX_BLOCK = 512;
+
+    private final ToLongFunction<? super T> key;
+    private final List<Block> blocks = new ArrayList<>();
+
+    SortedIndex(ToLongFunction<? super T> key) {
+        this.key = key;
+    }
+
+    void add(T element) {
+        long elementKey = key.applyAsLong(element);
+        if (blocks.isEmpty()) {
+            blocks.add(new Block(MAX_BLOCK));
+        }
+        int blockIndex = lastBlockStartingAtOrBefore(elementKey);
+        Block block = blocks.get(blockIndex);
+        block.insert(block.upperBound(elementKey), elementKey, element);
+        if (block.size == MAX_BLOCK) {
+            blocks.add(blockIndex + 1, block.splitOffUpperHalf());
+        }
+    }
+
+    /*removes the first element with the same key that equals element, false when there is none*/
+    boolean remove(T element) {
+        long elementKey = key.applyAsLong(element);
+        for (int blockIndex = firstBlockEndingAtOrAfter(elementKey); blockIndex < blocks.size(); blockIndex++) {
+            Block block = blocks.get(blockIndex);
+            for (int i = block.lowerBound(elementKey); i < block.size; i++) {
+                if (block.keys[i] != elementKey) {
+                    return false;
+                }
+                if (block.values[i].equals(element)) {
+                    block.delete(i);
+                    if (block.size == 0) {
+                        blocks.remove(blockIndex);
+                    }
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /*every element with from <= key <= to, in key order*/
+    void forEachBetween(long from, long to, Consumer<? super T> action) {
+        if (from > to) {
+            return;
+        }
+        for (int blockIndex = firstBlockEndingAtOrAfter(from); blockIndex < blocks.size(); blockIndex++) {
+            Block block = blocks.get(blockIndex);
+            for (int i = block.lowerBound(from); i < block.size; i++) {
+                if (block.keys[i] > to) {
+                    return;
+                }
+                @SuppressWarnings("unchecked")
+                T value = (T) block.values[i];
+                action.accept(value);
+            }
+        }
+    }
+
+    void clear() {
+        blocks.clear();
+    }
+
+    /*index of the last block whose first key is <= key, 0 when key is below every block*/
+    private int lastBlockStartingAtOrBefore(long key) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (blocks.get(middle).keys[0] <= key) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /*index of the first block whose last key is >= key, blocks.size() when every key is smaller*/
+    private int firstBlockEndingAtOrAfter(long key) {
+        int low = 0;
+        int high = blocks.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            Block block = blocks.get(middle);
+            if (block.keys[block.size - 1] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static final class Block {
+        final long[] keys;
+        final Object[] values;
+        int size;
+
+        Block(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+        }
+
+        /*first position with keys[i] >= key*/
+        int lowerBound(long key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (keys[middle] < key) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /*first position with keys[i] > key*/
+        int upperBound(long key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (keys[middle] <= key) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        void insert(int position, long key, Object value) {
+            System.arraycopy(keys, position, keys, position + 1, size - position);
+            System.arraycopy(values, position, values, position + 1, size - position);
+            keys[position] = key;
+            values[position] = value;
+            size++;
+        }
+
+        void delete(int position) {
+            System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+            System.arraycopy(values, position + 1, values, position, size - position - 1);
+            size--;
+            values[size] = null;
+        }
+
+        Block splitOffUpperHalf() {
+            int half = size / 2;
+            Block upper = new Block(keys.length);
+            upper.size = size - half;
+            System.arraycopy(keys, half, upper.keys, 0, upper.size);
+            System.arraycopy(values, half, upper.values, 0, upper.size);
+            Arrays.fill(values, half, size, null);
+            size = half;
+            return upper;
+        }
+    }
+}
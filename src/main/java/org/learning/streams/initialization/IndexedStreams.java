@@ -0,0 +1,301 @@
+package org.learning.streams.initialization;
+
+import java.util.Spliterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/*
+ * Finite sources where element i is computed from its index instead of from the previous element.
+ *
+ * Stream.generate(supplier).limit(n) has no size and calls one shared supplier, and Stream.iterate(seed, f).limit(n)
+ * needs element i-1 to compute element i, so parallel() can only hand out small batches from one thread.
+ * Here every element is f(i), the spliterator is SIZED/SUBSIZED and trySplit just halves the index range,
+ * so each core gets an equal independent slice and parallel() scales with the cores.
+ *
+ * usage:
+ * Stream<String> labels  = IndexedStreams.generate(5, i -> "item-" + i);      // item-0 .. item-4
+ * IntStream evenNumbers  = IndexedStreams.arithmetic(0, 2, 11);               // same as Stream.iterate(0, x -> x + 2).limit(11)
+ * DoubleStream randoms   = IndexedStreams.randomDoubles(10, 42).parallel();   // same values as new SplittableRandom(42).doubles(10)
+ * */
+public final class IndexedStreams {
+
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE;
+    private static final int PRIMITIVE_CHARACTERISTICS = CHARACTERISTICS | Spliterator.NONNULL;
+
+    /*a range smaller than this isn't worth handing to another thread*/
+    private static final long MIN_SPLIT_SIZE = 1024;
+
+    /*SplittableRandom's constants so randomX(size, seed) gives the same values as new SplittableRandom(seed)*/
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private IndexedStreams() {
+    }
+
+    /*element i is generator.apply(i) for i in [0, size)*/
+    public static <T> Stream<T> generate(long size, LongFunction<? extends T> generator) {
+        return StreamSupport.stream(new RefSpliterator<>(0, checkSize(size), generator), false);
+    }
+
+    public static IntStream generateInts(long size, LongToIntFunction generator) {
+        return StreamSupport.intStream(new IntSpliterator(0, checkSize(size), generator), false);
+    }
+
+    public static LongStream generateLongs(long size, LongUnaryOperator generator) {
+        return StreamSupport.longStream(new LongSpliterator(0, checkSize(size), generator), false);
+    }
+
+    public static DoubleStream generateDoubles(long size, LongToDoubleFunction generator) {
+        return StreamSupport.doubleStream(new DoubleSpliterator(0, checkSize(size), generator), false);
+    }
+
+    /*
+     * first, first + step, first + 2 * step, ... (size elements) in closed form: element i is first + i * step.
+     * replaces Stream.iterate(first, x -> x + step).limit(size), values wrap on overflow like x + step would
+     * */
+    public static LongStream arithmetic(long first, long step, long size) {
+        return generateLongs(size, i -> first + i * step);
+    }
+
+    public static IntStream arithmetic(int first, int step, int size) {
+        return generateInts(size, i -> first + (int) i * step);
+    }
+
+    /*
+     * Random streams computed from the index (counter based): value i is the SplitMix64 mix of seed + (i + 1) * GOLDEN_GAMMA,
+     * which is exactly what the i-th nextLong()/nextInt()/nextDouble() of new SplittableRandom(seed) returns.
+     * There is no shared generator to contend on (unlike Math.random) and the values don't depend on how the stream
+     * was split, so a parallel run gives the same elements in the same order as the sequential one.
+     * */
+    public static DoubleStream randomDoubles(long size, long seed) {
+        return generateDoubles(size, i -> (mix64(seed + (i + 1) * GOLDEN_GAMMA) >>> 11) * DOUBLE_UNIT);
+    }
+
+    /*replaces Stream.generate(Math::random).limit(size), seeded randomly on every call*/
+    public static DoubleStream randomDoubles(long size) {
+        return randomDoubles(size, ThreadLocalRandom.current().nextLong());
+    }
+
+    public static LongStream randomLongs(long size, long seed) {
+        return generateLongs(size, i -> mix64(seed + (i + 1) * GOLDEN_GAMMA));
+    }
+
+    public static IntStream randomInts(long size, long seed) {
+        return generateInts(size, i -> mix32(seed + (i + 1) * GOLDEN_GAMMA));
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int mix32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+
+    private static long checkSize(long size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size can't be negative: " + size);
+        }
+        return size;
+    }
+
+    /*
+     * index range [index, fence), trySplit gives away the first half so the split off part keeps the encounter order.
+     * The four subclasses only differ in the generator type and the consumer they push to.
+     * */
+    private abstract static class IndexSpliterator {
+        long index;
+        final long fence;
+
+        IndexSpliterator(long index, long fence) {
+            this.index = index;
+            this.fence = fence;
+        }
+
+        /*returns the start of the split off prefix [start, middle) or -1 when the range is too small to split*/
+        long splitPrefix() {
+            long start = index;
+            long middle = start + ((fence - start) >>> 1);
+            if (middle - start < MIN_SPLIT_SIZE) {
+                return -1;
+            }
+            index = middle;
+            return start;
+        }
+
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        public long getExactSizeIfKnown() {
+            return fence - index;
+        }
+    }
+
+    private static final class RefSpliterator<T> extends IndexSpliterator implements Spliterator<T> {
+        private final LongFunction<? extends T> generator;
+
+        RefSpliterator(long index, long fence, LongFunction<? extends T> generator) {
+            super(index, fence);
+            this.generator = generator;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(generator.apply(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            long end = fence;
+            for (long i = index; i < end; i++) {
+                action.accept(generator.apply(i));
+            }
+            index = end;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            long start = splitPrefix();
+            return start < 0 ? null : new RefSpliterator<>(start, index, generator);
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    private static final class IntSpliterator extends IndexSpliterator implements Spliterator.OfInt {
+        private final LongToIntFunction generator;
+
+        IntSpliterator(long index, long fence, LongToIntFunction generator) {
+            super(index, fence);
+            this.generator = generator;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(generator.applyAsInt(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            long end = fence;
+            for (long i = index; i < end; i++) {
+                action.accept(generator.applyAsInt(i));
+            }
+            index = end;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            long start = splitPrefix();
+            return start < 0 ? null : new IntSpliterator(start, index, generator);
+        }
+
+        @Override
+        public int characteristics() {
+            return PRIMITIVE_CHARACTERISTICS;
+        }
+    }
+
+    private static final class LongSpliterator extends IndexSpliterator implements Spliterator.OfLong {
+        private final LongUnaryOperator generator;
+
+        LongSpliterator(long index, long fence, LongUnaryOperator generator) {
+            super(index, fence);
+            this.generator = generator;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(generator.applyAsLong(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            long end = fence;
+            for (long i = index; i < end; i++) {
+                action.accept(generator.applyAsLong(i));
+            }
+            index = end;
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            long start = splitPrefix();
+            return start < 0 ? null : new LongSpliterator(start, index, generator);
+        }
+
+        @Override
+        public int characteristics() {
+            return PRIMITIVE_CHARACTERISTICS;
+        }
+    }
+
+    private static final class DoubleSpliterator extends IndexSpliterator implements Spliterator.OfDouble {
+        private final LongToDoubleFunction generator;
+
+        DoubleSpliterator(long index, long fence, LongToDoubleFunction generator) {
+            super(index, fence);
+            this.generator = generator;
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(generator.applyAsDouble(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            long end = fence;
+            for (long i = index; i < end; i++) {
+                action.accept(generator.applyAsDouble(i));
+            }
+            index = end;
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit() {
+            long start = splitPrefix();
+            return start < 0 ? null : new DoubleSpliterator(start, index, generator);
+        }
+
+        @Override
+        public int characteristics() {
+            return PRIMITIVE_CHARACTERISTICS;
+        }
+    }
+}
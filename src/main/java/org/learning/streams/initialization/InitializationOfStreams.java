@@ -1,6 +1,9 @@
 package org.learning.streams.initialization;
 
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -16,7 +19,7 @@ public class InitializationOfStreams {
     * Initialization of stream
     * */
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         log.info("1. Stream creation via collection");
         /*
         * 1. via collection
@@ -97,6 +100,12 @@ public class InitializationOfStreams {
         Stream<Integer> iterateWithPredicate = Stream.iterate(0, x -> x < 5, x -> x + 1); // here middle parameter is predicate for stop condition
         iterateWithPredicate.forEach(System.out::println);
 
+        log.info("generate and iterate can't be split well for parallel(): Math.random shares one Random and iterate needs the previous element");
+        log.info("computing element i from the index gives a SIZED source that splits evenly, see IndexedStreams");
+        IndexedStreams.randomDoubles(10, 42).parallel().forEachOrdered(System.out::println); // same values as new SplittableRandom(42).doubles(10)
+        IndexedStreams.arithmetic(0, 2, 11).parallel().forEachOrdered(System.out::println); // 0 2 4 .. 20 same as iterate(0, x -> x + 2).limit(11)
+        IndexedStreams.generate(3, i -> "item-" + i).forEach(System.out::println); // item-0 item-1 item-2
+
         log.info("range and rangeClosed for IntStream");
         /*
         * 6. Range and RangeClosed for primitive stream generation
@@ -110,6 +119,19 @@ public class InitializationOfStreams {
         /*b. rangeClosed to include the second val*/
         IntStream rangeClosedToIncludeSecondVal = IntStream.rangeClosed(1, 11);
         rangeClosedToIncludeSecondVal.forEach(System.out::println);
+
+        log.info("8. Stream creation via files");
+        /*
+        * 8. Via files
+        * */
+        Path file = Files.createTempFile("initialization-of-streams", ".txt");
+        Files.write(file, List.of("first line", "second line", "third line"));
+        try (Stream<String> lines = Files.lines(file)) { // one BufferedReader, parallel() only takes batches from it
+            lines.forEach(System.out::println);
+        }
+        log.info("memory mapped file, parallel() splits the file at line boundaries, see MappedFileStreams");
+        MappedFileStreams.lines(file).parallel().map(String::toUpperCase).forEachOrdered(System.out::println);
+        Files.delete(file);
     }
 
 }
@@ -0,0 +1,381 @@
+package org.learning.streams.initialization;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/*
+ * File sources read straight from a memory mapping, for scanning big files with parallel().
+ *
+ * Files.lines/BufferedReader read through one reader: the bytes are copied into its buffer, decoded to a char buffer
+ * and cut into lines one after the other, so parallel() can only take batches of lines from that single reader.
+ * Here the file is mapped (the OS pages it in, nothing is copied until a record becomes a String/int) and the
+ * spliterator owns a byte range of the file:
+ * - text records (lines, delimited records): trySplit jumps to the middle of the range and moves forward to the byte
+ *   after the next delimiter, so both halves start at a record boundary and no record is cut or read twice.
+ *   UTF-8 never uses bytes < 0x80 inside a multi byte character, so searching the raw bytes for an ASCII delimiter is safe.
+ * - fixed width ints/longs: SIZED, trySplit halves the element range like IndexedStreams
+ *
+ * Files bigger than 2 GB (the limit of one MappedByteBuffer) are mapped as several 1 GB regions.
+ * The mapping is released when the buffers are garbage collected, there is nothing to close.
+ * Differences to Files.lines: only '\n' and "\r\n" end a line (not a lone '\r') and malformed UTF-8 is replaced with
+ * U+FFFD instead of throwing. If the file changes while it is mapped the stream sees the new bytes.
+ *
+ * usage:
+ * long errors = MappedFileStreams.lines(Path.of("/var/log/app.log")).parallel().filter(l -> l.contains("ERROR")).count();
+ * Stream<String[]> rows = MappedFileStreams.fields(Path.of("/data/users.csv"), ',');
+ * long sum = MappedFileStreams.longs(Path.of("/data/ids.bin")).parallel().sum();        // big endian like DataOutputStream
+ * */
+public final class MappedFileStreams {
+
+    private static final int REGION_SHIFT = 30;
+    private static final long REGION_SIZE = 1L << REGION_SHIFT;
+    private static final long REGION_MASK = REGION_SIZE - 1;
+
+    /*a byte range smaller than this isn't worth handing to another thread*/
+    private static final long MIN_SPLIT_BYTES = 64 * 1024;
+    /*same for the fixed width sources, in elements*/
+    private static final long MIN_SPLIT_SIZE = 1024;
+
+    private static final int TEXT_CHARACTERISTICS = Spliterator.ORDERED | Spliterator.NONNULL;
+    private static final int FIXED_WIDTH_CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED
+            | Spliterator.NONNULL;
+
+    private MappedFileStreams() {
+    }
+
+    /*the lines of a UTF-8 file without the "\n" or "\r\n", like Files.lines(file)*/
+    public static Stream<String> lines(Path file) {
+        return StreamSupport.stream(new RecordSpliterator(MappedFile.map(file, ByteOrder.LITTLE_ENDIAN), (byte) '\n', true), false);
+    }
+
+    /*the records of a UTF-8 file separated by an ASCII delimiter, eg: '\0' or ';', without the delimiter*/
+    public static Stream<String> records(Path file, char delimiter) {
+        if (delimiter >= 0x80) {
+            throw new IllegalArgumentException("the delimiter must be an ASCII character: " + delimiter);
+        }
+        return StreamSupport.stream(new RecordSpliterator(MappedFile.map(file, ByteOrder.LITTLE_ENDIAN), (byte) delimiter, false), false);
+    }
+
+    /*every line split at separator (plain split, no quoting), eg: the rows of a simple csv file*/
+    public static Stream<String[]> fields(Path file, char separator) {
+        return lines(file).map(line -> split(line, separator));
+    }
+
+    /*the file as consecutive 4 byte ints, big endian like DataOutputStream.writeInt*/
+    public static IntStream ints(Path file) {
+        return ints(file, ByteOrder.BIG_ENDIAN);
+    }
+
+    public static IntStream ints(Path file, ByteOrder order) {
+        MappedFile mapped = MappedFile.map(file, order);
+        return StreamSupport.intStream(new IntSpliterator(mapped, 0, elementCount(mapped, Integer.BYTES)), false);
+    }
+
+    /*the file as consecutive 8 byte longs, big endian like DataOutputStream.writeLong*/
+    public static LongStream longs(Path file) {
+        return longs(file, ByteOrder.BIG_ENDIAN);
+    }
+
+    public static LongStream longs(Path file, ByteOrder order) {
+        MappedFile mapped = MappedFile.map(file, order);
+        return StreamSupport.longStream(new LongSpliterator(mapped, 0, elementCount(mapped, Long.BYTES)), false);
+    }
+
+    private static long elementCount(MappedFile mapped, int width) {
+        if (mapped.size % width != 0) {
+            throw new IllegalArgumentException("file size " + mapped.size + " is not a multiple of " + width + " bytes");
+        }
+        return mapped.size / width;
+    }
+
+    private static String[] split(String line, char separator) {
+        List<String> fields = new ArrayList<>();
+        int start = 0;
+        for (int end = line.indexOf(separator); end >= 0; end = line.indexOf(separator, start)) {
+            fields.add(line.substring(start, end));
+            start = end + 1;
+        }
+        fields.add(line.substring(start));
+        return fields.toArray(String[]::new);
+    }
+
+    /*the whole file mapped read only as regions of REGION_SIZE bytes, byte at position p is in region p >>> REGION_SHIFT*/
+    private static final class MappedFile {
+        private static final long ONES = 0x0101010101010101L;
+        private static final long HIGH_BITS = 0x8080808080808080L;
+
+        final MappedByteBuffer[] regions;
+        final long size;
+
+        private MappedFile(MappedByteBuffer[] regions, long size) {
+            this.regions = regions;
+            this.size = size;
+        }
+
+        static MappedFile map(Path file, ByteOrder order) {
+            // the mapping stays valid after the channel is closed
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                MappedByteBuffer[] regions = new MappedByteBuffer[(int) ((size + REGION_SIZE - 1) >>> REGION_SHIFT)];
+                for (int i = 0; i < regions.length; i++) {
+                    long start = (long) i << REGION_SHIFT;
+                    regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(REGION_SIZE, size - start));
+                    regions[i].order(order);
+                }
+                return new MappedFile(regions, size);
+            } catch (IOException e) {
+                throw new UncheckedIOException("can't map " + file, e);
+            }
+        }
+
+        byte get(long position) {
+            return regions[(int) (position >>> REGION_SHIFT)].get((int) (position & REGION_MASK));
+        }
+
+        /*
+         * position of the first delimiter in [from, to) or -1. Tests 8 bytes per step: xor with the delimiter
+         * repeated 8 times turns a matching byte into 0 and (word - 0x01..01) & ~word & 0x80..80 flags the lowest 0 byte
+         * (the regions used for text are little endian, so the lowest byte is the first one in the file).
+         * */
+        long indexOf(byte delimiter, long from, long to) {
+            long pattern = ONES * (delimiter & 0xFF);
+            while (from < to) {
+                MappedByteBuffer region = regions[(int) (from >>> REGION_SHIFT)];
+                long regionStart = from & ~REGION_MASK;
+                int i = (int) (from - regionStart);
+                int end = (int) Math.min(to - regionStart, REGION_SIZE);
+                for (; i <= end - Long.BYTES; i += Long.BYTES) {
+                    long word = region.getLong(i) ^ pattern;
+                    long found = (word - ONES) & ~word & HIGH_BITS;
+                    if (found != 0) {
+                        return regionStart + i + (Long.numberOfTrailingZeros(found) >>> 3);
+                    }
+                }
+                for (; i < end; i++) {
+                    if (region.get(i) == delimiter) {
+                        return regionStart + i;
+                    }
+                }
+                from = regionStart + end;
+            }
+            return -1;
+        }
+
+        /*copies [from, to) into target, a range can span two regions*/
+        void copy(long from, byte[] target, int length) {
+            int copied = 0;
+            while (copied < length) {
+                long position = from + copied;
+                int offset = (int) (position & REGION_MASK);
+                int chunk = (int) Math.min(length - copied, REGION_SIZE - offset);
+                regions[(int) (position >>> REGION_SHIFT)].get(offset, target, copied, chunk);
+                copied += chunk;
+            }
+        }
+    }
+
+    /*
+     * byte range [position, fence) that starts at a record boundary (or the file start) and ends at one (or the file end).
+     * estimateSize is the remaining bytes, the number of records isn't known without scanning.
+     * */
+    private static final class RecordSpliterator implements Spliterator<String> {
+        private final MappedFile file;
+        private final byte delimiter;
+        private final boolean stripCarriageReturn;
+        private long position;
+        private final long fence;
+        private byte[] scratch = new byte[256];
+
+        RecordSpliterator(MappedFile file, byte delimiter, boolean stripCarriageReturn) {
+            this(file, delimiter, stripCarriageReturn, 0, file.size);
+        }
+
+        private RecordSpliterator(MappedFile file, byte delimiter, boolean stripCarriageReturn, long position, long fence) {
+            this.file = file;
+            this.delimiter = delimiter;
+            this.stripCarriageReturn = stripCarriageReturn;
+            this.position = position;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            if (position >= fence) {
+                return false;
+            }
+            long end = file.indexOf(delimiter, position, fence);
+            long next = end < 0 ? fence : end + 1;
+            if (end < 0) {
+                end = fence; // last record without a trailing delimiter
+            }
+            if (stripCarriageReturn && end > position && file.get(end - 1) == '\r') {
+                end--;
+            }
+            String record = decode(position, end);
+            position = next;
+            action.accept(record);
+            return true;
+        }
+
+        /*gives away the prefix up to the first record boundary after the middle of the range*/
+        @Override
+        public Spliterator<String> trySplit() {
+            long start = position;
+            if (fence - start < MIN_SPLIT_BYTES) {
+                return null;
+            }
+            long boundary = file.indexOf(delimiter, start + ((fence - start) >>> 1), fence);
+            if (boundary < 0 || boundary + 1 >= fence) {
+                return null; // the second half is a single record
+            }
+            position = boundary + 1;
+            return new RecordSpliterator(file, delimiter, stripCarriageReturn, start, position);
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - position;
+        }
+
+        @Override
+        public int characteristics() {
+            return TEXT_CHARACTERISTICS;
+        }
+
+        private String decode(long from, long to) {
+            long length = to - from;
+            if (length > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("record at byte " + from + " is too long for a String: " + length + " bytes");
+            }
+            if (scratch.length < length) {
+                scratch = new byte[(int) Math.max(length, scratch.length * 2L)];
+            }
+            file.copy(from, scratch, (int) length);
+            return new String(scratch, 0, (int) length, StandardCharsets.UTF_8);
+        }
+    }
+
+    /*element range [index, fence), element i starts at byte i * width, regions are a multiple of 8 so no element spans two*/
+    private abstract static class FixedWidthSpliterator {
+        final MappedFile file;
+        long index;
+        final long fence;
+
+        FixedWidthSpliterator(MappedFile file, long index, long fence) {
+            this.file = file;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        /*returns the start of the split off prefix [start, middle) or -1 when the range is too small to split*/
+        long splitPrefix() {
+            long start = index;
+            long middle = start + ((fence - start) >>> 1);
+            if (middle - start < MIN_SPLIT_SIZE) {
+                return -1;
+            }
+            index = middle;
+            return start;
+        }
+
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        public long getExactSizeIfKnown() {
+            return fence - index;
+        }
+
+        public int characteristics() {
+            return FIXED_WIDTH_CHARACTERISTICS;
+        }
+    }
+
+    private static final class IntSpliterator extends FixedWidthSpliterator implements Spliterator.OfInt {
+
+        IntSpliterator(MappedFile file, long index, long fence) {
+            super(file, index, fence);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(get(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            long end = fence;
+            for (long i = index; i < end; i++) {
+                action.accept(get(i));
+            }
+            index = end;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            long start = splitPrefix();
+            return start < 0 ? null : new IntSpliterator(file, start, index);
+        }
+
+        private int get(long i) {
+            long position = i * Integer.BYTES;
+            return file.regions[(int) (position >>> REGION_SHIFT)].getInt((int) (position & REGION_MASK));
+        }
+    }
+
+    private static final class LongSpliterator extends FixedWidthSpliterator implements Spliterator.OfLong {
+
+        LongSpliterator(MappedFile file, long index, long fence) {
+            super(file, index, fence);
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(get(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            long end = fence;
+            for (long i = index; i < end; i++) {
+                action.accept(get(i));
+            }
+            index = end;
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            long start = splitPrefix();
+            return start < 0 ? null : new LongSpliterator(file, start, index);
+        }
+
+        private long get(long i) {
+            long position = i * Long.BYTES;
+            return file.regions[(int) (position >>> REGION_SHIFT)].getLong((int) (position & REGION_MASK));
+        }
+    }
+}
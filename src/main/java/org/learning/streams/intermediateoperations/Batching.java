@@ -0,0 +1,516 @@
+package org.learning.streams.intermediateoperations;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/*
+ * Groups stream elements into batches/windows for sinks that are much cheaper per batch than per element
+ * (one FileChannel.write of 1024 ints instead of 1024 writes, one bulk insert instead of 1024 inserts).
+ *
+ * batch(stream, n)                 [1,2,3,4,5] n=2 -> [1,2] [3,4] [5]         tumbling windows, the last one can be shorter
+ * batch(stream, n, maxWait)        same, but a batch is also handed on when maxWait passed since its first element
+ * sliding(stream, size, step)      [1,2,3,4,5] size=3 step=1 -> [1,2,3] [2,3,4] [3,4,5]   only full windows
+ * forEachBatch(stream, n, sink)    terminal, reuses ONE buffer for all batches: no allocation per batch
+ *
+ * Buffers: batch/sliding hand out a new list/array per batch because the downstream may keep it (toList, collect..).
+ * forEachBatch reuses its buffer, the sink has to finish with it before returning (write it, don't store it).
+ *
+ * Parallel: grouping needs the encounter order, so batch/sliding form the batches in one pass over the source and, when
+ * the source is parallel, the downstream stages run the batches in parallel (the batches and their order are the same
+ * as in a sequential run). batch(stream, n, maxWait) is always sequential, its batches depend on arrival times.
+ * batch(list, n) cuts a List into subList views by index, that splits exactly like the list itself.
+ * forEachBatch on a parallel stream fills one buffer per thread and calls the sink from several threads at once.
+ * */
+public final class Batching {
+
+    /*buffers start small and grow up to the batch size, batch(stream, Integer.MAX_VALUE) on 3 elements allocates 3 slots*/
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Batching() {
+    }
+
+    /*tumbling batches of size elements, every batch is a new list owned by the caller*/
+    public static <T> Stream<List<T>> batch(Stream<T> source, int size) {
+        checkPositive(size, "size");
+        Spliterator<T> elements = source.spliterator();
+        return StreamSupport.stream(new BatchSpliterator<>(elements, size), source.isParallel()).onClose(source::close);
+    }
+
+    /*subList views of size elements, no copy and perfectly splittable (reads through to the list, don't modify it meanwhile)*/
+    public static <T> Stream<List<T>> batch(List<T> list, int size) {
+        checkPositive(size, "size");
+        int batches = (int) ((list.size() + (long) size - 1) / size);
+        return IntStream.range(0, batches).mapToObj(i -> list.subList(i * size, Math.min(list.size(), (i + 1) * size)));
+    }
+
+    /*tumbling batches of ints, the last array is trimmed to the remaining length*/
+    public static Stream<int[]> batch(IntStream source, int size) {
+        checkPositive(size, "size");
+        Spliterator.OfInt elements = source.spliterator();
+        return StreamSupport.stream(new IntBatchSpliterator(elements, size), source.isParallel()).onClose(source::close);
+    }
+
+    /*
+     * batches of at most maxSize elements, a batch is also handed on once maxWait passed since its first element arrived.
+     * For slow sources (a queue, a socket, a tailed file): the sink gets data at least every maxWait instead of waiting
+     * for a full batch. The source is read by a virtual thread into a small bounded queue, so a slow consumer stops it.
+     * Close the stream when stopping early (try-with-resources) to stop the reader.
+     * */
+    public static <T> Stream<List<T>> batch(Stream<T> source, int maxSize, Duration maxWait) {
+        checkPositive(maxSize, "maxSize");
+        if (maxWait.isNegative() || maxWait.isZero()) {
+            throw new IllegalArgumentException("maxWait must be positive: " + maxWait);
+        }
+        TimedBatchSpliterator<T> batches = new TimedBatchSpliterator<>(source, maxSize, maxWait.toNanos());
+        return StreamSupport.stream(batches, false).onClose(batches::close);
+    }
+
+    /*
+     * windows of size elements starting every step elements, only full windows are returned.
+     * step == size is a tumbling window, step < size overlapping windows, step > size skips the elements in between
+     * */
+    public static <T> Stream<List<T>> sliding(Stream<T> source, int size, int step) {
+        checkPositive(size, "size");
+        checkPositive(step, "step");
+        Spliterator<T> elements = source.spliterator();
+        return StreamSupport.stream(new SlidingSpliterator<>(elements, size, step), source.isParallel()).onClose(source::close);
+    }
+
+    public static Stream<int[]> sliding(IntStream source, int size, int step) {
+        checkPositive(size, "size");
+        checkPositive(step, "step");
+        Spliterator.OfInt elements = source.spliterator();
+        return StreamSupport.stream(new IntSlidingSpliterator(elements, size, step), source.isParallel()).onClose(source::close);
+    }
+
+    /*calls sink with every batch of size elements (the last one can be shorter), the list is cleared and reused afterwards*/
+    public static <T> void forEachBatch(Stream<T> source, int size, Consumer<? super List<T>> sink) {
+        checkPositive(size, "size");
+        Objects.requireNonNull(sink, "sink");
+        source.collect(() -> new BatchBuffer<T>(size, sink), BatchBuffer::add, BatchBuffer::addAll).flush();
+    }
+
+    /*calls sink with (buffer, length) for every batch, only buffer[0, length) is valid and buffer is reused afterwards*/
+    public static void forEachBatch(IntStream source, int size, ObjIntConsumer<int[]> sink) {
+        checkPositive(size, "size");
+        Objects.requireNonNull(sink, "sink");
+        source.collect(() -> new IntBatchBuffer(size, sink), IntBatchBuffer::add, IntBatchBuffer::addAll).flush();
+    }
+
+    private static void checkPositive(int value, String name) {
+        if (value < 1) {
+            throw new IllegalArgumentException(name + " must be positive: " + value);
+        }
+    }
+
+    private static int batchCharacteristics(Spliterator<?> source) {
+        return source.characteristics() & Spliterator.ORDERED | Spliterator.NONNULL;
+    }
+
+    private static long batchEstimate(Spliterator<?> source, int size) {
+        long elements = source.estimateSize();
+        return elements == Long.MAX_VALUE ? Long.MAX_VALUE : (elements + size - 1) / size;
+    }
+
+    /*the size of the last full batch, or less when the source says fewer elements are left*/
+    private static int batchCapacity(Spliterator<?> source, int capacity) {
+        return (int) Math.min(capacity, source.estimateSize());
+    }
+
+    private static int grow(int length, int size) {
+        return (int) Math.min(size, Math.max(INITIAL_CAPACITY, length * 2L));
+    }
+
+    /*
+     * AbstractSpliterator's trySplit takes whole batches from this spliterator into an array for another thread,
+     * that's what keeps the batches the same as in a sequential run
+     * */
+    private static final class BatchSpliterator<T> extends Spliterators.AbstractSpliterator<List<T>> {
+        private final Spliterator<T> source;
+        private final int size;
+        private int capacity;
+
+        BatchSpliterator(Spliterator<T> source, int size) {
+            super(batchEstimate(source, size), batchCharacteristics(source));
+            this.source = source;
+            this.size = size;
+            this.capacity = Math.min(size, INITIAL_CAPACITY);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super List<T>> action) {
+            List<T> batch = new ArrayList<>(batchCapacity(source, capacity));
+            while (batch.size() < size && source.tryAdvance(batch::add)) {
+                // fills the batch
+            }
+            if (batch.isEmpty()) {
+                return false;
+            }
+            capacity = Math.max(capacity, batch.size());
+            action.accept(batch);
+            return true;
+        }
+    }
+
+    private static final class IntBatchSpliterator extends Spliterators.AbstractSpliterator<int[]> {
+        private final Spliterator.OfInt source;
+        private final int size;
+        private final IntConsumer add = this::add;
+        private int capacity;
+        private int[] batch;
+        private int length;
+
+        IntBatchSpliterator(Spliterator.OfInt source, int size) {
+            super(batchEstimate(source, size), batchCharacteristics(source));
+            this.source = source;
+            this.size = size;
+            this.capacity = Math.min(size, INITIAL_CAPACITY);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super int[]> action) {
+            batch = new int[batchCapacity(source, capacity)];
+            length = 0;
+            while (length < size && source.tryAdvance(add)) {
+                // fills the batch
+            }
+            if (length == 0) {
+                return false;
+            }
+            capacity = Math.max(capacity, length);
+            action.accept(length == batch.length ? batch : Arrays.copyOf(batch, length));
+            return true;
+        }
+
+        private void add(int value) {
+            if (length == batch.length) {
+                batch = Arrays.copyOf(batch, grow(length, size));
+            }
+            batch[length++] = value;
+        }
+    }
+
+    private static final class SlidingSpliterator<T> extends Spliterators.AbstractSpliterator<List<T>> {
+        private final Spliterator<T> source;
+        private final int size;
+        private final int step;
+        private final ArrayDeque<T> window;
+        /*elements between two windows when step > size*/
+        private long toSkip;
+
+        SlidingSpliterator(Spliterator<T> source, int size, int step) {
+            super(source.estimateSize(), batchCharacteristics(source));
+            this.source = source;
+            this.size = size;
+            this.step = step;
+            this.window = new ArrayDeque<>(Math.min(size, INITIAL_CAPACITY));
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super List<T>> action) {
+            while (toSkip > 0 && source.tryAdvance(skipped -> {
+            })) {
+                toSkip--;
+            }
+            while (window.size() < size && source.tryAdvance(window::addLast)) {
+                // fills the window
+            }
+            if (window.size() < size) {
+                return false;
+            }
+            List<T> copy = new ArrayList<>(window);
+            for (int i = 0; i < Math.min(step, size); i++) {
+                window.pollFirst();
+            }
+            toSkip = Math.max(0, step - size);
+            action.accept(copy);
+            return true;
+        }
+    }
+
+    /*the window is a ring of ints starting at head, every window is copied out in order into a new array*/
+    private static final class IntSlidingSpliterator extends Spliterators.AbstractSpliterator<int[]> {
+        private final Spliterator.OfInt source;
+        private final int size;
+        private final int step;
+        private final IntConsumer add = this::add;
+        private int[] ring;
+        private int head;
+        private int length;
+        /*elements between two windows when step > size*/
+        private long toSkip;
+
+        IntSlidingSpliterator(Spliterator.OfInt source, int size, int step) {
+            super(source.estimateSize(), batchCharacteristics(source));
+            this.source = source;
+            this.size = size;
+            this.step = step;
+            this.ring = new int[Math.min(size, INITIAL_CAPACITY)];
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super int[]> action) {
+            while (toSkip > 0 && source.tryAdvance((int skipped) -> {
+            })) {
+                toSkip--;
+            }
+            while (length < size && source.tryAdvance(add)) {
+                // fills the window
+            }
+            if (length < size) {
+                return false;
+            }
+            int[] window = new int[size];
+            int untilEnd = Math.min(size, ring.length - head);
+            System.arraycopy(ring, head, window, 0, untilEnd);
+            System.arraycopy(ring, 0, window, untilEnd, size - untilEnd);
+            int dropped = Math.min(step, size);
+            head = (head + dropped) % ring.length;
+            length -= dropped;
+            toSkip = Math.max(0, step - size);
+            action.accept(window);
+            return true;
+        }
+
+        private void add(int value) {
+            if (length == ring.length) {
+                int[] grown = new int[grow(length, size)];
+                int untilEnd = ring.length - head;
+                System.arraycopy(ring, head, grown, 0, untilEnd);
+                System.arraycopy(ring, 0, grown, untilEnd, head);
+                ring = grown;
+                head = 0;
+            }
+            ring[(head + length) % ring.length] = value;
+            length++;
+        }
+    }
+
+    /*one per thread (collect's container), the combiner adds the right side's leftovers to the left buffer*/
+    private static final class BatchBuffer<T> {
+        private final int size;
+        private final Consumer<? super List<T>> sink;
+        private final List<T> buffer;
+
+        BatchBuffer(int size, Consumer<? super List<T>> sink) {
+            this.size = size;
+            this.sink = sink;
+            this.buffer = new ArrayList<>(Math.min(size, INITIAL_CAPACITY));
+        }
+
+        void add(T element) {
+            buffer.add(element);
+            if (buffer.size() == size) {
+                flush();
+            }
+        }
+
+        void addAll(BatchBuffer<T> other) {
+            for (T element : other.buffer) {
+                add(element);
+            }
+            other.buffer.clear();
+        }
+
+        void flush() {
+            if (!buffer.isEmpty()) {
+                sink.accept(buffer);
+                buffer.clear();
+            }
+        }
+    }
+
+    private static final class IntBatchBuffer {
+        private final int size;
+        private final ObjIntConsumer<int[]> sink;
+        private int[] buffer;
+        private int length;
+
+        IntBatchBuffer(int size, ObjIntConsumer<int[]> sink) {
+            this.size = size;
+            this.sink = sink;
+            this.buffer = new int[Math.min(size, INITIAL_CAPACITY)];
+        }
+
+        void add(int value) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, grow(length, size));
+            }
+            buffer[length++] = value;
+            if (length == size) {
+                flush();
+            }
+        }
+
+        void addAll(IntBatchBuffer other) {
+            for (int i = 0; i < other.length; i++) {
+                add(other.buffer[i]);
+            }
+            other.length = 0;
+        }
+
+        void flush() {
+            if (length > 0) {
+                sink.accept(buffer, length);
+                length = 0;
+            }
+        }
+    }
+
+    /*
+     * A virtual thread moves the source into a bounded queue, the consumer polls it with the time left for the batch.
+     * END marks the end of the source, a Failure carries the source's exception over to the consumer. A failure after some
+     * elements of a batch ends that batch, it's handed on first and the exception is thrown by the next tryAdvance.
+     * */
+    private static final class TimedBatchSpliterator<T> extends Spliterators.AbstractSpliterator<List<T>> {
+        private static final Object END = new Object();
+        private static final Object NULL = new Object();
+
+        private final Stream<T> source;
+        private final int maxSize;
+        private final long maxWaitNanos;
+        private final BlockingQueue<Object> queue;
+        private Thread reader;
+        private boolean finished;
+        /*the source failed after the elements of the batch just handed on, thrown by the next tryAdvance*/
+        private Failure failure;
+        /*set by close() before it interrupts the reader, tells its CancellationException apart from one thrown by the source*/
+        private volatile boolean closed;
+
+        TimedBatchSpliterator(Stream<T> source, int maxSize, long maxWaitNanos) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.source = source;
+            this.maxSize = maxSize;
+            this.maxWaitNanos = maxWaitNanos;
+            this.queue = new ArrayBlockingQueue<>(Math.min(maxSize, 1 << 16) * 2);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super List<T>> action) {
+            if (failure != null) {
+                throw rethrow(failure);
+            }
+            if (finished) {
+                return false;
+            }
+            if (reader == null) {
+                reader = Thread.ofVirtual().name("batch-reader").start(this::read);
+            }
+            Object first = take();
+            if (first == END) {
+                finished = true;
+                return false;
+            }
+            if (first instanceof Failure failed) {
+                throw rethrow(failed);
+            }
+            List<T> batch = new ArrayList<>();
+            batch.add(unwrap(first));
+            long deadline = System.nanoTime() + maxWaitNanos;
+            while (batch.size() < maxSize) {
+                Object next = poll(deadline - System.nanoTime());
+                if (next == null) {
+                    break; // maxWait is over, hand on what we have
+                }
+                if (next == END) {
+                    finished = true;
+                    break;
+                }
+                if (next instanceof Failure failed) {
+                    failure = failed; // hand on the elements read before it, the next call throws
+                    break;
+                }
+                batch.add(unwrap(next));
+            }
+            action.accept(batch);
+            return true;
+        }
+
+        private void read() {
+            try {
+                source.forEach(element -> put(element == null ? NULL : element));
+                put(END);
+            } catch (RuntimeException | Error e) {
+                if (closed) {
+                    return; // closed, nobody is waiting for the rest
+                }
+                try {
+                    queue.put(new Failure(e)); // after the elements read before the failure
+                } catch (InterruptedException closed) {
+                    // closed meanwhile, nobody is waiting for the failure either
+                }
+            }
+        }
+
+        private void put(Object element) {
+            try {
+                queue.put(element);
+            } catch (InterruptedException e) {
+                throw new CancellationException("batch stream closed");
+            }
+        }
+
+        private Object take() {
+            try {
+                return queue.take();
+            } catch (InterruptedException e) {
+                throw interrupted();
+            }
+        }
+
+        private Object poll(long timeoutNanos) {
+            try {
+                return timeoutNanos <= 0 ? queue.poll() : queue.poll(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                throw interrupted();
+            }
+        }
+
+        private RuntimeException interrupted() {
+            close();
+            Thread.currentThread().interrupt();
+            return new CancellationException("interrupted while waiting for the next batch");
+        }
+
+        @SuppressWarnings("unchecked")
+        private T unwrap(Object element) {
+            return element == NULL ? null : (T) element;
+        }
+
+        private RuntimeException rethrow(Failure failed) {
+            close();
+            if (failed.cause() instanceof Error error) {
+                throw error;
+            }
+            return (RuntimeException) failed.cause();
+        }
+
+        void close() {
+            closed = true;
+            finished = true;
+            if (reader != null) {
+                reader.interrupt();
+            }
+            source.close();
+        }
+
+        private record Failure(Throwable cause) {
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.learning.streams.intermediateoperations;
+
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.SequencedSet;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/*
+ * map for blocking I/O (http calls, db lookups, file reads): every element's function runs on its own virtual thread.
+ *
+ * parallel() is the wrong tool for that: it runs on the common ForkJoinPool (cores - 1 threads), so a blocking call
+ * holds one of those few threads and the pipeline does at most "cores" calls at a time. A virtual thread that blocks
+ * gives its carrier thread back, so thousands of calls can wait at the same time without sizing a thread pool.
+ *
+ * - at most maxConcurrency functions run at the same time, the source is only read when a slot is free
+ *   (bounded in-flight work and memory, a slow downstream stops the source instead of buffering everything)
+ * - mapConcurrent keeps the encounter order: a finished result waits for the ones before it and still holds its slot,
+ *   mapConcurrentUnordered passes results on as they finish (better throughput when the call times vary a lot)
+ * - the first failing function cancels (interrupts) all the others and its exception is thrown to the consumer
+ * - closing the stream (try-with-resources, needed after limit/findFirst/anyMatch stopped early) cancels the calls
+ *   still running, and so does interrupting the consuming thread
+ *
+ * usage:
+ * try (Stream<User> users = ConcurrentStages.mapConcurrent(ids.stream(), 200, userClient::fetch)) {
+ *     List<User> result = users.toList();
+ * }
+ * */
+public final class ConcurrentStages {
+
+    private ConcurrentStages() {
+    }
+
+    public static <T, R> Stream<R> mapConcurrent(Stream<T> source, int maxConcurrency, Function<? super T, ? extends R> mapper) {
+        return stream(source, maxConcurrency, mapper, true);
+    }
+
+    public static <T, R> Stream<R> mapConcurrentUnordered(Stream<T> source, int maxConcurrency, Function<? super T, ? extends R> mapper) {
+        return stream(source, maxConcurrency, mapper, false);
+    }
+
+    private static <T, R> Stream<R> stream(Stream<T> source, int maxConcurrency, Function<? super T, ? extends R> mapper, boolean ordered) {
+        Objects.requireNonNull(source, "source");
+        Objects.requireNonNull(mapper, "mapper");
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+        ConcurrentMapSpliterator<T, R> spliterator = new ConcurrentMapSpliterator<>(source, maxConcurrency, mapper, ordered);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    /*
+     * Pulls from the source one element at a time, keeping up to maxConcurrency calls in flight.
+     * Every finished call lands in the completion service's queue, that's how a failure is seen as soon as it happens
+     * even when the ordered mode is still waiting for an earlier element.
+     * Only the consuming thread touches the fields, the tasks only talk back through their futures.
+     * */
+    private static final class ConcurrentMapSpliterator<T, R> extends Spliterators.AbstractSpliterator<R> {
+        private final Spliterator<T> source;
+        private final Stream<T> sourceStream;
+        private final int maxConcurrency;
+        private final Function<? super T, ? extends R> mapper;
+        private final boolean ordered;
+        private final ExecutorService executor;
+        private final CompletionService<R> completions;
+        /*submission order, the first one is the next result in ordered mode*/
+        private final SequencedSet<Future<R>> inFlight = new LinkedHashSet<>();
+        private boolean sourceDone;
+        private boolean closed;
+
+        ConcurrentMapSpliterator(Stream<T> sourceStream, int maxConcurrency, Function<? super T, ? extends R> mapper, boolean ordered) {
+            this(sourceStream, sourceStream.spliterator(), maxConcurrency, mapper, ordered);
+        }
+
+        private ConcurrentMapSpliterator(Stream<T> sourceStream, Spliterator<T> source, int maxConcurrency,
+                                         Function<? super T, ? extends R> mapper, boolean ordered) {
+            super(source.estimateSize(), ordered ? Spliterator.ORDERED : 0);
+            this.sourceStream = sourceStream;
+            this.source = source;
+            this.maxConcurrency = maxConcurrency;
+            this.mapper = mapper;
+            this.ordered = ordered;
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("mapConcurrent-", 0).factory());
+            this.completions = new ExecutorCompletionService<>(executor);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super R> action) {
+            if (closed) {
+                return false;
+            }
+            fillWindow();
+            if (inFlight.isEmpty()) {
+                close();
+                return false;
+            }
+            Future<R> next = ordered ? awaitFirst() : awaitAny();
+            inFlight.remove(next);
+            action.accept(next.resultNow());
+            return true;
+        }
+
+        private void fillWindow() {
+            while (!sourceDone && inFlight.size() < maxConcurrency) {
+                sourceDone = !source.tryAdvance(element -> inFlight.add(completions.submit(() -> mapper.apply(element))));
+            }
+        }
+
+        private Future<R> awaitFirst() {
+            Future<R> first = inFlight.getFirst();
+            while (!first.isDone()) {
+                checkFailure(take());
+            }
+            checkFailure(first);
+            drainFinished();
+            return first;
+        }
+
+        private Future<R> awaitAny() {
+            Future<R> finished = take();
+            checkFailure(finished);
+            return finished;
+        }
+
+        /*finished calls whose result is taken in order later, polled now so the queue doesn't keep them twice*/
+        private void drainFinished() {
+            Future<R> finished;
+            while ((finished = completions.poll()) != null) {
+                checkFailure(finished);
+            }
+        }
+
+        private Future<R> take() {
+            try {
+                return completions.take();
+            } catch (InterruptedException e) {
+                close();
+                Thread.currentThread().interrupt();
+                throw new CancellationException("interrupted while waiting for mapConcurrent results");
+            }
+        }
+
+        private void checkFailure(Future<R> future) {
+            if (future.state() != Future.State.FAILED) {
+                return;
+            }
+            close();
+            Throwable failure = future.exceptionNow();
+            if (failure instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (failure instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(failure);
+        }
+
+        /*cancels (interrupts) the calls still running, safe to call more than once*/
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Future<R> future : inFlight) {
+                future.cancel(true);
+            }
+            inFlight.clear();
+            executor.shutdownNow();
+            sourceStream.close();
+        }
+    }
+}
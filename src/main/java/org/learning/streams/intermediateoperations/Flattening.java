@@ -0,0 +1,305 @@
+package org.learning.streams.intermediateoperations;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntToLongFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/*
+ * flatMap(Collection::stream) for collections of collections and arrays of arrays, without losing the size.
+ *
+ * flatMap can't know how many elements the inner streams produce, so the result is not SIZED: toArray()/toList()
+ * grow a buffer and copy, and parallel() only splits the OUTER list. List.of(hugeList, hugeList).parallelStream()
+ * .flatMap(..) runs on at most 2 threads, each going through a whole inner list alone.
+ * Here the inner sizes are summed up front (prefix offsets), the spliterator is SIZED/SUBSIZED over the flattened
+ * positions and trySplit halves that position range:
+ * - the split point is found with a binary search on the offsets, so it can be at an inner boundary or inside an inner list
+ * - inside splits need a RandomAccess list (ArrayList, List.of, arrays), other collections (sets, LinkedList) are only
+ *   split at their boundaries
+ * - the pipeline knows the exact size, so toArray()/toList() allocate the result once (parallel forks write their slice
+ *   of the same array) and count() doesn't traverse at all
+ *
+ * The sizes are read when flatten is called: don't change the inner collections while the stream runs.
+ *
+ * usage:
+ * List<Integer> all = Flattening.flatten(List.of(List.of(1, 2, 3), List.of(4, 5, 6))).toList();   // [1, 2, 3, 4, 5, 6]
+ * long sum = Flattening.flatten(twoHugeLists).parallel().mapToLong(Integer::longValue).sum();      // all cores busy
+ * int[] values = Flattening.flatten(new int[][]{{1, 2}, {3}}).toArray();                            // [1, 2, 3]
+ * */
+public final class Flattening {
+
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+
+    /*a range smaller than this isn't worth handing to another thread*/
+    private static final long MIN_SPLIT_SIZE = 1024;
+
+    private Flattening() {
+    }
+
+    public static <T> Stream<T> flatten(Collection<? extends Collection<? extends T>> nested) {
+        Collection<?>[] inners = nested.toArray(new Collection<?>[0]);
+        long[] offsets = offsets(inners.length, i -> Objects.requireNonNull(inners[i], "inner collection " + i).size());
+        return StreamSupport.stream(new RefSpliterator<>(inners, offsets, 0, offsets[inners.length]), false);
+    }
+
+    public static <T> Stream<T> flatten(T[][] nested) {
+        Collection<?>[] inners = new Collection<?>[nested.length];
+        for (int i = 0; i < nested.length; i++) {
+            inners[i] = Arrays.asList(Objects.requireNonNull(nested[i], "inner array " + i));
+        }
+        long[] offsets = offsets(inners.length, i -> inners[i].size());
+        return StreamSupport.stream(new RefSpliterator<>(inners, offsets, 0, offsets[inners.length]), false);
+    }
+
+    public static IntStream flatten(int[][] nested) {
+        int[][] inners = nested.clone();
+        long[] offsets = offsets(inners.length, i -> Objects.requireNonNull(inners[i], "inner array " + i).length);
+        return StreamSupport.intStream(new IntSpliterator(inners, offsets, 0, offsets[inners.length]), false);
+    }
+
+    /*the number of elements flatten returns, without traversing anything*/
+    public static long totalSize(Collection<? extends Collection<?>> nested) {
+        long total = 0;
+        for (Collection<?> inner : nested) {
+            total += inner.size();
+        }
+        return total;
+    }
+
+    /*offsets[i] is the flattened position of the first element of inner i, offsets[length] the total size*/
+    private static long[] offsets(int length, IntToLongFunction size) {
+        long[] offsets = new long[length + 1];
+        for (int i = 0; i < length; i++) {
+            offsets[i + 1] = offsets[i] + size.applyAsLong(i);
+        }
+        return offsets;
+    }
+
+    /*
+     * flattened positions [index, fence), inner is the inner collection holding index.
+     * trySplit gives away the first half so the split off part keeps the encounter order.
+     * */
+    private abstract static class FlatSpliterator {
+        final long[] offsets;
+        int inner;
+        long index;
+        final long fence;
+
+        FlatSpliterator(long[] offsets, long index, long fence) {
+            this.offsets = offsets;
+            this.inner = innerAt(offsets, index);
+            this.index = index;
+            this.fence = fence;
+        }
+
+        /*an inner collection whose elements can't be read by position is only split at its boundaries*/
+        abstract boolean splittableInside(int inner);
+
+        /*returns the end of the split off prefix [index, end) and moves index there, or -1 when it isn't worth splitting*/
+        long splitPrefix() {
+            long start = index;
+            if (fence - start < MIN_SPLIT_SIZE) {
+                return -1;
+            }
+            long middle = start + ((fence - start) >>> 1);
+            int middleInner = innerAt(offsets, middle);
+            if (!splittableInside(middleInner) && middle != offsets[middleInner]) {
+                middle = nearestBoundary(middleInner, middle);
+                if (middle < 0) {
+                    return -1;
+                }
+                middleInner = innerAt(offsets, middle);
+            }
+            index = middle;
+            inner = middleInner;
+            return middle;
+        }
+
+        private long nearestBoundary(int middleInner, long middle) {
+            long before = offsets[middleInner];
+            long after = offsets[middleInner + 1];
+            boolean beforeUsable = before > index;
+            boolean afterUsable = after < fence;
+            if (beforeUsable && afterUsable) {
+                return middle - before <= after - middle ? before : after;
+            }
+            return beforeUsable ? before : afterUsable ? after : -1;
+        }
+
+        /*moves inner past the inner collections that end at or before index (the empty ones included)*/
+        void skipToIndex() {
+            while (offsets[inner + 1] <= index) {
+                inner++;
+            }
+        }
+
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        public long getExactSizeIfKnown() {
+            return fence - index;
+        }
+
+        /*the last inner starting at or before position: the one holding it, empty inners before it are skipped*/
+        static int innerAt(long[] offsets, long position) {
+            int low = 0;
+            int high = offsets.length - 2;
+            while (low < high) {
+                int middle = (low + high + 1) >>> 1;
+                if (offsets[middle] <= position) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return low;
+        }
+    }
+
+    private static final class RefSpliterator<T> extends FlatSpliterator implements Spliterator<T> {
+        private final Collection<?>[] inners;
+        /*only for an inner that isn't a RandomAccess list and was partly consumed by tryAdvance*/
+        private Iterator<?> current;
+
+        RefSpliterator(Collection<?>[] inners, long[] offsets, long index, long fence) {
+            super(offsets, index, fence);
+            this.inners = inners;
+        }
+
+        @Override
+        boolean splittableInside(int inner) {
+            return inners[inner] instanceof List<?> && inners[inner] instanceof RandomAccess;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (index >= fence) {
+                return false;
+            }
+            skipToIndex();
+            Collection<?> collection = inners[inner];
+            long start = offsets[inner];
+            if (splittableInside(inner)) {
+                action.accept((T) ((List<?>) collection).get((int) (index - start)));
+            } else {
+                if (current == null) {
+                    current = collection.iterator();
+                }
+                action.accept((T) current.next());
+                if (index + 1 == offsets[inner + 1]) {
+                    current = null;
+                }
+            }
+            index++;
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super T> action) {
+            while (index < fence) {
+                skipToIndex();
+                Collection<?> collection = inners[inner];
+                long start = offsets[inner];
+                long end = Math.min(offsets[inner + 1], fence);
+                if (current != null) {
+                    Iterator<?> iterator = current;
+                    current = null;
+                    for (long i = index; i < end; i++) {
+                        action.accept((T) iterator.next());
+                    }
+                } else if (index == start && end == offsets[inner + 1]) {
+                    ((Collection<T>) collection).forEach(action);
+                } else {
+                    List<?> list = (List<?>) collection;
+                    for (int i = (int) (index - start), last = (int) (end - start); i < last; i++) {
+                        action.accept((T) list.get(i));
+                    }
+                }
+                index = end;
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            long start = index;
+            Iterator<?> startIterator = current;
+            long end = splitPrefix();
+            if (end < 0) {
+                return null;
+            }
+            RefSpliterator<T> prefix = new RefSpliterator<>(inners, offsets, start, end);
+            // a partly consumed non RandomAccess inner always ends at or before the split point, its iterator goes along
+            prefix.current = startIterator;
+            current = null;
+            return prefix;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    private static final class IntSpliterator extends FlatSpliterator implements Spliterator.OfInt {
+        private final int[][] inners;
+
+        IntSpliterator(int[][] inners, long[] offsets, long index, long fence) {
+            super(offsets, index, fence);
+            this.inners = inners;
+        }
+
+        @Override
+        boolean splittableInside(int inner) {
+            return true;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (index >= fence) {
+                return false;
+            }
+            skipToIndex();
+            action.accept(inners[inner][(int) (index - offsets[inner])]);
+            index++;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            while (index < fence) {
+                skipToIndex();
+                int[] array = inners[inner];
+                long start = offsets[inner];
+                int last = (int) (Math.min(offsets[inner + 1], fence) - start);
+                for (int i = (int) (index - start); i < last; i++) {
+                    action.accept(array[i]);
+                }
+                index = start + last;
+            }
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            long start = index;
+            long end = splitPrefix();
+            return end < 0 ? null : new IntSpliterator(inners, offsets, start, end);
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS | Spliterator.NONNULL;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package org.learning.streams.intermediateoperations;
 
 import lombok.extern.slf4j.Slf4j;
+import org.learning.interview.generalJavaQuestions.comparatorAndComparable.sorting.IntKeySort;
+import org.learning.streams.collectors.TopKCollectors;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
@@ -34,6 +37,10 @@ public class IntermediateOperations {
         log.info("3. flatmap");
         log.info("converts nested lists to single stream to process each item");
         List.of(List.of(1,2,3), List.of(4,5,6)).stream().flatMap(Collection::stream).forEach(System.out::println);
+        log.info("flatMap loses the size and parallel() only splits the outer list, Flattening keeps the exact size and splits inside the inner lists too");
+        log.info("flattened size without traversing: {}", Flattening.flatten(List.of(List.of(1,2,3), List.of(4,5,6))).count()); // 6
+        log.info("flattened in order: {}", Flattening.flatten(List.of(List.of(1,2,3), List.of(4,5,6))).parallel().toList()); // [1, 2, 3, 4, 5, 6]
+        log.info("arrays of arrays: {}", Arrays.toString(Flattening.flatten(new int[][]{{1,2,3}, {4,5,6}}).toArray())); // [1, 2, 3, 4, 5, 6]
 
         log.info("4. distinct");
         log.info("gets the distinct items from the stream if it has custom items then it will use .equals() method to identify the distinct");
@@ -53,11 +60,17 @@ public class IntermediateOperations {
         users.stream().sorted(Comparator.comparingInt(User::id)).forEach(System.out::println);
         log.info("Descending based on userId");
         users.stream().sorted(Comparator.comparingInt(User::id).reversed()).forEach(System.out::println);
+        log.info("for big lists sorting on an int key can skip the comparator (radix/counting sort on the extracted keys)");
+        IntKeySort.sortByIntKey(users, User::id).forEach(System.out::println);
 
 
         log.info("6. limit");
         log.info("it's short circuit intermediate operation to stop stream processing once the limit reached");
         integers.stream().limit(2).forEach(System.out::println); // 12 34
+        log.info("sorted(..).limit(k) sorts the whole stream to keep k elements, a bounded top-k collector only keeps k");
+        List<User> lowestTwoUserIds = users.stream().collect(TopKCollectors.bottomKByInt(2, User::id)); // same as sorted(comparingInt(User::id)).limit(2)
+        log.info("two lowest user ids {}", lowestTwoUserIds); // [User[id=12, name=Ram], User[id=23, name=Sid]]
+        log.info("two highest integers {}", Arrays.toString(TopKCollectors.topK(integers.stream().mapToInt(num -> num), 2))); // [45, 43]
 
         log.info("7. skip");
         log.info("it is used to skip the starting few elements flow through the stream pipeline");
@@ -67,6 +80,13 @@ public class IntermediateOperations {
         log.info("used for debugging purpose it don't modify the each element until it's a ref like object");
         integers.stream().filter(num->num%2==0).peek(System.out::println).count(); //12 34 26 prints the intermediate result after the filter apply
         integers.stream().filter(num->num%2==0).peek(element-> element *= 10).forEach(System.out::println); //12 34 26 still it prints same because it is not apply those change it is just for debugging
+        log.info("instead of println in peek, PipelineMetrics counts per named stage (and times a sample of the calls)");
+        PipelineMetrics metrics = PipelineMetrics.builder().name("integers").sampleRate(1).build();
+        integers.stream()
+                .filter(metrics.filter("even", (Integer num) -> num % 2 == 0))
+                .map(metrics.map("times10", (Integer num) -> num * 10))
+                .forEach(System.out::println); // 120 340 260
+        log.info("{}", metrics); // even: in=6 out=3 selectivity=50%, times10: in=3 out=3
 
         log.info("9. mapToInt(), mapToLong(), mapToDouble()");
         log.info("used when u want to perform the operation on primitive level and product primitive stream and want to use the primitive stat functions like avg, sum etc..");
@@ -107,6 +127,29 @@ public class IntermediateOperations {
         log.info("nut u can take advantage of the both like some operation run parallel and some in sequential mode as per requirement via using both");
         log.info("even u use parallel and the collector/terminal and stream is ordered then it still produce the ordered result like below but it is better to use forEachOrdered (gor guarantee)");
         integers.stream().parallel().map(x-> x+1).sequential().map(x->x*10).forEach(System.out::println); // the things before sequential runs parallel and after that it runs in sequential mode
+
+        log.info("15. mapConcurrent (virtual threads)");
+        log.info("parallel is for cpu bound work, for blocking calls (http, db) every element gets its own virtual thread with at most maxConcurrency calls at a time");
+        long start = System.nanoTime();
+        try (Stream<Integer> fetched = ConcurrentStages.mapConcurrent(IntStream.range(0, 1000).boxed(), 200, IntermediateOperations::slowLookup)) {
+            log.info("1000 lookups of 50ms each, 200 at a time: sum {} in {} ms", fetched.mapToInt(Integer::intValue).sum(), (System.nanoTime() - start) / 1_000_000); // ~250ms instead of 50s
+        }
+
+        log.info("16. batching and windows");
+        log.info("sinks like file writes or bulk inserts are cheaper per batch than per element");
+        Batching.batch(integers.stream(), 4).forEach(System.out::println); // [12, 43, 34, 23] [45, 26]
+        Batching.sliding(integers.stream(), 3, 1).forEach(System.out::println); // [12, 43, 34] [43, 34, 23] [34, 23, 45] [23, 45, 26]
+    }
+
+    /*pretends to be a remote call*/
+    private static int slowLookup(int id) {
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        return id * 2;
     }
 
 }
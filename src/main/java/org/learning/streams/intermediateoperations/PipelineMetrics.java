@@ -0,0 +1,267 @@
+package org.learning.streams.intermediateoperations;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * Per stage counts and timings for a pipeline, what peek(System.out::println) is used for while debugging but cheap
+ * enough to stay in production code.
+ *
+ * Each wrapped lambda belongs to a named stage:
+ * - filter(name, predicate)  counts the elements in and the ones that matched (the selectivity of the filter)
+ * - map(name, function)      counts and times the function
+ * - flatMap(name, function)  counts the elements in and the elements of the returned streams (the fan out)
+ * - probe(name)              a Consumer for peek(..) that only counts what passes that point
+ *
+ * Overhead:
+ * - counts are LongAdders (a parallel stream's threads increment their own cell, no contended CAS)
+ * - only one call in sampleRate (random, default 64) is timed with System.nanoTime, the total time is estimated
+ *   from those samples
+ * - a disabled PipelineMetrics returns the lambdas unwrapped (probe returns a no op), so the pipeline runs the exact
+ *   same code as without instrumentation
+ *
+ * The same name always gives the same stage, so a pipeline that is built again for every request adds up in the
+ * same counters. A name belongs to one kind of stage, filter("x") after map("x") throws IllegalArgumentException.
+ * snapshot() reads the counters while the pipeline may still be running (every counter is exact on its own, they are
+ * not read atomically together).
+ *
+ * usage:
+ * PipelineMetrics metrics = PipelineMetrics.builder().name("orders").sampleRate(128).build();
+ * orders.parallelStream()
+ *       .filter(metrics.filter("paid", Order::isPaid))
+ *       .map(metrics.map("toInvoice", invoiceService::create))
+ *       .forEach(sink);
+ * log.info("{}", metrics);   // one line per stage: in/out/selectivity/average time/estimated total time
+ * */
+public final class PipelineMetrics {
+
+    private static final Consumer<Object> NO_OP = element -> {
+    };
+
+    private final String name;
+    private final boolean enabled;
+    private final int sampleRate;
+    private final int sampleMask;
+    /*registration order is the pipeline order, only locked when a stage is looked up (building the pipeline)*/
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+
+    private PipelineMetrics(Builder builder) {
+        this.name = builder.name;
+        this.enabled = builder.enabled;
+        this.sampleRate = builder.sampleRate;
+        this.sampleMask = builder.sampleRate - 1;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /*a PipelineMetrics that records nothing, for switching instrumentation off without changing the pipeline code*/
+    public static PipelineMetrics disabled() {
+        return builder().enabled(false).build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /*the casts of the unwrapped lambdas only narrow the wildcards, a Predicate<? super T> accepts every T*/
+    @SuppressWarnings("unchecked")
+    public <T> Predicate<T> filter(String stageName, Predicate<? super T> predicate) {
+        Objects.requireNonNull(predicate, "predicate");
+        if (!enabled) {
+            return (Predicate<T>) predicate;
+        }
+        Stage stage = stage(stageName, Kind.FILTER);
+        return element -> {
+            boolean matched;
+            if (stage.sample()) {
+                long start = System.nanoTime();
+                matched = predicate.test(element);
+                stage.recordTime(start);
+            } else {
+                matched = predicate.test(element);
+            }
+            if (matched) {
+                stage.out.increment();
+            }
+            return matched;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T, R> Function<T, R> map(String stageName, Function<? super T, ? extends R> mapper) {
+        Objects.requireNonNull(mapper, "mapper");
+        if (!enabled) {
+            return (Function<T, R>) mapper;
+        }
+        Stage stage = stage(stageName, Kind.MAP);
+        return element -> {
+            if (!stage.sample()) {
+                return mapper.apply(element);
+            }
+            long start = System.nanoTime();
+            R result = mapper.apply(element);
+            stage.recordTime(start);
+            return result;
+        };
+    }
+
+    /*times the call of the function, not the consumption of the returned stream*/
+    @SuppressWarnings("unchecked")
+    public <T, R> Function<T, Stream<R>> flatMap(String stageName, Function<? super T, ? extends Stream<? extends R>> mapper) {
+        Objects.requireNonNull(mapper, "mapper");
+        if (!enabled) {
+            return (Function<T, Stream<R>>) mapper;
+        }
+        Stage stage = stage(stageName, Kind.FLAT_MAP);
+        return element -> {
+            Stream<R> result;
+            if (stage.sample()) {
+                long start = System.nanoTime();
+                result = (Stream<R>) mapper.apply(element);
+                stage.recordTime(start);
+            } else {
+                result = (Stream<R>) mapper.apply(element);
+            }
+            return result == null ? null : result.peek(inner -> stage.out.increment());
+        };
+    }
+
+    /*for peek(metrics.probe("afterDistinct")): counts the elements that pass, in == out*/
+    @SuppressWarnings("unchecked")
+    public <T> Consumer<T> probe(String stageName) {
+        if (!enabled) {
+            return (Consumer<T>) NO_OP;
+        }
+        Stage stage = stage(stageName, Kind.PROBE);
+        return element -> stage.in.increment();
+    }
+
+    /*the stages in the order they were first used, empty when disabled*/
+    public List<StageStats> snapshot() {
+        synchronized (stages) {
+            return stages.values().stream().map(Stage::snapshot).toList();
+        }
+    }
+
+    public void reset() {
+        synchronized (stages) {
+            stages.values().forEach(Stage::reset);
+        }
+    }
+
+    /*a name used again for another kind of stage is a mistake: a filter sharing a map's stage would report out == in*/
+    private Stage stage(String stageName, Kind kind) {
+        Objects.requireNonNull(stageName, "stageName");
+        Stage stage;
+        synchronized (stages) {
+            stage = stages.computeIfAbsent(stageName, key -> new Stage(key, kind));
+        }
+        if (stage.kind != kind) {
+            throw new IllegalArgumentException("stage " + stageName + " is already a " + stage.kind + " stage, not a " + kind);
+        }
+        return stage;
+    }
+
+    /*one line per stage, for logging*/
+    @Override
+    public String toString() {
+        return snapshot().stream().map(StageStats::toString)
+                .collect(Collectors.joining("\n  ", "PipelineMetrics{name=" + name + ", sampleRate=" + sampleRate + "}\n  ", ""));
+    }
+
+    /*
+     * The LongAdder increments are most of the cost of an enabled stage (~5 ns each uncontended), so map and probe
+     * don't count out separately (out == in, a call that threw isn't counted as out only by filter/flatMap).
+     * */
+    private enum Kind {
+        FILTER(true), MAP(false), FLAT_MAP(true), PROBE(false);
+
+        final boolean countsOut;
+
+        Kind(boolean countsOut) {
+            this.countsOut = countsOut;
+        }
+    }
+
+    private final class Stage {
+        final String name;
+        final Kind kind;
+        final LongAdder in = new LongAdder();
+        final LongAdder out = new LongAdder();
+        final LongAdder sampledCalls = new LongAdder();
+        final LongAdder sampledNanos = new LongAdder();
+
+        Stage(String name, Kind kind) {
+            this.name = name;
+            this.kind = kind;
+        }
+
+        /*counts the call and decides if it is timed: one in sampleRate, picked at random so periodic input doesn't bias it*/
+        boolean sample() {
+            in.increment();
+            return (ThreadLocalRandom.current().nextInt() & sampleMask) == 0;
+        }
+
+        void recordTime(long start) {
+            sampledNanos.add(System.nanoTime() - start);
+            sampledCalls.increment();
+        }
+
+        StageStats snapshot() {
+            long calls = in.sum();
+            return new StageStats(name, calls, kind.countsOut ? out.sum() : calls, sampledCalls.sum(), sampledNanos.sum());
+        }
+
+        void reset() {
+            in.reset();
+            out.reset();
+            sampledCalls.reset();
+            sampledNanos.reset();
+        }
+    }
+
+    public static final class Builder {
+        private String name = "pipeline";
+        private boolean enabled = true;
+        private int sampleRate = 64;
+
+        private Builder() {
+        }
+
+        /*shown in toString to tell the pipelines apart in the logs*/
+        public Builder name(String name) {
+            this.name = Objects.requireNonNull(name, "name");
+            return this;
+        }
+
+        /*false: every method returns the lambda unwrapped, nothing is counted*/
+        public Builder enabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        /*time one call in sampleRate (rounded up to a power of two), 1 times every call*/
+        public Builder sampleRate(int sampleRate) {
+            if (sampleRate < 1 || sampleRate > 1 << 30) {
+                throw new IllegalArgumentException("sampleRate must be in [1, 2^30]: " + sampleRate);
+            }
+            this.sampleRate = sampleRate == 1 ? 1 : Integer.highestOneBit(sampleRate - 1) << 1;
+            return this;
+        }
+
+        public PipelineMetrics build() {
+            return new PipelineMetrics(this);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.learning.streams.intermediateoperations;
+
+/*
+ * Snapshot of one PipelineMetrics stage's counters.
+ * in           = elements that reached the stage
+ * out          = elements it passed on (filter: the ones that matched, flatMap: the elements of the returned streams)
+ * sampledCalls = calls that were timed, sampledNanos = their total time (includes ~20 ns of System.nanoTime per call)
+ * */
+public record StageStats(String name, long in, long out, long sampledCalls, long sampledNanos) {
+
+    /*out / in: the fraction a filter keeps, the fan out of a flatMap*/
+    public double selectivity() {
+        return in == 0 ? 0 : (double) out / in;
+    }
+
+    public double averageNanos() {
+        return sampledCalls == 0 ? 0 : (double) sampledNanos / sampledCalls;
+    }
+
+    /*average of the timed calls times all calls*/
+    public long estimatedTotalNanos() {
+        return (long) (averageNanos() * in);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StageStats{name=%s, in=%d, out=%d, selectivity=%.2f%%, avg=%.0fns, estimatedTotal=%.1fms, sampled=%d}",
+                name, in, out, selectivity() * 100, averageNanos(), estimatedTotalNanos() / 1e6, sampledCalls);
+    }
+}
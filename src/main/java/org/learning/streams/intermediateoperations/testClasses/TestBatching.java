@@ -0,0 +1,129 @@
+package org.learning.streams.intermediateoperations.testClasses;
+
+import org.learning.streams.intermediateoperations.Batching;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/*
+ * Checks the Batching edge cases that a demo run doesn't show. Fails with an AssertionError on the first violation.
+ * */
+public class TestBatching {
+
+    public static void main(String[] args) {
+        checkTimedFailureMidBatch();
+        checkHugeBatchSize();
+        checkGrowingBatches();
+        checkIntSlidingMatchesBoxed();
+        checkParallelMatchesSequential();
+        System.out.println("all checks passed");
+    }
+
+    /*a source failing at element 4 hands on [1, 2, 3] first, the next batch throws the source's exception*/
+    private static void checkTimedFailureMidBatch() {
+        Stream<Integer> failing = Stream.iterate(1, i -> i + 1).map(i -> {
+            if (i == 4) {
+                throw new IllegalStateException("source failed at " + i);
+            }
+            return i;
+        });
+        try (Stream<List<Integer>> batches = Batching.batch(failing, 10, Duration.ofSeconds(5))) {
+            Iterator<List<Integer>> iterator = batches.iterator();
+            List<Integer> first = iterator.next();
+            check(first.equals(List.of(1, 2, 3)), "timed batch before the failure: " + first);
+            try {
+                iterator.hasNext();
+                throw new AssertionError("timed batch: the failure was not thrown");
+            } catch (IllegalStateException expected) {
+                check(expected.getMessage().equals("source failed at 4"), "timed batch failure: " + expected);
+            }
+        }
+        System.out.println("timed batch failure mid batch: ok");
+    }
+
+    /*a batch size far above the element count only allocates what the elements need*/
+    private static void checkHugeBatchSize() {
+        int max = Integer.MAX_VALUE;
+        check(Batching.batch(Stream.of(1, 2, 3), max).toList().equals(List.of(List.of(1, 2, 3))), "batch(stream, MAX_VALUE)");
+        List<int[]> ints = Batching.batch(IntStream.of(1, 2, 3), max).toList();
+        check(ints.size() == 1 && Arrays.equals(ints.get(0), new int[]{1, 2, 3}), "batch(IntStream, MAX_VALUE)");
+        List<Integer> unsized = Stream.iterate(1, i -> i <= 3, i -> i + 1).toList();
+        check(Batching.batch(unsized.stream().filter(i -> true), max).toList().equals(List.of(unsized)), "unsized batch");
+        List<List<Integer>> sunk = new ArrayList<>();
+        Batching.forEachBatch(Stream.of(1, 2, 3), max, batch -> sunk.add(List.copyOf(batch)));
+        check(sunk.equals(List.of(List.of(1, 2, 3))), "forEachBatch(stream, MAX_VALUE): " + sunk);
+        List<int[]> sunkInts = new ArrayList<>();
+        Batching.forEachBatch(IntStream.of(1, 2, 3), max, (buffer, length) -> sunkInts.add(Arrays.copyOf(buffer, length)));
+        check(sunkInts.size() == 1 && Arrays.equals(sunkInts.get(0), new int[]{1, 2, 3}), "forEachBatch(IntStream, MAX_VALUE)");
+        System.out.println("huge batch size: ok");
+    }
+
+    /*buffers that grow while filling still cut the same batches, for sized and unsized sources*/
+    private static void checkGrowingBatches() {
+        int n = 2500;
+        int size = 1000;
+        for (IntStream source : new IntStream[]{IntStream.range(0, n), IntStream.iterate(0, i -> i < n, i -> i + 1)}) {
+            List<int[]> batches = Batching.batch(source, size).toList();
+            check(batches.size() == 3 && batches.get(2).length == 500, "int batch lengths");
+            check(Arrays.equals(batches.stream().flatMapToInt(IntStream::of).toArray(), IntStream.range(0, n).toArray()),
+                    "int batch contents");
+        }
+        List<Integer> lengths = new ArrayList<>();
+        Batching.forEachBatch(IntStream.range(0, n), size, (buffer, length) -> {
+            check(buffer[0] == lengths.size() * size && buffer[length - 1] == lengths.size() * size + length - 1,
+                    "forEachBatch int contents");
+            lengths.add(length);
+        });
+        check(lengths.equals(List.of(size, size, 500)), "forEachBatch int lengths: " + lengths);
+        List<List<Integer>> boxed = Batching.batch(Stream.iterate(0, i -> i < n, i -> i + 1), size).toList();
+        check(boxed.stream().map(List::size).toList().equals(List.of(size, size, 500)), "batch lengths");
+        System.out.println("growing batches: ok");
+    }
+
+    /*the int[] ring windows equal the boxed List windows for overlapping, tumbling and hopping steps*/
+    private static void checkIntSlidingMatchesBoxed() {
+        int[] values = new SplittableRandom(42).ints(100, -1000, 1000).toArray();
+        for (int size : new int[]{1, 2, 3, 16, 17, 40, 100, 101}) {
+            for (int step : new int[]{1, 2, 5, 16, 17, 39, 150}) {
+                List<List<Integer>> expected = Batching.sliding(IntStream.of(values).boxed(), size, step).toList();
+                List<List<Integer>> actual = Batching.sliding(IntStream.of(values), size, step)
+                        .map(window -> IntStream.of(window).boxed().toList())
+                        .toList();
+                check(actual.equals(expected), "sliding(IntStream, " + size + ", " + step + ")");
+            }
+        }
+        check(Batching.sliding(IntStream.of(1, 2, 3), Integer.MAX_VALUE, 1).count() == 0, "sliding(IntStream, MAX_VALUE)");
+        System.out.println("int sliding windows: ok");
+    }
+
+    /*a parallel source gives a parallel stream of batches, with the same batches in the same order*/
+    private static void checkParallelMatchesSequential() {
+        List<Integer> values = IntStream.range(0, 10_000).boxed().toList();
+        Stream<List<Integer>> parallelBatches = Batching.batch(values.parallelStream(), 7);
+        check(parallelBatches.isParallel(), "batch(parallel stream) is parallel");
+        check(parallelBatches.map(List::hashCode).toList()
+                        .equals(Batching.batch(values.stream(), 7).map(List::hashCode).toList()), "parallel batches");
+        check(Batching.sliding(values.parallelStream(), 5, 3).toList()
+                .equals(Batching.sliding(values.stream(), 5, 3).toList()), "parallel sliding windows");
+        int[] ints = IntStream.range(0, 10_000).toArray();
+        check(Batching.batch(IntStream.of(ints).parallel(), 7).isParallel(), "batch(parallel IntStream) is parallel");
+        check(Batching.batch(IntStream.of(ints).parallel(), 7).mapToInt(batch -> IntStream.of(batch).sum()).boxed().toList()
+                        .equals(Batching.batch(IntStream.of(ints), 7).mapToInt(batch -> IntStream.of(batch).sum()).boxed().toList()),
+                "parallel int batches");
+        check(Arrays.deepEquals(Batching.sliding(IntStream.of(ints).parallel(), 5, 3).toArray(),
+                Batching.sliding(IntStream.of(ints), 5, 3).toArray()), "parallel int sliding windows");
+        System.out.println("parallel source: ok");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package org.learning.streams.questions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/*
+ * Pairs of words with the same length (question 3 of UdemyStreamsExample) without the nested loop over all words.
+ * The words are grouped by length once, then pairs are only generated inside each length bucket
+ * and emitted lazily so the pairs are never all in memory at the same time.
+ *
+ * The pairs are the same as the nested version: [other, word] for every other word of the same length
+ * which is not equal to word. They come out bucket by bucket (in the order each length is first seen)
+ * and inside a bucket in the same order as the nested loop.
+ *
+ * For parallel streams the spliterator splits on the number of pairs so a huge bucket is
+ * divided between threads as well, every split only reads the shared buckets.
+ * */
+public final class SameLengthPairs {
+
+    private SameLengthPairs() {
+    }
+
+    public static Stream<List<String>> pairs(Collection<String> words) {
+        Map<Integer, List<String>> byLength = new LinkedHashMap<>();
+        for (String word : words) {
+            byLength.computeIfAbsent(word.length(), length -> new ArrayList<>()).add(word);
+        }
+        String[][] buckets = new String[byLength.size()][];
+        boolean distinct = true;
+        int index = 0;
+        for (List<String> bucket : byLength.values()) {
+            buckets[index++] = bucket.toArray(String[]::new);
+            distinct = distinct && hasNoDuplicates(bucket);
+        }
+        return StreamSupport.stream(new PairSpliterator(buckets, distinct), false);
+    }
+
+    private static boolean hasNoDuplicates(List<String> bucket) {
+        Set<String> seen = new HashSet<>(bucket.size() * 2);
+        for (String word : bucket) {
+            if (!seen.add(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Every word of every bucket is a "row" (row r = word i of bucket b) and each row emits
+     * bucket length - 1 pairs (less when the bucket has duplicates).
+     * The spliterator covers the rows [row, endRow) and column is the position inside the current row.
+     * */
+    private static final class PairSpliterator implements Spliterator<List<String>> {
+        private final String[][] buckets;
+        private final int[] rowStart;   /*first row of each bucket, rowStart[buckets.length] = total rows*/
+        private final long[] pairStart; /*pairs before each bucket*/
+        private final boolean distinct;
+
+        private int row;
+        private int column;
+        private final int endRow;
+        private int bucket; /*bucket of the current row*/
+
+        private PairSpliterator(String[][] buckets, boolean distinct) {
+            this.buckets = buckets;
+            this.distinct = distinct;
+            this.rowStart = new int[buckets.length + 1];
+            this.pairStart = new long[buckets.length + 1];
+            for (int b = 0; b < buckets.length; b++) {
+                int size = buckets[b].length;
+                rowStart[b + 1] = rowStart[b] + size;
+                pairStart[b + 1] = pairStart[b] + (long) size * (size - 1);
+            }
+            this.endRow = rowStart[buckets.length];
+        }
+
+        private PairSpliterator(PairSpliterator parent, int row, int column, int endRow) {
+            this.buckets = parent.buckets;
+            this.rowStart = parent.rowStart;
+            this.pairStart = parent.pairStart;
+            this.distinct = parent.distinct;
+            this.row = row;
+            this.column = column;
+            this.endRow = endRow;
+            this.bucket = parent.bucket;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super List<String>> action) {
+            while (row < endRow) {
+                while (row >= rowStart[bucket + 1]) {
+                    bucket++;
+                }
+                String[] words = buckets[bucket];
+                String word = words[row - rowStart[bucket]];
+                while (column < words.length) {
+                    String other = words[column++];
+                    if (!other.equals(word)) {
+                        action.accept(List.of(other, word));
+                        return true;
+                    }
+                }
+                row++;
+                column = 0;
+            }
+            return false;
+        }
+
+        /*hands out the first half of the remaining pairs, cutting on a row boundary*/
+        @Override
+        public Spliterator<List<String>> trySplit() {
+            if (endRow - row < 2) {
+                return null;
+            }
+            long from = pairOffset(row);
+            long to = pairOffset(endRow);
+            int middle = rowAt(from + (to - from) / 2);
+            if (middle <= row || middle >= endRow) {
+                return null;
+            }
+            PairSpliterator prefix = new PairSpliterator(this, row, column, middle);
+            row = middle;
+            column = 0;
+            while (row >= rowStart[bucket + 1]) {
+                bucket++;
+            }
+            return prefix;
+        }
+
+        /*exact when no bucket has duplicate words, otherwise an upper bound*/
+        @Override
+        public long estimateSize() {
+            if (row >= endRow) {
+                return 0;
+            }
+            int bucketOfRow = bucketOf(row);
+            int word = row - rowStart[bucketOfRow];
+            long emittedInRow = column - (column > word ? 1 : 0);
+            return pairOffset(endRow) - pairOffset(row) - emittedInRow;
+        }
+
+        @Override
+        public int characteristics() {
+            int characteristics = ORDERED | NONNULL | IMMUTABLE;
+            return distinct ? characteristics | SIZED | SUBSIZED : characteristics;
+        }
+
+        /*number of pairs before the given row*/
+        private long pairOffset(int targetRow) {
+            if (targetRow >= rowStart[buckets.length]) {
+                return pairStart[buckets.length];
+            }
+            int b = bucketOf(targetRow);
+            return pairStart[b] + (long) (targetRow - rowStart[b]) * (buckets[b].length - 1);
+        }
+
+        /*row which contains the given pair offset*/
+        private int rowAt(long offset) {
+            int low = 0;
+            int high = buckets.length - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (pairStart[mid] <= offset) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            int pairsPerRow = Math.max(buckets[low].length - 1, 1);
+            long rowInBucket = (offset - pairStart[low]) / pairsPerRow;
+            return (int) Math.min(rowStart[low] + rowInBucket, rowStart[low + 1]);
+        }
+
+        private int bucketOf(int targetRow) {
+            int low = 0;
+            int high = buckets.length - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (rowStart[mid] <= targetRow) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package org.learning.streams.questions;
 
+import org.learning.streams.collectors.CodePointSet;
+import org.learning.streams.collectors.TextCollectors;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -19,10 +22,18 @@ public class UdemyStreamsExample {
         String joinedViaCollect = names.stream().collect(Collectors.joining(","));
         System.out.println("concatenated via joining od collect = "+ joinedViaCollect);
 
+        /*via TextCollectors: the reduce above copies the whole string for every word (quadratic), this copies each char once*/
+        String joinedViaTextCollectors = TextCollectors.join(names.stream(), ",");
+        System.out.println("concatenated via TextCollectors = "+ joinedViaTextCollectors);
+
         /*2. split each word into char and get the distinct letters */
         List<String> characterisedWords = names.stream().map(word -> word.split("")).flatMap(words -> Arrays.stream(words)).distinct().collect(Collectors.toList());
         System.out.println("characterized words concat = "+ characterisedWords);
 
+        /*split("") creates a String for every char, the code point set only flips a bit per char*/
+        CodePointSet distinctLetters = names.stream().collect(TextCollectors.distinctCodePoints());
+        System.out.println("distinct letters via code points = "+ distinctLetters.toStringList());
+
         /*3. make a group of 2 where the length of the words matches*/
         /*expected combined words are = [[ABC, KLM], [DEF, KLM], [KLM, ABC], [DEF, ABC], [KLM, DEF], [ABC, DEF], [SDBM, AMDB], [AMDB, SDBM]] */
         List<String> words = List.of("KLM", "ABC", "DEF", "AMDB", "SDBM");
@@ -30,5 +41,10 @@ public class UdemyStreamsExample {
         words.stream().forEach(word -> words.stream().filter(incomingWord-> incomingWord.length()==word.length()).filter(incomingWord-> !incomingWord.equals(word)).forEach(newWord-> combinedWords.add(List.of(newWord, word))));
         System.out.println("combined words are = "+ combinedWords);
 
+        /*the nested loop compares every word with every word and adds to a shared list so it can't run parallel*/
+        /*SameLengthPairs groups the words by length once and generates the pairs lazily inside each group*/
+        List<List<String>> combinedWordsViaBuckets = SameLengthPairs.pairs(words).parallel().toList();
+        System.out.println("combined words via length buckets are = "+ combinedWordsViaBuckets);
+
     }
 }
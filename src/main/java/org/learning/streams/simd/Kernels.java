@@ -0,0 +1,48 @@
+package org.learning.streams.simd;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.IntSummaryStatistics;
+import java.util.LongSummaryStatistics;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+
+/*the operations SimdKernels delegates to, implemented once with the Vector API and once with plain loops*/
+interface Kernels {
+
+    int[] filter(int[] values, LanePredicate predicate);
+
+    long[] filter(long[] values, LanePredicate predicate);
+
+    double[] filter(double[] values, LanePredicate predicate);
+
+    int[] map(int[] values, LaneOperator operator);
+
+    long[] map(long[] values, LaneOperator operator);
+
+    double[] map(double[] values, LaneOperator operator);
+
+    int sum(int[] values);
+
+    long sum(long[] values);
+
+    double sum(double[] values);
+
+    OptionalInt min(int[] values);
+
+    OptionalLong min(long[] values);
+
+    OptionalDouble min(double[] values);
+
+    OptionalInt max(int[] values);
+
+    OptionalLong max(long[] values);
+
+    OptionalDouble max(double[] values);
+
+    IntSummaryStatistics summaryStatistics(int[] values);
+
+    LongSummaryStatistics summaryStatistics(long[] values);
+
+    DoubleSummaryStatistics summaryStatistics(double[] values);
+}
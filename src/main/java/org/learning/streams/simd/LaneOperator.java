@@ -0,0 +1,156 @@
+package org.learning.streams.simd;
+
+/*
+ * A map function the kernels know how to apply on a whole vector at once (see LanePredicate for why lambdas don't work).
+ * int and long results wrap on overflow exactly like num * num does in plain java.
+ *
+ * usage:
+ * SimdKernels.map(values, LaneOperator.square());      // same as IntStream.of(values).map(num -> num * num)
+ * SimdKernels.map(values, LaneOperator.multiply(10));  // same as IntStream.of(values).map(num -> num * 10)
+ * */
+public final class LaneOperator {
+
+    enum Kind { ADD, SUBTRACT, MULTIPLY, SQUARE, NEGATE, ABS, MIN, MAX }
+
+    final Kind kind;
+    final long longOperand;
+    final double doubleOperand;
+    private final boolean integral;
+
+    private LaneOperator(Kind kind, long longOperand, double doubleOperand, boolean integral) {
+        this.kind = kind;
+        this.longOperand = longOperand;
+        this.doubleOperand = doubleOperand;
+        this.integral = integral;
+    }
+
+    private static LaneOperator of(Kind kind, long operand) {
+        return new LaneOperator(kind, operand, operand, true);
+    }
+
+    private static LaneOperator of(Kind kind, double operand) {
+        return new LaneOperator(kind, (long) operand, operand, false);
+    }
+
+    public static LaneOperator add(long operand) {
+        return of(Kind.ADD, operand);
+    }
+
+    public static LaneOperator add(double operand) {
+        return of(Kind.ADD, operand);
+    }
+
+    public static LaneOperator subtract(long operand) {
+        return of(Kind.SUBTRACT, operand);
+    }
+
+    public static LaneOperator subtract(double operand) {
+        return of(Kind.SUBTRACT, operand);
+    }
+
+    public static LaneOperator multiply(long operand) {
+        return of(Kind.MULTIPLY, operand);
+    }
+
+    public static LaneOperator multiply(double operand) {
+        return of(Kind.MULTIPLY, operand);
+    }
+
+    /*Math.min(num, operand), clamps from above*/
+    public static LaneOperator min(long operand) {
+        return of(Kind.MIN, operand);
+    }
+
+    public static LaneOperator min(double operand) {
+        return of(Kind.MIN, operand);
+    }
+
+    /*Math.max(num, operand), clamps from below*/
+    public static LaneOperator max(long operand) {
+        return of(Kind.MAX, operand);
+    }
+
+    public static LaneOperator max(double operand) {
+        return of(Kind.MAX, operand);
+    }
+
+    public static LaneOperator square() {
+        return of(Kind.SQUARE, 0L);
+    }
+
+    public static LaneOperator negate() {
+        return of(Kind.NEGATE, 0L);
+    }
+
+    public static LaneOperator abs() {
+        return of(Kind.ABS, 0L);
+    }
+
+    private boolean hasOperand() {
+        return !(kind == Kind.SQUARE || kind == Kind.NEGATE || kind == Kind.ABS);
+    }
+
+    /*operand for int lanes, 0 for the kinds that don't take one*/
+    int intOperand() {
+        long operand = longOperandChecked();
+        if (operand != (int) operand) {
+            throw new IllegalArgumentException(operand + " is out of the int range, map a long[] instead");
+        }
+        return (int) operand;
+    }
+
+    long longOperandChecked() {
+        if (!hasOperand()) {
+            return 0L;
+        }
+        if (!integral) {
+            throw new IllegalArgumentException(doubleOperand + " is not a whole number, map a double[] instead");
+        }
+        return longOperand;
+    }
+
+    /*scalar versions used by the fallback kernels and for the tail that doesn't fill a vector*/
+    int apply(int value, int operand) {
+        return switch (kind) {
+            case ADD -> value + operand;
+            case SUBTRACT -> value - operand;
+            case MULTIPLY -> value * operand;
+            case SQUARE -> value * value;
+            case NEGATE -> -value;
+            case ABS -> Math.abs(value);
+            case MIN -> Math.min(value, operand);
+            case MAX -> Math.max(value, operand);
+        };
+    }
+
+    long apply(long value, long operand) {
+        return switch (kind) {
+            case ADD -> value + operand;
+            case SUBTRACT -> value - operand;
+            case MULTIPLY -> value * operand;
+            case SQUARE -> value * value;
+            case NEGATE -> -value;
+            case ABS -> Math.abs(value);
+            case MIN -> Math.min(value, operand);
+            case MAX -> Math.max(value, operand);
+        };
+    }
+
+    double apply(double value, double operand) {
+        return switch (kind) {
+            case ADD -> value + operand;
+            case SUBTRACT -> value - operand;
+            case MULTIPLY -> value * operand;
+            case SQUARE -> value * value;
+            case NEGATE -> -value;
+            case ABS -> Math.abs(value);
+            case MIN -> Math.min(value, operand);
+            case MAX -> Math.max(value, operand);
+        };
+    }
+
+    @Override
+    public String toString() {
+        return !hasOperand() ? kind.name() : kind + " " + (integral ? String.valueOf(longOperand) : String.valueOf(doubleOperand));
+    }
+}
@@ -0,0 +1,166 @@
+package org.learning.streams.simd;
+
+/*
+ * A filter condition the kernels know how to evaluate on a whole vector at once.
+ * An arbitrary IntPredicate lambda is a black box (can't be turned into a vector compare),
+ * so only these building blocks are offered: comparisons against a constant and even/odd.
+ *
+ * usage:
+ * SimdKernels.filter(values, LanePredicate.even());          // same as IntStream.of(values).filter(num -> num % 2 == 0)
+ * SimdKernels.filter(prices, LanePredicate.greaterThan(9.5)); // same as DoubleStream.of(prices).filter(price -> price > 9.5)
+ * */
+public final class LanePredicate {
+
+    enum Kind { LESS_THAN, LESS_THAN_OR_EQUAL, GREATER_THAN, GREATER_THAN_OR_EQUAL, EQUAL, NOT_EQUAL, EVEN, ODD }
+
+    final Kind kind;
+    final long longOperand;
+    final double doubleOperand;
+    private final boolean integral;
+
+    private LanePredicate(Kind kind, long longOperand, double doubleOperand, boolean integral) {
+        this.kind = kind;
+        this.longOperand = longOperand;
+        this.doubleOperand = doubleOperand;
+        this.integral = integral;
+    }
+
+    private static LanePredicate of(Kind kind, long operand) {
+        return new LanePredicate(kind, operand, operand, true);
+    }
+
+    private static LanePredicate of(Kind kind, double operand) {
+        return new LanePredicate(kind, (long) operand, operand, false);
+    }
+
+    public static LanePredicate lessThan(long operand) {
+        return of(Kind.LESS_THAN, operand);
+    }
+
+    public static LanePredicate lessThan(double operand) {
+        return of(Kind.LESS_THAN, operand);
+    }
+
+    public static LanePredicate lessThanOrEqual(long operand) {
+        return of(Kind.LESS_THAN_OR_EQUAL, operand);
+    }
+
+    public static LanePredicate lessThanOrEqual(double operand) {
+        return of(Kind.LESS_THAN_OR_EQUAL, operand);
+    }
+
+    public static LanePredicate greaterThan(long operand) {
+        return of(Kind.GREATER_THAN, operand);
+    }
+
+    public static LanePredicate greaterThan(double operand) {
+        return of(Kind.GREATER_THAN, operand);
+    }
+
+    public static LanePredicate greaterThanOrEqual(long operand) {
+        return of(Kind.GREATER_THAN_OR_EQUAL, operand);
+    }
+
+    public static LanePredicate greaterThanOrEqual(double operand) {
+        return of(Kind.GREATER_THAN_OR_EQUAL, operand);
+    }
+
+    public static LanePredicate equalTo(long operand) {
+        return of(Kind.EQUAL, operand);
+    }
+
+    public static LanePredicate equalTo(double operand) {
+        return of(Kind.EQUAL, operand);
+    }
+
+    public static LanePredicate notEqualTo(long operand) {
+        return of(Kind.NOT_EQUAL, operand);
+    }
+
+    public static LanePredicate notEqualTo(double operand) {
+        return of(Kind.NOT_EQUAL, operand);
+    }
+
+    /*num % 2 == 0, only for int and long values*/
+    public static LanePredicate even() {
+        return of(Kind.EVEN, 0L);
+    }
+
+    /*num % 2 != 0, only for int and long values*/
+    public static LanePredicate odd() {
+        return of(Kind.ODD, 0L);
+    }
+
+    private boolean hasOperand() {
+        return !(kind == Kind.EVEN || kind == Kind.ODD);
+    }
+
+    /*operand for int lanes, 0 for the kinds that don't take one*/
+    int intOperand() {
+        long operand = longOperandChecked();
+        if (operand != (int) operand) {
+            throw new IllegalArgumentException(operand + " is out of the int range, compare against a long[] instead");
+        }
+        return (int) operand;
+    }
+
+    long longOperandChecked() {
+        if (!hasOperand()) {
+            return 0L;
+        }
+        if (!integral) {
+            throw new IllegalArgumentException(doubleOperand + " is not a whole number, compare against a double[] instead");
+        }
+        return longOperand;
+    }
+
+    void checkDoubleLanes() {
+        if (!hasOperand()) {
+            throw new IllegalArgumentException(kind + " only applies to int and long values");
+        }
+    }
+
+    /*scalar versions used by the fallback kernels and for the tail that doesn't fill a vector*/
+    boolean test(int value, int operand) {
+        return switch (kind) {
+            case LESS_THAN -> value < operand;
+            case LESS_THAN_OR_EQUAL -> value <= operand;
+            case GREATER_THAN -> value > operand;
+            case GREATER_THAN_OR_EQUAL -> value >= operand;
+            case EQUAL -> value == operand;
+            case NOT_EQUAL -> value != operand;
+            case EVEN -> (value & 1) == 0;
+            case ODD -> (value & 1) != 0;
+        };
+    }
+
+    boolean test(long value, long operand) {
+        return switch (kind) {
+            case LESS_THAN -> value < operand;
+            case LESS_THAN_OR_EQUAL -> value <= operand;
+            case GREATER_THAN -> value > operand;
+            case GREATER_THAN_OR_EQUAL -> value >= operand;
+            case EQUAL -> value == operand;
+            case NOT_EQUAL -> value != operand;
+            case EVEN -> (value & 1) == 0;
+            case ODD -> (value & 1) != 0;
+        };
+    }
+
+    boolean test(double value, double operand) {
+        return switch (kind) {
+            case LESS_THAN -> value < operand;
+            case LESS_THAN_OR_EQUAL -> value <= operand;
+            case GREATER_THAN -> value > operand;
+            case GREATER_THAN_OR_EQUAL -> value >= operand;
+            case EQUAL -> value == operand;
+            case NOT_EQUAL -> value != operand;
+            case EVEN, ODD -> throw new IllegalArgumentException(kind + " only applies to int and long values");
+        };
+    }
+
+    @Override
+    public String toString() {
+        return !hasOperand() ? kind.name() : kind + " " + (integral ? String.valueOf(longOperand) : String.valueOf(doubleOperand));
+    }
+}
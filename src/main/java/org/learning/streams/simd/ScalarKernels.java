@@ -0,0 +1,221 @@
+package org.learning.streams.simd;
+
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
+import java.util.IntSummaryStatistics;
+import java.util.LongSummaryStatistics;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+
+/*
+ * Fallback used when the jdk.incubator.vector module isn't enabled.
+ * Plain indexed loops over the array: no stream pipeline, no boxing, and the JIT can still auto-vectorize
+ * the simple ones (map, sum, min, max). The results are the same as the IntStream/LongStream/DoubleStream versions.
+ * */
+final class ScalarKernels implements Kernels {
+
+    @Override
+    public int[] filter(int[] values, LanePredicate predicate) {
+        int operand = predicate.intOperand();
+        int[] result = new int[values.length];
+        int size = 0;
+        for (int value : values) {
+            if (predicate.test(value, operand)) {
+                result[size++] = value;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    @Override
+    public long[] filter(long[] values, LanePredicate predicate) {
+        long operand = predicate.longOperandChecked();
+        long[] result = new long[values.length];
+        int size = 0;
+        for (long value : values) {
+            if (predicate.test(value, operand)) {
+                result[size++] = value;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    @Override
+    public double[] filter(double[] values, LanePredicate predicate) {
+        predicate.checkDoubleLanes();
+        double operand = predicate.doubleOperand;
+        double[] result = new double[values.length];
+        int size = 0;
+        for (double value : values) {
+            if (predicate.test(value, operand)) {
+                result[size++] = value;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    @Override
+    public int[] map(int[] values, LaneOperator operator) {
+        int operand = operator.intOperand();
+        int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = operator.apply(values[i], operand);
+        }
+        return result;
+    }
+
+    @Override
+    public long[] map(long[] values, LaneOperator operator) {
+        long operand = operator.longOperandChecked();
+        long[] result = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = operator.apply(values[i], operand);
+        }
+        return result;
+    }
+
+    @Override
+    public double[] map(double[] values, LaneOperator operator) {
+        double operand = operator.doubleOperand;
+        double[] result = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = operator.apply(values[i], operand);
+        }
+        return result;
+    }
+
+    @Override
+    public int sum(int[] values) {
+        int sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Override
+    public long sum(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    /*Kahan summation like DoubleStream.sum(), the last compensation included, so the rounding error doesn't grow with the array length*/
+    @Override
+    public double sum(double[] values) {
+        double sum = 0;
+        double compensation = 0;
+        double simpleSum = 0;
+        for (double value : values) {
+            double corrected = value - compensation;
+            double next = sum + corrected;
+            compensation = (next - sum) - corrected;
+            sum = next;
+            simpleSum += value;
+        }
+        double compensated = sum - compensation;
+        return Double.isNaN(compensated) && Double.isInfinite(simpleSum) ? simpleSum : compensated;
+    }
+
+    @Override
+    public OptionalInt min(int[] values) {
+        if (values.length == 0) {
+            return OptionalInt.empty();
+        }
+        int min = Integer.MAX_VALUE;
+        for (int value : values) {
+            min = Math.min(min, value);
+        }
+        return OptionalInt.of(min);
+    }
+
+    @Override
+    public OptionalLong min(long[] values) {
+        if (values.length == 0) {
+            return OptionalLong.empty();
+        }
+        long min = Long.MAX_VALUE;
+        for (long value : values) {
+            min = Math.min(min, value);
+        }
+        return OptionalLong.of(min);
+    }
+
+    @Override
+    public OptionalDouble min(double[] values) {
+        if (values.length == 0) {
+            return OptionalDouble.empty();
+        }
+        double min = Double.POSITIVE_INFINITY;
+        for (double value : values) {
+            min = Math.min(min, value);
+        }
+        return OptionalDouble.of(min);
+    }
+
+    @Override
+    public OptionalInt max(int[] values) {
+        if (values.length == 0) {
+            return OptionalInt.empty();
+        }
+        int max = Integer.MIN_VALUE;
+        for (int value : values) {
+            max = Math.max(max, value);
+        }
+        return OptionalInt.of(max);
+    }
+
+    @Override
+    public OptionalLong max(long[] values) {
+        if (values.length == 0) {
+            return OptionalLong.empty();
+        }
+        long max = Long.MIN_VALUE;
+        for (long value : values) {
+            max = Math.max(max, value);
+        }
+        return OptionalLong.of(max);
+    }
+
+    @Override
+    public OptionalDouble max(double[] values) {
+        if (values.length == 0) {
+            return OptionalDouble.empty();
+        }
+        double max = Double.NEGATIVE_INFINITY;
+        for (double value : values) {
+            max = Math.max(max, value);
+        }
+        return OptionalDouble.of(max);
+    }
+
+    @Override
+    public IntSummaryStatistics summaryStatistics(int[] values) {
+        IntSummaryStatistics statistics = new IntSummaryStatistics();
+        for (int value : values) {
+            statistics.accept(value);
+        }
+        return statistics;
+    }
+
+    @Override
+    public LongSummaryStatistics summaryStatistics(long[] values) {
+        LongSummaryStatistics statistics = new LongSummaryStatistics();
+        for (long value : values) {
+            statistics.accept(value);
+        }
+        return statistics;
+    }
+
+    @Override
+    public DoubleSummaryStatistics summaryStatistics(double[] values) {
+        DoubleSummaryStatistics statistics = new DoubleSummaryStatistics();
+        for (double value : values) {
+            statistics.accept(value);
+        }
+        return statistics;
+    }
+}
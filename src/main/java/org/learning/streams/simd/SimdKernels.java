@@ -0,0 +1,130 @@
+package org.learning.streams.simd;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.IntSummaryStatistics;
+import java.util.LongSummaryStatistics;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+
+/*
+ * Array versions of the primitive stream operations that run on SIMD registers through the Vector API (jdk.incubator.vector).
+ * IntStream.of(values).filter(...).toArray() handles one element per step behind a lambda call,
+ * these kernels handle a whole vector of elements per step (8 ints with AVX2, 16 with AVX-512).
+ *
+ * The vector module is an incubator module so it has to be enabled when starting the jvm:
+ *     java --add-modules jdk.incubator.vector ...
+ * Without it every method falls back to plain scalar loops with the same results, check isVectorized() to see which one runs.
+ *
+ * usage:
+ * int[] evens   = SimdKernels.filter(values, LanePredicate.even());   // IntStream.of(values).filter(num -> num % 2 == 0).toArray()
+ * int[] squares = SimdKernels.map(values, LaneOperator.square());     // IntStream.of(values).map(num -> num * num).toArray()
+ * int sum       = SimdKernels.sum(values);                            // IntStream.of(values).sum()
+ * IntSummaryStatistics statistics = SimdKernels.summaryStatistics(values);
+ *
+ * double sums are compensated like DoubleStream.sum() but added in a different order, so the last bits can differ.
+ * */
+public final class SimdKernels {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final Kernels KERNELS = load();
+
+    private SimdKernels() {
+    }
+
+    /*
+     * VectorKernels links against the incubator module so it is only loaded (by name) when the module is present.
+     * Referencing it directly here would make this class fail to load on a jvm started without --add-modules.
+     * */
+    private static Kernels load() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                return (Kernels) Class.forName(SimdKernels.class.getPackageName() + ".VectorKernels")
+                        .getDeclaredConstructor()
+                        .newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return new ScalarKernels();
+            }
+        }
+        return new ScalarKernels();
+    }
+
+    /*true when the Vector API kernels are in use, false for the scalar fallback*/
+    public static boolean isVectorized() {
+        return !(KERNELS instanceof ScalarKernels);
+    }
+
+    public static int[] filter(int[] values, LanePredicate predicate) {
+        return KERNELS.filter(values, predicate);
+    }
+
+    public static long[] filter(long[] values, LanePredicate predicate) {
+        return KERNELS.filter(values, predicate);
+    }
+
+    public static double[] filter(double[] values, LanePredicate predicate) {
+        return KERNELS.filter(values, predicate);
+    }
+
+    public static int[] map(int[] values, LaneOperator operator) {
+        return KERNELS.map(values, operator);
+    }
+
+    public static long[] map(long[] values, LaneOperator operator) {
+        return KERNELS.map(values, operator);
+    }
+
+    public static double[] map(double[] values, LaneOperator operator) {
+        return KERNELS.map(values, operator);
+    }
+
+    /*wraps on overflow like IntStream.sum(), use summaryStatistics(values).getSum() for the exact long sum*/
+    public static int sum(int[] values) {
+        return KERNELS.sum(values);
+    }
+
+    public static long sum(long[] values) {
+        return KERNELS.sum(values);
+    }
+
+    public static double sum(double[] values) {
+        return KERNELS.sum(values);
+    }
+
+    public static OptionalInt min(int[] values) {
+        return KERNELS.min(values);
+    }
+
+    public static OptionalLong min(long[] values) {
+        return KERNELS.min(values);
+    }
+
+    public static OptionalDouble min(double[] values) {
+        return KERNELS.min(values);
+    }
+
+    public static OptionalInt max(int[] values) {
+        return KERNELS.max(values);
+    }
+
+    public static OptionalLong max(long[] values) {
+        return KERNELS.max(values);
+    }
+
+    public static OptionalDouble max(double[] values) {
+        return KERNELS.max(values);
+    }
+
+    /*count, min, max and the long sum in a single pass*/
+    public static IntSummaryStatistics summaryStatistics(int[] values) {
+        return KERNELS.summaryStatistics(values);
+    }
+
+    public static LongSummaryStatistics summaryStatistics(long[] values) {
+        return KERNELS.summaryStatistics(values);
+    }
+
+    public static DoubleSummaryStatistics summaryStatistics(double[] values) {
+        return KERNELS.summaryStatistics(values);
+    }
+}
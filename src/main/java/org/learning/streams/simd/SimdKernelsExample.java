@@ -0,0 +1,38 @@
+package org.learning.streams.simd;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+/*run with: java --add-modules jdk.incubator.vector ... to use the vector kernels, without it the scalar fallback runs*/
+@Slf4j
+public class SimdKernelsExample {
+    public static void main(String[] args) {
+        log.info("vector kernels enabled: {}", SimdKernels.isVectorized());
+        int[] numbers = IntStream.rangeClosed(1, 10).toArray();
+
+        log.info("filter: IntStream.range(1, 11).filter(num -> num % 2 == 0)");
+        log.info("{}", Arrays.toString(SimdKernels.filter(numbers, LanePredicate.even()))); // [2, 4, 6, 8, 10]
+
+        log.info("map: IntStream.rangeClosed(1, 10).map(num -> num * num)");
+        log.info("{}", Arrays.toString(SimdKernels.map(numbers, LaneOperator.square()))); // [1, 4, 9, ..., 100]
+        log.info("map: mapToInt(num -> num * 10)");
+        log.info("{}", Arrays.toString(SimdKernels.map(numbers, LaneOperator.multiply(10)))); // [10, 20, ..., 100]
+
+        log.info("sum: {}", SimdKernels.sum(numbers)); // 55
+        log.info("min: {} max: {}", SimdKernels.min(numbers), SimdKernels.max(numbers)); // OptionalInt[1] OptionalInt[10]
+        log.info("summaryStatistics: {}", SimdKernels.summaryStatistics(numbers));
+
+        double[] prices = {9.99, 4.5, 12.0, 7.25, 19.9};
+        log.info("prices above 8: {}", Arrays.toString(SimdKernels.filter(prices, LanePredicate.greaterThan(8.0)))); // [9.99, 12.0, 19.9]
+        log.info("prices summary: {}", SimdKernels.summaryStatistics(prices));
+        double[] infinities = {1.5, Double.POSITIVE_INFINITY, -2.5, Double.NEGATIVE_INFINITY, 3, 4, 5, 6, 7, 8, 9, 10};
+        log.info("both infinities, sum is NaN but min/max aren't: {}", SimdKernels.summaryStatistics(infinities));
+        log.info("same as DoubleStream: {}", DoubleStream.of(infinities).summaryStatistics()); // {count=12, sum=NaN, min=-Infinity, ..., max=Infinity}
+
+        log.info("a lambda can't be vectorized so the kernels only accept the LanePredicate/LaneOperator building blocks");
+        log.info("the gain shows up on big arrays, for 10 numbers the plain stream is just as good");
+    }
+}
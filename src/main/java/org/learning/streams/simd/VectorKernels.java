@@ -0,0 +1,447 @@
+package org.learning.streams.simd;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
+import java.util.IntSummaryStatistics;
+import java.util.LongSummaryStatistics;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+
+/*
+ * Vector API version of the kernels, one loop step handles SPECIES.length() values (8 ints with AVX2, 16 with AVX-512).
+ * Every loop runs over SPECIES.loopBound(length) and finishes the tail (< one vector) with the scalar code.
+ * This class is only loaded by SimdKernels when jdk.incubator.vector is in the boot layer,
+ * otherwise its first use would fail with NoClassDefFoundError.
+ * */
+final class VectorKernels implements Kernels {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    /*
+     * int sums are split into the low 16 bits (0..65535) and the signed high 16 bits so they can be added in int lanes.
+     * After FLUSH_EVERY vectors even the sum of all the lanes still fits in an int, then it's moved to a long.
+     * */
+    private static final int FLUSH_EVERY = 1024;
+
+    @Override
+    public int[] filter(int[] values, LanePredicate predicate) {
+        int operand = predicate.intOperand();
+        int[] result = new int[values.length];
+        int size = 0;
+        int i = 0;
+        for (int bound = INTS.loopBound(values.length); i < bound; i += INTS.length()) {
+            IntVector vector = IntVector.fromArray(INTS, values, i);
+            VectorMask<Integer> mask = test(vector, predicate, operand);
+            // compress moves the selected lanes to the front, size + length <= i + length <= values.length so it always fits
+            vector.compress(mask).intoArray(result, size);
+            size += mask.trueCount();
+        }
+        for (; i < values.length; i++) {
+            if (predicate.test(values[i], operand)) {
+                result[size++] = values[i];
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    @Override
+    public long[] filter(long[] values, LanePredicate predicate) {
+        long operand = predicate.longOperandChecked();
+        long[] result = new long[values.length];
+        int size = 0;
+        int i = 0;
+        for (int bound = LONGS.loopBound(values.length); i < bound; i += LONGS.length()) {
+            LongVector vector = LongVector.fromArray(LONGS, values, i);
+            VectorMask<Long> mask = test(vector, predicate, operand);
+            vector.compress(mask).intoArray(result, size);
+            size += mask.trueCount();
+        }
+        for (; i < values.length; i++) {
+            if (predicate.test(values[i], operand)) {
+                result[size++] = values[i];
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    @Override
+    public double[] filter(double[] values, LanePredicate predicate) {
+        predicate.checkDoubleLanes();
+        double operand = predicate.doubleOperand;
+        double[] result = new double[values.length];
+        int size = 0;
+        int i = 0;
+        for (int bound = DOUBLES.loopBound(values.length); i < bound; i += DOUBLES.length()) {
+            DoubleVector vector = DoubleVector.fromArray(DOUBLES, values, i);
+            VectorMask<Double> mask = vector.compare(comparison(predicate), operand);
+            vector.compress(mask).intoArray(result, size);
+            size += mask.trueCount();
+        }
+        for (; i < values.length; i++) {
+            if (predicate.test(values[i], operand)) {
+                result[size++] = values[i];
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    private static VectorMask<Integer> test(IntVector vector, LanePredicate predicate, int operand) {
+        return switch (predicate.kind) {
+            case EVEN -> vector.and(1).compare(VectorOperators.EQ, 0);
+            case ODD -> vector.and(1).compare(VectorOperators.NE, 0);
+            default -> vector.compare(comparison(predicate), operand);
+        };
+    }
+
+    private static VectorMask<Long> test(LongVector vector, LanePredicate predicate, long operand) {
+        return switch (predicate.kind) {
+            case EVEN -> vector.and(1L).compare(VectorOperators.EQ, 0L);
+            case ODD -> vector.and(1L).compare(VectorOperators.NE, 0L);
+            default -> vector.compare(comparison(predicate), operand);
+        };
+    }
+
+    private static VectorOperators.Comparison comparison(LanePredicate predicate) {
+        return switch (predicate.kind) {
+            case LESS_THAN -> VectorOperators.LT;
+            case LESS_THAN_OR_EQUAL -> VectorOperators.LE;
+            case GREATER_THAN -> VectorOperators.GT;
+            case GREATER_THAN_OR_EQUAL -> VectorOperators.GE;
+            case EQUAL -> VectorOperators.EQ;
+            case NOT_EQUAL -> VectorOperators.NE;
+            case EVEN, ODD -> throw new IllegalArgumentException(predicate.kind + " is not a comparison");
+        };
+    }
+
+    @Override
+    public int[] map(int[] values, LaneOperator operator) {
+        int operand = operator.intOperand();
+        int[] result = new int[values.length];
+        int i = 0;
+        for (int bound = INTS.loopBound(values.length); i < bound; i += INTS.length()) {
+            IntVector vector = IntVector.fromArray(INTS, values, i);
+            IntVector mapped = switch (operator.kind) {
+                case ADD -> vector.add(operand);
+                case SUBTRACT -> vector.sub(operand);
+                case MULTIPLY -> vector.mul(operand);
+                case SQUARE -> vector.mul(vector);
+                case NEGATE -> vector.neg();
+                case ABS -> vector.abs();
+                case MIN -> vector.min(operand);
+                case MAX -> vector.max(operand);
+            };
+            mapped.intoArray(result, i);
+        }
+        for (; i < values.length; i++) {
+            result[i] = operator.apply(values[i], operand);
+        }
+        return result;
+    }
+
+    @Override
+    public long[] map(long[] values, LaneOperator operator) {
+        long operand = operator.longOperandChecked();
+        long[] result = new long[values.length];
+        int i = 0;
+        for (int bound = LONGS.loopBound(values.length); i < bound; i += LONGS.length()) {
+            LongVector vector = LongVector.fromArray(LONGS, values, i);
+            LongVector mapped = switch (operator.kind) {
+                case ADD -> vector.add(operand);
+                case SUBTRACT -> vector.sub(operand);
+                case MULTIPLY -> vector.mul(operand);
+                case SQUARE -> vector.mul(vector);
+                case NEGATE -> vector.neg();
+                case ABS -> vector.abs();
+                case MIN -> vector.min(operand);
+                case MAX -> vector.max(operand);
+            };
+            mapped.intoArray(result, i);
+        }
+        for (; i < values.length; i++) {
+            result[i] = operator.apply(values[i], operand);
+        }
+        return result;
+    }
+
+    @Override
+    public double[] map(double[] values, LaneOperator operator) {
+        double operand = operator.doubleOperand;
+        double[] result = new double[values.length];
+        int i = 0;
+        for (int bound = DOUBLES.loopBound(values.length); i < bound; i += DOUBLES.length()) {
+            DoubleVector vector = DoubleVector.fromArray(DOUBLES, values, i);
+            DoubleVector mapped = switch (operator.kind) {
+                case ADD -> vector.add(operand);
+                case SUBTRACT -> vector.sub(operand);
+                case MULTIPLY -> vector.mul(operand);
+                case SQUARE -> vector.mul(vector);
+                case NEGATE -> vector.neg();
+                case ABS -> vector.abs();
+                case MIN -> vector.min(operand);
+                case MAX -> vector.max(operand);
+            };
+            mapped.intoArray(result, i);
+        }
+        for (; i < values.length; i++) {
+            result[i] = operator.apply(values[i], operand);
+        }
+        return result;
+    }
+
+    /*int overflow wraps the same way in every lane so the order of the additions doesn't change the result*/
+    @Override
+    public int sum(int[] values) {
+        IntVector sums = IntVector.zero(INTS);
+        int i = 0;
+        for (int bound = INTS.loopBound(values.length); i < bound; i += INTS.length()) {
+            sums = sums.add(IntVector.fromArray(INTS, values, i));
+        }
+        int sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < values.length; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public long sum(long[] values) {
+        LongVector sums = LongVector.zero(LONGS);
+        int i = 0;
+        for (int bound = LONGS.loopBound(values.length); i < bound; i += LONGS.length()) {
+            sums = sums.add(LongVector.fromArray(LONGS, values, i));
+        }
+        long sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < values.length; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    /*
+     * Kahan summation in every lane, then the lanes are combined with Kahan summation too.
+     * The additions happen in a different order than DoubleStream.sum() so the last bits can differ,
+     * but the error stays as small as the compensated stream version (it doesn't grow with the length).
+     * */
+    @Override
+    public double sum(double[] values) {
+        DoubleVector sums = DoubleVector.zero(DOUBLES);
+        DoubleVector compensations = DoubleVector.zero(DOUBLES);
+        DoubleVector simpleSums = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (int bound = DOUBLES.loopBound(values.length); i < bound; i += DOUBLES.length()) {
+            DoubleVector vector = DoubleVector.fromArray(DOUBLES, values, i);
+            DoubleVector corrected = vector.sub(compensations);
+            DoubleVector next = sums.add(corrected);
+            compensations = next.sub(sums).sub(corrected);
+            sums = next;
+            simpleSums = simpleSums.add(vector);
+        }
+        return combine(sums, compensations, simpleSums, values, i);
+    }
+
+    /*adds up the lanes and the scalar tail values[from..] with Kahan summation*/
+    private static double combine(DoubleVector sums, DoubleVector compensations, DoubleVector simpleSums, double[] values, int from) {
+        double sum = 0;
+        double compensation = 0;
+        double simpleSum = 0;
+        for (int lane = 0; lane < DOUBLES.length(); lane++) {
+            double corrected = sums.lane(lane) - compensations.lane(lane) - compensation;
+            double next = sum + corrected;
+            compensation = (next - sum) - corrected;
+            sum = next;
+            simpleSum += simpleSums.lane(lane);
+        }
+        for (int i = from; i < values.length; i++) {
+            double corrected = values[i] - compensation;
+            double next = sum + corrected;
+            compensation = (next - sum) - corrected;
+            sum = next;
+            simpleSum += values[i];
+        }
+        double compensated = sum - compensation;
+        return Double.isNaN(compensated) && Double.isInfinite(simpleSum) ? simpleSum : compensated;
+    }
+
+    @Override
+    public OptionalInt min(int[] values) {
+        return values.length == 0 ? OptionalInt.empty() : OptionalInt.of(reduce(values, VectorOperators.MIN, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public OptionalLong min(long[] values) {
+        return values.length == 0 ? OptionalLong.empty() : OptionalLong.of(reduce(values, VectorOperators.MIN, Long.MAX_VALUE));
+    }
+
+    @Override
+    public OptionalDouble min(double[] values) {
+        return values.length == 0 ? OptionalDouble.empty() : OptionalDouble.of(reduce(values, VectorOperators.MIN, Double.POSITIVE_INFINITY));
+    }
+
+    @Override
+    public OptionalInt max(int[] values) {
+        return values.length == 0 ? OptionalInt.empty() : OptionalInt.of(reduce(values, VectorOperators.MAX, Integer.MIN_VALUE));
+    }
+
+    @Override
+    public OptionalLong max(long[] values) {
+        return values.length == 0 ? OptionalLong.empty() : OptionalLong.of(reduce(values, VectorOperators.MAX, Long.MIN_VALUE));
+    }
+
+    @Override
+    public OptionalDouble max(double[] values) {
+        return values.length == 0 ? OptionalDouble.empty() : OptionalDouble.of(reduce(values, VectorOperators.MAX, Double.NEGATIVE_INFINITY));
+    }
+
+    /*lanewise MIN/MAX in the loop and a single cross-lane reduction at the end, identity is the starting value*/
+    private static int reduce(int[] values, VectorOperators.Associative operator, int identity) {
+        IntVector accumulator = IntVector.broadcast(INTS, identity);
+        int i = 0;
+        for (int bound = INTS.loopBound(values.length); i < bound; i += INTS.length()) {
+            accumulator = accumulator.lanewise(operator, IntVector.fromArray(INTS, values, i));
+        }
+        int result = accumulator.reduceLanes(operator);
+        for (; i < values.length; i++) {
+            result = operator == VectorOperators.MIN ? Math.min(result, values[i]) : Math.max(result, values[i]);
+        }
+        return result;
+    }
+
+    private static long reduce(long[] values, VectorOperators.Associative operator, long identity) {
+        LongVector accumulator = LongVector.broadcast(LONGS, identity);
+        int i = 0;
+        for (int bound = LONGS.loopBound(values.length); i < bound; i += LONGS.length()) {
+            accumulator = accumulator.lanewise(operator, LongVector.fromArray(LONGS, values, i));
+        }
+        long result = accumulator.reduceLanes(operator);
+        for (; i < values.length; i++) {
+            result = operator == VectorOperators.MIN ? Math.min(result, values[i]) : Math.max(result, values[i]);
+        }
+        return result;
+    }
+
+    /*floating point MIN/MAX follow Math.min/Math.max: NaN wins and -0.0 is smaller than 0.0, same as DoubleStream*/
+    private static double reduce(double[] values, VectorOperators.Associative operator, double identity) {
+        DoubleVector accumulator = DoubleVector.broadcast(DOUBLES, identity);
+        int i = 0;
+        for (int bound = DOUBLES.loopBound(values.length); i < bound; i += DOUBLES.length()) {
+            accumulator = accumulator.lanewise(operator, DoubleVector.fromArray(DOUBLES, values, i));
+        }
+        double result = accumulator.reduceLanes(operator);
+        for (; i < values.length; i++) {
+            result = operator == VectorOperators.MIN ? Math.min(result, values[i]) : Math.max(result, values[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public IntSummaryStatistics summaryStatistics(int[] values) {
+        if (values.length == 0) {
+            return new IntSummaryStatistics();
+        }
+        IntVector mins = IntVector.broadcast(INTS, Integer.MAX_VALUE);
+        IntVector maxs = IntVector.broadcast(INTS, Integer.MIN_VALUE);
+        IntVector lows = IntVector.zero(INTS);
+        IntVector highs = IntVector.zero(INTS);
+        long sum = 0;
+        int i = 0;
+        int bound = INTS.loopBound(values.length);
+        while (i < bound) {
+            int blockEnd = (int) Math.min(bound, i + (long) FLUSH_EVERY * INTS.length());
+            for (; i < blockEnd; i += INTS.length()) {
+                IntVector vector = IntVector.fromArray(INTS, values, i);
+                mins = mins.min(vector);
+                maxs = maxs.max(vector);
+                lows = lows.add(vector.and(0xFFFF));
+                highs = highs.add(vector.lanewise(VectorOperators.ASHR, 16));
+            }
+            sum += lows.reduceLanes(VectorOperators.ADD) + ((long) highs.reduceLanes(VectorOperators.ADD) << 16);
+            lows = IntVector.zero(INTS);
+            highs = IntVector.zero(INTS);
+        }
+        int min = mins.reduceLanes(VectorOperators.MIN);
+        int max = maxs.reduceLanes(VectorOperators.MAX);
+        for (; i < values.length; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+            sum += values[i];
+        }
+        return new IntSummaryStatistics(values.length, min, max, sum);
+    }
+
+    @Override
+    public LongSummaryStatistics summaryStatistics(long[] values) {
+        if (values.length == 0) {
+            return new LongSummaryStatistics();
+        }
+        LongVector mins = LongVector.broadcast(LONGS, Long.MAX_VALUE);
+        LongVector maxs = LongVector.broadcast(LONGS, Long.MIN_VALUE);
+        LongVector sums = LongVector.zero(LONGS);
+        int i = 0;
+        for (int bound = LONGS.loopBound(values.length); i < bound; i += LONGS.length()) {
+            LongVector vector = LongVector.fromArray(LONGS, values, i);
+            mins = mins.min(vector);
+            maxs = maxs.max(vector);
+            sums = sums.add(vector);
+        }
+        long min = mins.reduceLanes(VectorOperators.MIN);
+        long max = maxs.reduceLanes(VectorOperators.MAX);
+        long sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < values.length; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+            sum += values[i];
+        }
+        return new LongSummaryStatistics(values.length, min, max, sum);
+    }
+
+    /*one pass for min, max and the compensated sum (same summation as sum(double[]))*/
+    @Override
+    public DoubleSummaryStatistics summaryStatistics(double[] values) {
+        if (values.length == 0) {
+            return new DoubleSummaryStatistics();
+        }
+        DoubleVector mins = DoubleVector.broadcast(DOUBLES, Double.POSITIVE_INFINITY);
+        DoubleVector maxs = DoubleVector.broadcast(DOUBLES, Double.NEGATIVE_INFINITY);
+        DoubleVector sums = DoubleVector.zero(DOUBLES);
+        DoubleVector compensations = DoubleVector.zero(DOUBLES);
+        DoubleVector simpleSums = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (int bound = DOUBLES.loopBound(values.length); i < bound; i += DOUBLES.length()) {
+            DoubleVector vector = DoubleVector.fromArray(DOUBLES, values, i);
+            mins = mins.min(vector);
+            maxs = maxs.max(vector);
+            DoubleVector corrected = vector.sub(compensations);
+            DoubleVector next = sums.add(corrected);
+            compensations = next.sub(sums).sub(corrected);
+            sums = next;
+            simpleSums = simpleSums.add(vector);
+        }
+        double min = mins.reduceLanes(VectorOperators.MIN);
+        double max = maxs.reduceLanes(VectorOperators.MAX);
+        double sum = combine(sums, compensations, simpleSums, values, i);
+        if (Double.isNaN(sum)) {
+            // a NaN or both infinities: min/max may still be numbers, which the (count, min, max, sum) constructor rejects,
+            // accept() gives the same NaN sum and real min/max as DoubleStream.summaryStatistics()
+            DoubleSummaryStatistics statistics = new DoubleSummaryStatistics();
+            for (double value : values) {
+                statistics.accept(value);
+            }
+            return statistics;
+        }
+        for (; i < values.length; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        return new DoubleSummaryStatistics(values.length, min, max, sum);
+    }
+}
@@ -0,0 +1,367 @@
+package org.learning.streams.terminaloperations;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/*
+ * Drop in replacement for forEach(System.out::println) when a pipeline prints a lot of elements.
+ *
+ * System.out.println locks the PrintStream and flushes on every line, a parallel stream spends its time waiting for
+ * that lock and for one write system call per element. This sink instead:
+ * - formats every element into a buffer owned by the calling thread (no shared lock on the hot path)
+ * - hands a full buffer (bufferSize chars) to a single writer thread through a lock-free ConcurrentLinkedQueue
+ * - the writer writes whole buffers with one gathering FileChannel write (stdout or a file)
+ * - backpressure: at most maxPendingBuffers full buffers wait for the writer, then accept blocks until it caught up,
+ *   so a slow disk/terminal can't make the queue eat the heap
+ * - close() (or flush()) hands over every thread's partly filled buffer and waits until all of it is written
+ * - memory: a thread's buffer starts at INITIAL_CAPACITY chars, grows up to about bufferSize and is dropped when it is
+ *   handed over; the buffers of threads that ended are handed over and forgotten by flush/close and every time the
+ *   number of registered buffers doubled, so many short lived (virtual) threads with a line each don't pile up
+ *
+ * Order: one thread's lines keep their order, lines from different threads are interleaved per buffer
+ * (a sequential stream keeps the exact order). Call close()/flush() after the stream finished, not while
+ * other threads are still calling accept. A write failure is thrown from the next accept/flush/close.
+ *
+ * usage:
+ * try (AsyncOutputSink<Integer> out = AsyncOutputSink.<Integer>builder().build()) {   // stdout
+ *     integers.parallelStream().map(x -> x * 2).forEach(out);
+ * }
+ * */
+public final class AsyncOutputSink<T> implements Consumer<T>, AutoCloseable {
+
+    /*queued by close() after the last data, the writer thread ends when it reads it*/
+    private static final Object STOP = new Object();
+    private static final int INITIAL_CAPACITY = 256;
+    /*fewer registered buffers than this are never swept, it's not worth walking them*/
+    private static final int MIN_SWEEP = 64;
+
+    private final FileChannel channel;
+    private final boolean closeChannel;
+    private final BiConsumer<StringBuilder, ? super T> formatter;
+    private final int bufferSize;
+    private final Semaphore pendingBuffers;
+    private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+    private final Queue<ThreadBuffer> threadBuffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger registeredBuffers = new AtomicInteger();
+    private volatile int sweepAt = MIN_SWEEP;
+    private final ThreadLocal<ThreadBuffer> buffers = ThreadLocal.withInitial(this::newThreadBuffer);
+    private final Thread writer;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+
+    private AsyncOutputSink(Builder<T> builder) {
+        this.channel = builder.channel;
+        this.closeChannel = builder.closeChannel;
+        this.formatter = builder.formatter;
+        this.bufferSize = builder.bufferSize;
+        this.pendingBuffers = new Semaphore(builder.maxPendingBuffers);
+        this.writer = Thread.ofPlatform().name("async-output-writer").daemon().start(this::writeLoop);
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /*formats element and a line separator into the calling thread's buffer*/
+    @Override
+    public void accept(T element) {
+        checkOpen();
+        ThreadBuffer buffer = buffers.get();
+        synchronized (buffer) {
+            if (buffer.chars == null) {
+                buffer.chars = new StringBuilder(Math.min(bufferSize, INITIAL_CAPACITY));
+            }
+            formatter.accept(buffer.chars, element);
+            buffer.chars.append(System.lineSeparator());
+            if (buffer.chars.length() >= bufferSize) {
+                handOver(buffer);
+            }
+        }
+    }
+
+    /*writes everything accepted so far and waits until it is written*/
+    public void flush() {
+        checkOpen();
+        handOverAll();
+        CountDownLatch written = new CountDownLatch(1);
+        enqueue(written);
+        awaitUninterruptibly(written);
+        rethrowFailure();
+    }
+
+    /*flushes and stops the writer, closes the file (never stdout), calling it again does nothing*/
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        handOverAll();
+        closed = true;
+        enqueue(STOP);
+        awaitTermination(writer);
+        if (closeChannel) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        rethrowFailure();
+    }
+
+    private ThreadBuffer newThreadBuffer() {
+        ThreadBuffer buffer = new ThreadBuffer(Thread.currentThread());
+        threadBuffers.add(buffer);
+        if (registeredBuffers.incrementAndGet() >= sweepAt) {
+            dropEndedThreads();
+            sweepAt = Math.max(MIN_SWEEP, registeredBuffers.get() * 2);
+        }
+        return buffer;
+    }
+
+    /*the threads that ended can't add to their buffers anymore: what's left is handed over and the buffer forgotten*/
+    private void dropEndedThreads() {
+        for (Iterator<ThreadBuffer> iterator = threadBuffers.iterator(); iterator.hasNext(); ) {
+            ThreadBuffer buffer = iterator.next();
+            if (buffer.ownerEnded()) {
+                drop(buffer, iterator);
+            }
+        }
+    }
+
+    private void drop(ThreadBuffer buffer, Iterator<ThreadBuffer> iterator) {
+        synchronized (buffer) {
+            handOver(buffer);
+            if (buffer.dropped) {
+                return; // another sweep got it first
+            }
+            buffer.dropped = true;
+        }
+        iterator.remove();
+        registeredBuffers.decrementAndGet();
+    }
+
+    /*only called while holding the buffer's monitor, the chars are dropped so an idle thread keeps no buffer*/
+    private void handOver(ThreadBuffer buffer) {
+        if (buffer.chars == null || buffer.chars.isEmpty()) {
+            return;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.chars.toString().getBytes(StandardCharsets.UTF_8));
+        buffer.chars = null;
+        // backpressure: wait for a free slot when the writer is maxPendingBuffers behind
+        pendingBuffers.acquireUninterruptibly();
+        enqueue(bytes);
+    }
+
+    private void handOverAll() {
+        for (Iterator<ThreadBuffer> iterator = threadBuffers.iterator(); iterator.hasNext(); ) {
+            ThreadBuffer buffer = iterator.next();
+            if (buffer.ownerEnded()) {
+                drop(buffer, iterator);
+            } else {
+                synchronized (buffer) {
+                    handOver(buffer);
+                }
+            }
+        }
+    }
+
+    private void enqueue(Object item) {
+        queue.offer(item);
+        LockSupport.unpark(writer);
+    }
+
+    /*
+     * The only thread touching the channel. Drains everything queued so far into one gathering write,
+     * a CountDownLatch in the queue marks the point a flush waits for, STOP the end.
+     * */
+    private void writeLoop() {
+        List<ByteBuffer> batch = new ArrayList<>();
+        while (true) {
+            Object item = queue.poll();
+            if (item == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            while (item instanceof ByteBuffer bytes) {
+                batch.add(bytes);
+                item = queue.poll();
+            }
+            write(batch);
+            pendingBuffers.release(batch.size());
+            batch.clear();
+            if (item instanceof CountDownLatch written) {
+                written.countDown();
+            } else if (item == STOP) {
+                return;
+            }
+        }
+    }
+
+    private void write(List<ByteBuffer> batch) {
+        if (batch.isEmpty() || failure != null) {
+            return; // after a failure the data is dropped, the failure is reported to the producers
+        }
+        try {
+            ByteBuffer[] buffers = batch.toArray(ByteBuffer[]::new);
+            long remaining = 0;
+            for (ByteBuffer buffer : buffers) {
+                remaining += buffer.remaining();
+            }
+            while (remaining > 0) {
+                remaining -= channel.write(buffers);
+            }
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("the sink is closed");
+        }
+        rethrowFailure();
+    }
+
+    private void rethrowFailure() {
+        Throwable current = failure;
+        if (current instanceof IOException e) {
+            throw new UncheckedIOException("writing the output failed", e);
+        }
+        if (current != null) {
+            throw new IllegalStateException("writing the output failed", current);
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitTermination(Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * one per thread that called accept, guarded by its own monitor (only contended by flush/close/sweeps).
+     * The owner is weak so a registered buffer doesn't keep an ended thread reachable.
+     * */
+    private static final class ThreadBuffer {
+        final WeakReference<Thread> owner;
+        /*null when empty, created on the next accept*/
+        StringBuilder chars;
+        /*removed from threadBuffers by a sweep*/
+        boolean dropped;
+
+        ThreadBuffer(Thread owner) {
+            this.owner = new WeakReference<>(owner);
+        }
+
+        boolean ownerEnded() {
+            Thread thread = owner.get();
+            return thread == null || !thread.isAlive();
+        }
+    }
+
+    public static final class Builder<T> {
+        private FileChannel channel;
+        private boolean closeChannel;
+        private BiConsumer<StringBuilder, ? super T> formatter = StringBuilder::append;
+        private int bufferSize = 64 * 1024;
+        private int maxPendingBuffers = 16;
+
+        private Builder() {
+        }
+
+        /*write to the standard output (default), close() leaves stdout open*/
+        public Builder<T> toStdout() {
+            this.channel = null;
+            this.closeChannel = false;
+            return this;
+        }
+
+        /*write to a file, created or truncated, close() closes it*/
+        public Builder<T> toFile(Path file) {
+            try {
+                this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (IOException e) {
+                throw new UncheckedIOException("can't open " + file, e);
+            }
+            this.closeChannel = true;
+            return this;
+        }
+
+        /*how an element is written, default StringBuilder.append(element) (its toString), the line separator is added after it*/
+        public Builder<T> formatter(BiConsumer<StringBuilder, ? super T> formatter) {
+            this.formatter = Objects.requireNonNull(formatter, "formatter");
+            return this;
+        }
+
+        /*chars a thread collects before its buffer goes to the writer*/
+        public Builder<T> bufferSize(int bufferSize) {
+            if (bufferSize < 1) {
+                throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+            }
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /*full buffers allowed to wait for the writer before accept blocks*/
+        public Builder<T> maxPendingBuffers(int maxPendingBuffers) {
+            if (maxPendingBuffers < 1) {
+                throw new IllegalArgumentException("maxPendingBuffers must be positive: " + maxPendingBuffers);
+            }
+            this.maxPendingBuffers = maxPendingBuffers;
+            return this;
+        }
+
+        public AsyncOutputSink<T> build() {
+            if (channel == null) {
+                channel = new FileOutputStream(FileDescriptor.out).getChannel();
+            }
+            return new AsyncOutputSink<>(this);
+        }
+    }
+}
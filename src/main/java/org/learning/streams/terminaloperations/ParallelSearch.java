@@ -0,0 +1,504 @@
+package org.learning.streams.terminaloperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/*
+ * anyMatch/findFirst/findAny for big inputs that stops every worker as soon as the answer is known and can give up
+ * at a deadline.
+ *
+ * A parallel findAny/anyMatch stops splitting after a match, but tasks that already run finish their whole leaf, and
+ * findFirst keeps searching every part before the match. Here the input is cut into chunks that the workers (the caller
+ * plus parallelism - 1 pool tasks) take in encounter order, and every worker looks at the shared state every
+ * CHECK_INTERVAL elements (with a deadline: about every CHECK_NANOS of work, see Cursor):
+ * - unordered (findAny/anyMatch): the first match stops everybody
+ * - ordered (findFirst): a match in chunk c stops the chunks after c, the chunks before c still run since they may
+ *   hold an earlier match
+ * - deadline: at the deadline every worker stops and the caller returns TIMED_OUT with the best candidate so far,
+ *   so a slow search costs at most deadline + CHECK_NANOS (or one predicate call when a call takes longer) instead of
+ *   a full scan.
+ * The caller returns as soon as the answer is known: unordered at the first match, ordered once every chunk before
+ * the best match finished. Workers still in chunks that can't change the answer stop at their next check in the
+ * background, the caller doesn't wait for them (only for its own chunk, it searches too).
+ *
+ * Sources: arrays, int[]/long[], lists (RandomAccess lists by index, others through their spliterator) and any
+ * spliterator, eg: MappedFileStreams.lines(path).spliterator() which splits a mapped file at line boundaries.
+ * anyMatch is find(p).found(), allMatch is !find(p.negate()).found(), noneMatch is !find(p).found().
+ *
+ * usage:
+ * ParallelSearch search = ParallelSearch.builder().unordered().deadline(Duration.ofMillis(50)).build();
+ * SearchResult<Order> late = search.find(orders, order -> order.isLate());
+ * if (late.decided()) { ... late.found() ... } else { ... answer "unknown" within 50 ms ... }
+ * SearchResult<String> error = ParallelSearch.builder().build().find(MappedFileStreams.lines(log).spliterator(), l -> l.contains("ERROR"));
+ * */
+public final class ParallelSearch {
+
+    /*elements tested between two looks at the shared state (match found, deadline, cancelled)*/
+    private static final int CHECK_INTERVAL = 1024;
+    /*with a deadline the interval adapts to the cost of the predicate so a check happens about this often*/
+    private static final long CHECK_NANOS = 50_000;
+    /*chunks per worker: small enough that an ordered search can skip the chunks after a match*/
+    private static final int CHUNKS_PER_WORKER = 16;
+    private static final int MIN_CHUNK_SIZE = 1024;
+
+    private final boolean ordered;
+    private final long deadlineNanos;
+    private final int parallelism;
+    private final Executor executor;
+
+    private ParallelSearch(Builder builder) {
+        this.ordered = builder.ordered;
+        this.deadlineNanos = builder.deadline == null ? -1 : builder.deadline.toNanos();
+        this.parallelism = builder.parallelism;
+        this.executor = builder.executor;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public <T> SearchResult<T> find(T[] array, Predicate<? super T> predicate) {
+        Objects.requireNonNull(array, "array");
+        Objects.requireNonNull(predicate, "predicate");
+        return findIndexed(array.length, (from, to, cursor) -> {
+            for (int i = from; i < to; i++) {
+                if (predicate.test(array[i])) {
+                    return cursor.offer(i, array[i]);
+                }
+                if (!cursor.checkpoint()) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    public SearchResult<Integer> find(int[] array, IntPredicate predicate) {
+        Objects.requireNonNull(array, "array");
+        Objects.requireNonNull(predicate, "predicate");
+        return findIndexed(array.length, (from, to, cursor) -> {
+            for (int i = from; i < to; i++) {
+                if (predicate.test(array[i])) {
+                    return cursor.offer(i, array[i]);
+                }
+                if (!cursor.checkpoint()) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    public SearchResult<Long> find(long[] array, LongPredicate predicate) {
+        Objects.requireNonNull(array, "array");
+        Objects.requireNonNull(predicate, "predicate");
+        return findIndexed(array.length, (from, to, cursor) -> {
+            for (int i = from; i < to; i++) {
+                if (predicate.test(array[i])) {
+                    return cursor.offer(i, array[i]);
+                }
+                if (!cursor.checkpoint()) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    public <T> SearchResult<T> find(List<T> list, Predicate<? super T> predicate) {
+        Objects.requireNonNull(list, "list");
+        Objects.requireNonNull(predicate, "predicate");
+        if (!(list instanceof RandomAccess)) {
+            return find(list.spliterator(), predicate);
+        }
+        return findIndexed(list.size(), (from, to, cursor) -> {
+            for (int i = from; i < to; i++) {
+                T element = list.get(i);
+                if (predicate.test(element)) {
+                    return cursor.offer(i, element);
+                }
+                if (!cursor.checkpoint()) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    /*
+     * The source is split up front (in the calling thread) into about parallelism * 16 parts in encounter order,
+     * how evenly depends on its trySplit. index is only known when every part reports an exact size.
+     * */
+    public <T> SearchResult<T> find(Spliterator<T> source, Predicate<? super T> predicate) {
+        Objects.requireNonNull(source, "source");
+        Objects.requireNonNull(predicate, "predicate");
+        List<Spliterator<T>> parts = new ArrayList<>();
+        split(source, 32 - Integer.numberOfLeadingZeros(parallelism * CHUNKS_PER_WORKER - 1), parts);
+        long[] starts = new long[parts.size()];
+        long position = 0;
+        for (int i = 0; i < parts.size() && position >= 0; i++) {
+            starts[i] = position;
+            long size = parts.get(i).getExactSizeIfKnown();
+            position = size < 0 ? -1 : position + size;
+        }
+        boolean indexed = position >= 0;
+        return run(parts.size(), (chunk, cursor) -> {
+            PartSearch<T> part = new PartSearch<>(predicate, cursor);
+            Spliterator<T> spliterator = parts.get(chunk);
+            while (part.searching() && spliterator.tryAdvance(part)) {
+                // part tests the element and stops at a match or when the cursor says so
+            }
+            if (part.matched) {
+                return cursor.offer(indexed ? starts[chunk] + cursor.tested : -1, part.match);
+            }
+            return !part.stopped;
+        });
+    }
+
+    private <T> SearchResult<T> findIndexed(int size, RangeSearcher<T> searcher) {
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, (int) Math.ceil((double) size / ((double) parallelism * CHUNKS_PER_WORKER)));
+        int chunks = (int) ((size + (long) chunkSize - 1) / chunkSize);
+        return run(chunks, (chunk, cursor) -> {
+            int from = chunk * chunkSize;
+            return searcher.search(from, (int) Math.min(size, (long) from + chunkSize), cursor);
+        });
+    }
+
+    private static <T> void split(Spliterator<T> source, int depth, List<Spliterator<T>> parts) {
+        Spliterator<T> prefix = depth > 0 ? source.trySplit() : null;
+        if (prefix == null) {
+            parts.add(source);
+            return;
+        }
+        split(prefix, depth - 1, parts);
+        split(source, depth - 1, parts);
+    }
+
+    private <T> SearchResult<T> run(int chunks, ChunkSearcher<T> searcher) {
+        long deadline = deadlineNanos < 0 ? Long.MAX_VALUE : System.nanoTime() + deadlineNanos;
+        Search<T> search = new Search<>(chunks, ordered, deadlineNanos >= 0, deadline, searcher);
+        for (int i = 1; i < Math.min(parallelism, chunks); i++) {
+            executor.execute(search::work);
+        }
+        search.work(); // the caller searches too, so the answer doesn't depend on the pool having a free thread
+        boolean complete = search.awaitDecided();
+        search.cancelled = true; // stragglers in chunks that can't change the answer stop at their next check
+        return search.result(complete);
+    }
+
+    /*searches one chunk, returns false when it stopped early (deadline, cancelled, decided), true when it finished or matched*/
+    @FunctionalInterface
+    private interface ChunkSearcher<T> {
+        boolean search(int chunk, Cursor<T> cursor);
+    }
+
+    @FunctionalInterface
+    private interface RangeSearcher<T> {
+        boolean search(int from, int to, Cursor<T> cursor);
+    }
+
+    /*offset = elements tested before it in its chunk, orders two matches of the same chunk*/
+    private record Candidate<T>(int chunk, long offset, long index, T element) {
+        boolean before(Candidate<?> other) {
+            return chunk < other.chunk || (chunk == other.chunk && offset < other.offset);
+        }
+    }
+
+    /*
+     * Shared state of one search. Every chunk is marked done exactly once (searched, stopped or skipped), so the caller
+     * knows which chunks are done without waiting for pool tasks that never got a thread.
+     * */
+    private static final class Search<T> {
+        private final int chunks;
+        private final boolean ordered;
+        private final boolean hasDeadline;
+        private final long deadline;
+        private final ChunkSearcher<T> searcher;
+        private final AtomicInteger nextChunk = new AtomicInteger();
+        private final AtomicReference<Candidate<T>> best = new AtomicReference<>();
+        /*lowest chunk that stopped before its end for a reason other than a better match (the deadline)*/
+        private final AtomicInteger firstIncomplete = new AtomicInteger(Integer.MAX_VALUE);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final LongAdder examined = new LongAdder();
+        /*guards done, doneCount and donePrefix, signalled when a chunk is done or a match is offered*/
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition progress = lock.newCondition();
+        private final boolean[] done;
+        private int doneCount;
+        /*every chunk below it is done*/
+        private int donePrefix;
+        volatile boolean cancelled;
+
+        Search(int chunks, boolean ordered, boolean hasDeadline, long deadline, ChunkSearcher<T> searcher) {
+            this.chunks = chunks;
+            this.ordered = ordered;
+            this.hasDeadline = hasDeadline;
+            this.deadline = deadline;
+            this.searcher = searcher;
+            this.done = new boolean[chunks];
+        }
+
+        /*takes chunks in encounter order until none is left, run by the caller and the helper tasks*/
+        void work() {
+            int chunk;
+            while ((chunk = nextChunk.getAndIncrement()) < chunks) {
+                Cursor<T> cursor = new Cursor<>(this, chunk);
+                try {
+                    boolean finished = !isDecidedFor(chunk) && !isOverdue() && searcher.search(chunk, cursor);
+                    if (!finished && !isDecidedFor(chunk)) {
+                        firstIncomplete.accumulateAndGet(chunk, Math::min);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                    cancelled = true;
+                } finally {
+                    examined.add(cursor.tested);
+                    markDone(chunk);
+                }
+            }
+        }
+
+        /*true when a match makes this chunk irrelevant: any match (unordered) or one in an earlier chunk (ordered)*/
+        boolean isDecidedFor(int chunk) {
+            if (cancelled) {
+                return true;
+            }
+            Candidate<T> candidate = best.get();
+            return candidate != null && (!ordered || candidate.chunk() < chunk);
+        }
+
+        boolean isOverdue() {
+            return hasDeadline && System.nanoTime() - deadline > 0;
+        }
+
+        void offer(Candidate<T> candidate) {
+            best.accumulateAndGet(candidate, (current, offered) -> current == null || offered.before(current) ? offered : current);
+            signalProgress();
+        }
+
+        private void markDone(int chunk) {
+            lock.lock();
+            try {
+                done[chunk] = true;
+                doneCount++;
+                while (donePrefix < chunks && done[donePrefix]) {
+                    donePrefix++;
+                }
+                progress.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void signalProgress() {
+            lock.lock();
+            try {
+                progress.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /*
+         * true when no running chunk can change the answer: every chunk is done, a failure, any match (unordered) or
+         * every chunk before the best match is done (ordered). Called while holding the lock.
+         * */
+        private boolean decided() {
+            if (doneCount == chunks || failure.get() != null) {
+                return true;
+            }
+            Candidate<T> candidate = best.get();
+            return candidate != null && (!ordered || donePrefix >= candidate.chunk());
+        }
+
+        /*false when the deadline passed before the answer was decided*/
+        boolean awaitDecided() {
+            lock.lock();
+            try {
+                while (!decided()) {
+                    if (!hasDeadline) {
+                        progress.await();
+                        continue;
+                    }
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) {
+                        return false;
+                    }
+                    progress.awaitNanos(left);
+                }
+                return true;
+            } catch (InterruptedException e) {
+                cancelled = true;
+                Thread.currentThread().interrupt();
+                throw new CancellationException("interrupted while searching");
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        SearchResult<T> result(boolean complete) {
+            Throwable error = failure.get();
+            if (error instanceof RuntimeException e) {
+                throw e;
+            }
+            if (error instanceof Error e) {
+                throw e;
+            }
+            Candidate<T> candidate = best.get();
+            long tested = examined.sum();
+            if (candidate != null && (!ordered || (complete && candidate.chunk() < firstIncomplete.get()))) {
+                return new SearchResult<>(SearchResult.Status.FOUND, candidate.element(), candidate.index(), tested);
+            }
+            if (candidate == null && complete && firstIncomplete.get() == Integer.MAX_VALUE) {
+                return new SearchResult<>(SearchResult.Status.NOT_FOUND, null, -1, tested);
+            }
+            return candidate == null
+                    ? new SearchResult<>(SearchResult.Status.TIMED_OUT, null, -1, tested)
+                    : new SearchResult<>(SearchResult.Status.TIMED_OUT, candidate.element(), candidate.index(), tested);
+        }
+    }
+
+    /*
+     * one worker's position in one chunk, checkpoint is called after every element that didn't match.
+     * Without a deadline it looks at the shared state every CHECK_INTERVAL elements. With one, a fixed count would let a
+     * 1 ms predicate run 1024 ms past the deadline, so the interval starts at 1 element and is rescaled at every check
+     * to about CHECK_NANOS of work (at most doubling, at most CHECK_INTERVAL): one System.nanoTime per ~50 us is noise.
+     * */
+    private static final class Cursor<T> {
+        private final Search<T> search;
+        private final int chunk;
+        long tested;
+        private int interval;
+        private int untilCheck;
+        private long lastCheck;
+
+        Cursor(Search<T> search, int chunk) {
+            this.search = search;
+            this.chunk = chunk;
+            this.interval = search.hasDeadline ? 1 : CHECK_INTERVAL;
+            this.untilCheck = interval;
+            this.lastCheck = search.hasDeadline ? System.nanoTime() : 0;
+        }
+
+        /*false when the worker should stop*/
+        boolean checkpoint() {
+            tested++;
+            if (--untilCheck > 0) {
+                return true;
+            }
+            if (search.hasDeadline) {
+                long now = System.nanoTime();
+                long elapsed = now - lastCheck;
+                lastCheck = now;
+                long scaled = elapsed <= 0 ? (long) interval * 2 : (long) interval * CHECK_NANOS / elapsed;
+                interval = (int) Math.max(1, Math.min(Math.min(scaled, (long) interval * 2), CHECK_INTERVAL));
+                if (now - search.deadline > 0) {
+                    return false;
+                }
+            }
+            untilCheck = interval;
+            return !search.isDecidedFor(chunk);
+        }
+
+        /*records the match, the chunk is finished*/
+        boolean offer(long index, T element) {
+            search.offer(new Candidate<>(chunk, tested++, index, element));
+            return true;
+        }
+    }
+
+    /*tryAdvance consumer for a spliterator part: tests one element, remembers a match*/
+    private static final class PartSearch<T> implements Consumer<T> {
+        private final Predicate<? super T> predicate;
+        private final Cursor<T> cursor;
+        boolean matched;
+        boolean stopped;
+        T match;
+
+        PartSearch(Predicate<? super T> predicate, Cursor<T> cursor) {
+            this.predicate = predicate;
+            this.cursor = cursor;
+        }
+
+        boolean searching() {
+            return !matched && !stopped;
+        }
+
+        @Override
+        public void accept(T element) {
+            if (predicate.test(element)) {
+                match = element;
+                matched = true;
+            } else if (!cursor.checkpoint()) {
+                stopped = true;
+            }
+        }
+    }
+
+    public static final class Builder {
+        private boolean ordered = true;
+        private Duration deadline;
+        private int parallelism = ForkJoinPool.getCommonPoolParallelism() + 1;
+        private Executor executor = ForkJoinPool.commonPool();
+
+        private Builder() {
+        }
+
+        /*findFirst semantics: the match with the lowest position (default)*/
+        public Builder ordered() {
+            this.ordered = true;
+            return this;
+        }
+
+        /*findAny/anyMatch semantics: any match, the first one seen stops the search*/
+        public Builder unordered() {
+            this.ordered = false;
+            return this;
+        }
+
+        /*give up after this long and return TIMED_OUT, default: no deadline*/
+        public Builder deadline(Duration deadline) {
+            Objects.requireNonNull(deadline, "deadline");
+            if (deadline.isNegative()) {
+                throw new IllegalArgumentException("deadline can't be negative: " + deadline);
+            }
+            this.deadline = deadline;
+            return this;
+        }
+
+        /*threads searching including the caller, default: common pool parallelism + 1*/
+        public Builder parallelism(int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /*where the parallelism - 1 helper tasks run, default: the common ForkJoinPool*/
+        public Builder executor(Executor executor) {
+            this.executor = Objects.requireNonNull(executor, "executor");
+            return this;
+        }
+
+        public ParallelSearch build() {
+            return new ParallelSearch(this);
+        }
+    }
+}
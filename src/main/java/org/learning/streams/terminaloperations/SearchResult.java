@@ -0,0 +1,42 @@
+package org.learning.streams.terminaloperations;
+
+import java.util.Optional;
+
+/*
+ * Outcome of a ParallelSearch.
+ * FOUND     = element matched; in ordered mode it is the first match in encounter order, in unordered mode any match
+ * NOT_FOUND = every element was tested, none matched
+ * TIMED_OUT = the deadline passed before the answer was decided. element is the best match seen so far or null:
+ *             in ordered mode an earlier element may still match, so it is only a candidate
+ * index     = position of element in the array/list (or SIZED spliterator), -1 when unknown or nothing matched
+ * examined  = elements the predicate was called with, across all workers, when the result was built (workers that
+ *             can't change the answer may still test a few more while stopping)
+ * */
+public record SearchResult<T>(Status status, T element, long index, long examined) {
+
+    public enum Status {
+        FOUND, NOT_FOUND, TIMED_OUT
+    }
+
+    public boolean found() {
+        return status == Status.FOUND;
+    }
+
+    /*FOUND or NOT_FOUND, false when the deadline cut the search short*/
+    public boolean decided() {
+        return status != Status.TIMED_OUT;
+    }
+
+    /*the match as an Optional like findFirst/findAny (empty for a null element), only for a decided search*/
+    public Optional<T> toOptional() {
+        if (!decided()) {
+            throw new IllegalStateException("the search timed out before it was decided");
+        }
+        return found() ? Optional.ofNullable(element) : Optional.empty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SearchResult{status=%s, element=%s, index=%d, examined=%d}", status, element, index, examined);
+    }
+}
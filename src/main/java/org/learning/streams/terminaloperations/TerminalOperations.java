@@ -1,7 +1,14 @@
 package org.learning.streams.terminaloperations;
 
 import lombok.extern.slf4j.Slf4j;
-
+import org.learning.streams.collectors.ConcurrentGroupingCollectors;
+import org.learning.streams.collectors.CountingCollectors;
+import org.learning.streams.collectors.IntLongMap;
+import org.learning.streams.collectors.QuantileSketch;
+import org.learning.streams.collectors.StatisticsCollectors;
+import org.learning.streams.collectors.StreamingStatistics;
+
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -19,6 +26,10 @@ public class TerminalOperations {
         integers.stream().parallel().forEach(System.out::println); //3 2 1 4 5
         log.info("forEachOrdered: still holds the order in parallel streams");
         integers.stream().parallel().forEachOrdered(System.out::println); //1 2 3 4 5
+        log.info("printing a lot of elements: System.out::println locks and flushes per element, AsyncOutputSink buffers per thread and writes in bulk");
+        try (AsyncOutputSink<Integer> out = AsyncOutputSink.<Integer>builder().build()) {
+            integers.stream().parallel().map(num -> num * 100).forEach(out); //300 100 200 400 500 (written when the buffer fills or on close)
+        }
 
         log.info("2. toArray()");
         log.info("converts the stream to array");
@@ -42,6 +53,15 @@ public class TerminalOperations {
         log.info("doubled list {}", doubledList);
         Map<Integer, Long> collect = integers.stream().collect(Collectors.groupingBy(x -> x, Collectors.counting()));// {1=1, 2=1, 3=1, 4=1, 5=1}
         log.info("the count of each element in the list is {}", collect);
+        log.info("groupingBy boxes every key and count, for int keys the primitive IntLongMap counts without boxing");
+        IntLongMap counts = integers.stream().collect(CountingCollectors.countingInts());// {5=1, 2=1, 4=1, 1=1, 3=1} (hash order not sorted)
+        log.info("the count of each element via IntLongMap is {}", counts);
+        IntLongMap primitiveCounts = CountingCollectors.counting(IntStream.of(1, 2, 2, 3, 3, 3).parallel());// {2=2, 1=1, 3=3}
+        log.info("the count of each element from IntStream is {} and as a Map {}", primitiveCounts, primitiveCounts.toMap());
+        log.info("on parallel streams groupingBy merges a map per fork, the concurrent grouping collectors share one table of LongAdder cells");
+        Map<Integer, Long> parallelCounts = integers.parallelStream().collect(ConcurrentGroupingCollectors.counting(x -> x % 3));// {0=1, 1=2, 2=2}
+        Map<Integer, List<Integer>> examplesPerKey = integers.parallelStream().collect(ConcurrentGroupingCollectors.firstN(x -> x % 2, 2));// at most 2 per key
+        log.info("counts per remainder {} and at most two examples per parity {}", parallelCounts, examplesPerKey);
 
         log.info("5. matching short circuits");
         log.info("a. anyMatch: if atleast one of the element satisfy the condition");
@@ -66,6 +86,14 @@ public class TerminalOperations {
         Optional<Integer> findAny = integers.stream().findAny();// any element
         log.info("findAny: {}", findAny);
 
+        log.info("c. ParallelSearch: a parallel findFirst/findAny that stops every worker once the answer is known and can give up at a deadline");
+        int[] numbers = IntStream.range(0, 10_000_000).toArray();
+        ParallelSearch firstMatch = ParallelSearch.builder().deadline(Duration.ofSeconds(1)).build();
+        SearchResult<Integer> firstMultipleOf7777 = firstMatch.find(numbers, x -> x > 0 && x % 7777 == 0);// FOUND 7777 at index 7777
+        log.info("findFirst with ParallelSearch: {}", firstMultipleOf7777);
+        SearchResult<Integer> anyLarge = ParallelSearch.builder().unordered().build().find(numbers, x -> x > 9_000_000);// FOUND, any element > 9M
+        log.info("findAny with ParallelSearch: {} anyMatch: {}", anyLarge, anyLarge.found());
+
         log.info("7. count: gets the count of elements in that stream");
         long count = integers.stream().count();//5
         log.info("count: {}", count);
@@ -96,5 +124,19 @@ public class TerminalOperations {
         IntSummaryStatistics intSummaryStatistics = integers.stream().mapToInt(num -> num).summaryStatistics();
         log.info("summary: {}", intSummaryStatistics);//summary: IntSummaryStatistics{count=5, sum=15, min=1, average=3.000000, max=5}
 
+        log.info("11. streaming statistics: stddev and p50/p99/p999 in one pass without sorting");
+        int[] latencies = new SplittableRandom(42).ints(1_000_000, 0, 100).map(i -> i < 98 ? 5 + i : 200 + i * 10).toArray();
+        StreamingStatistics latency = StatisticsCollectors.summarize(IntStream.of(latencies).parallel());
+        log.info("latency: {}", latency);
+        int[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        double worstError = 0;
+        for (double q : new double[]{0.5, 0.9, 0.99, 0.999}) {
+            int exact = sorted[(int) Math.ceil(q * sorted.length) - 1];
+            worstError = Math.max(worstError, Math.abs(latency.getQuantile(q) - exact) / exact);
+            log.info("p{}: sketch {} exact {}", q * 100, latency.getQuantile(q), exact);
+        }
+        log.info("worst relative error {} (bound {})", worstError, QuantileSketch.RELATIVE_ERROR);
+        log.info("the bound is asserted on several distributions by collectors/testClasses/TestStreamingStatistics");
     }
 }